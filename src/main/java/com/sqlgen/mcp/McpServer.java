@@ -10,6 +10,7 @@ import org.springframework.context.annotation.Configuration;
 
 import com.sqlgen.mcp.admin.ToolAdminController;
 import com.sqlgen.mcp.service.SchemaInitService;
+import com.sqlgen.mcp.service.VectorStoreService;
 
 import io.javalin.Javalin;
 import io.javalin.openapi.plugin.OpenApiPlugin;
@@ -111,13 +112,30 @@ public class McpServer {
 //		
 //    }
     
+    /**
+     * 스키마 추출 + 인덱싱. 인덱스 스냅샷을 복원했으면 바로 검색을 받을 수 있으므로 DB 동기화는 백그라운드로 돌린다.
+     */
+    private void initializeSchema(AnnotationConfigApplicationContext context) {
+        SchemaInitService schemaInitService = context.getBean(SchemaInitService.class);
+        if (context.getBean(VectorStoreService.class).restoreSnapshot()) {
+            Thread sync = new Thread(() -> {
+                schemaInitService.initializeSchema(null);
+                logger.info("Schema synchronized in background.");
+            }, "schema-sync");
+            sync.setDaemon(true);
+            sync.start();
+            logger.info("Index restored from snapshot. Schema sync started in background.");
+            return;
+        }
+        schemaInitService.initializeSchema(null);
+        logger.info("Schema initialized.");
+    }
+
     public void launchStdio() {
         AnnotationConfigApplicationContext context = createSpringContext();
         com.sqlgen.mcp.handler.McpHandler mcpHandler = context.getBean(com.sqlgen.mcp.handler.McpHandler.class);
 
-        SchemaInitService schemaInitService = context.getBean(SchemaInitService.class);
-        schemaInitService.initializeSchema(null);
-        logger.info("Schema initialized.");
+        initializeSchema(context);
 
         // Stdio 트랜스포트 프로바이더로 서버 시작
         StdioServerTransportProvider transportProvider = 
@@ -135,9 +153,7 @@ public class McpServer {
         com.sqlgen.mcp.controller.McpController mcpController = context.getBean(com.sqlgen.mcp.controller.McpController.class);
         com.fasterxml.jackson.databind.ObjectMapper sharedObjectMapper = context.getBean(com.fasterxml.jackson.databind.ObjectMapper.class);
 
-        SchemaInitService schemaInitService = context.getBean(SchemaInitService.class);
-        schemaInitService.initializeSchema(null);
-        logger.info("Schema initialized.");
+        initializeSchema(context);
 
         int port = 7070;
         try {
@@ -186,6 +202,7 @@ public class McpServer {
         app.delete("/api/tools/{name}/boost",  toolAdminController::removeBoost);
         app.get("/api/tools/metadata/export",  toolAdminController::exportMetadata);
         app.post("/api/tools/metadata/import", toolAdminController::importMetadata);
+        app.post("/api/tools/korean-dict/reload", toolAdminController::reloadKoreanDict);
 
         // SQL Examples API
         app.get("/api/examples",                sqlExampleController::list);
@@ -0,0 +1,239 @@
+package com.sqlgen.mcp.admin;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * tool-metadata.json 의 boost 규칙을 검색용으로 컴파일한 불변 매처.
+ * ToolMetadataStore 가 변경될 때마다 새로 만들어 교체하며, 검색 한 건에서는 질의 문자열을 한 번 훑어 발동한 규칙을 표시한다.
+ *
+ * ToolMeta.matchesQuery 와 같은 조건으로 판정한다 (키워드는 대소문자 무시).
+ *   - 질의 키워드가 설정 키워드를 포함: 설정 키워드 전체에 대한 Aho-Corasick 오토마톤으로 찾는다.
+ *   - 설정 키워드가 질의 키워드를 포함: 설정 키워드의 모든 접미사를 넣은 trie 를 따라 내려가 찾는다.
+ *   - 설정 키워드가 없으면 항상 발동한다.
+ */
+public final class BoostRules {
+
+    public static final BoostRules EMPTY = compile(Map.of());
+
+    private final Map<String, Integer> ruleByTable;
+    private final double[] boosts;
+    private final boolean[] always;
+    /** 설정 키워드 Aho-Corasick (질의 ⊇ 키워드) */
+    private final CharTrie automaton;
+    private final int[] failure;
+    /** 설정 키워드 접미사 trie (키워드 ⊇ 질의) */
+    private final CharTrie suffixes;
+
+    private BoostRules(Map<String, Integer> ruleByTable, double[] boosts, boolean[] always,
+                       CharTrie automaton, int[] failure, CharTrie suffixes) {
+        this.ruleByTable = ruleByTable;
+        this.boosts = boosts;
+        this.always = always;
+        this.automaton = automaton;
+        this.failure = failure;
+        this.suffixes = suffixes;
+    }
+
+    public static BoostRules compile(Map<String, ToolMetadataStore.ToolMeta> metadata) {
+        Map<String, Integer> ruleByTable = new HashMap<>(metadata.size() * 2);
+        double[] boosts = new double[metadata.size()];
+        boolean[] always = new boolean[metadata.size()];
+        CharTrie automaton = new CharTrie();
+        CharTrie suffixes = new CharTrie();
+        int rule = 0;
+        for (Map.Entry<String, ToolMetadataStore.ToolMeta> e : metadata.entrySet()) {
+            ToolMetadataStore.ToolMeta meta = e.getValue();
+            ruleByTable.put(e.getKey(), rule);
+            boosts[rule] = meta.boost();
+            always[rule] = meta.keywords().isEmpty();
+            for (String keyword : meta.keywords()) {
+                String lower = keyword.toLowerCase();
+                automaton.addOutput(automaton.insert(lower, 0, -1), rule);
+                for (int start = 0; start < lower.length(); start++) {
+                    suffixes.insert(lower, start, rule);
+                }
+            }
+            rule++;
+        }
+        // 빈 키워드는 모든 질의에 포함되므로 루트 출력으로 들어가 항상 발동한다 (matchesQuery 와 같은 동작).
+        int[] failure = automaton.buildFailureLinks();
+        automaton.freeze();
+        suffixes.freeze();
+        return new BoostRules(Map.copyOf(ruleByTable), boosts, always, automaton, failure, suffixes);
+    }
+
+    public boolean isEmpty() {
+        return boosts.length == 0;
+    }
+
+    /**
+     * 질의 키워드(쉼표로 나눈 조각)로 발동하는 규칙을 표시한다. 검색 한 건에 한 번 호출한다.
+     * 공백뿐인 조각은 다른 검색 단계와 마찬가지로 무시한다.
+     */
+    public boolean[] match(String[] queryKeywords) {
+        boolean[] fired = always.clone();
+        for (String raw : queryKeywords) {
+            String keyword = raw.trim().toLowerCase();
+            if (keyword.isEmpty()) continue;
+            // 질의 ⊇ 설정 키워드
+            int state = 0;
+            mark(automaton.outputs(state), fired);
+            for (int i = 0; i < keyword.length(); i++) {
+                char c = keyword.charAt(i);
+                int next;
+                while ((next = automaton.child(state, c)) < 0 && state != 0) {
+                    state = failure[state];
+                }
+                state = Math.max(next, 0);
+                mark(automaton.outputs(state), fired);
+            }
+            // 설정 키워드 ⊇ 질의
+            int node = 0;
+            for (int i = 0; i < keyword.length() && node >= 0; i++) {
+                node = suffixes.child(node, keyword.charAt(i));
+            }
+            if (node >= 0) {
+                mark(suffixes.outputs(node), fired);
+            }
+        }
+        return fired;
+    }
+
+    /** 테이블에 규칙이 있고 발동했으면 boost 배수, 아니면 1.0 */
+    public double multiplier(String tableName, boolean[] fired) {
+        Integer rule = ruleByTable.get(tableName);
+        return rule != null && fired[rule] ? boosts[rule] : 1.0;
+    }
+
+    private static void mark(int[] rules, boolean[] fired) {
+        for (int rule : rules) {
+            fired[rule] = true;
+        }
+    }
+
+    /**
+     * 문자 단위 trie. 노드별 자식은 정렬된 char[]/int[] 로 두어 검색 시 박싱 없이 이분 탐색한다.
+     * 노드마다 규칙 번호 목록(outputs)을 가진다.
+     */
+    private static final class CharTrie {
+        private final List<char[]> labels = new ArrayList<>();
+        private final List<int[]> targets = new ArrayList<>();
+        private final List<int[]> outputs = new ArrayList<>();
+        private char[][] frozenLabels;
+        private int[][] frozenTargets;
+        private int[][] frozenOutputs;
+
+        CharTrie() {
+            newNode();
+        }
+
+        /**
+         * text[start..] 경로를 만든다. rule 이 0 이상이면 지나는 모든 노드(시작 노드 제외)에 rule 을 기록한다.
+         * @return 마지막 노드
+         */
+        int insert(String text, int start, int rule) {
+            int node = 0;
+            for (int i = start; i < text.length(); i++) {
+                char c = text.charAt(i);
+                int next = find(node, c);
+                if (next < 0) {
+                    next = newNode();
+                    link(node, c, next);
+                }
+                node = next;
+                if (rule >= 0) addOutput(node, rule);
+            }
+            return node;
+        }
+
+        void addOutput(int node, int rule) {
+            int[] current = outputs.get(node);
+            for (int r : current) {
+                if (r == rule) return;
+            }
+            int[] grown = Arrays.copyOf(current, current.length + 1);
+            grown[current.length] = rule;
+            outputs.set(node, grown);
+        }
+
+        /** BFS 로 실패 링크를 만들고, 실패 링크를 따라 닿는 노드의 출력을 미리 합쳐 둔다. */
+        int[] buildFailureLinks() {
+            int[] failure = new int[labels.size()];
+            int[] queue = new int[labels.size()];
+            int head = 0;
+            int tail = 0;
+            int[] rootTargets = targets.get(0);
+            for (int child : rootTargets) {
+                failure[child] = 0;
+                queue[tail++] = child;
+            }
+            while (head < tail) {
+                int node = queue[head++];
+                char[] nodeLabels = labels.get(node);
+                int[] nodeTargets = targets.get(node);
+                for (int i = 0; i < nodeLabels.length; i++) {
+                    char c = nodeLabels[i];
+                    int child = nodeTargets[i];
+                    int f = failure[node];
+                    int next;
+                    while ((next = find(f, c)) < 0 && f != 0) {
+                        f = failure[f];
+                    }
+                    failure[child] = next >= 0 && next != child ? next : 0;
+                    for (int rule : outputs.get(failure[child])) {
+                        addOutput(child, rule);
+                    }
+                    queue[tail++] = child;
+                }
+            }
+            return failure;
+        }
+
+        void freeze() {
+            frozenLabels = labels.toArray(new char[0][]);
+            frozenTargets = targets.toArray(new int[0][]);
+            frozenOutputs = outputs.toArray(new int[0][]);
+        }
+
+        int child(int node, char c) {
+            int idx = Arrays.binarySearch(frozenLabels[node], c);
+            return idx >= 0 ? frozenTargets[node][idx] : -1;
+        }
+
+        int[] outputs(int node) {
+            return frozenOutputs[node];
+        }
+
+        private int find(int node, char c) {
+            int idx = Arrays.binarySearch(labels.get(node), c);
+            return idx >= 0 ? targets.get(node)[idx] : -1;
+        }
+
+        private int newNode() {
+            labels.add(new char[0]);
+            targets.add(new int[0]);
+            outputs.add(new int[0]);
+            return labels.size() - 1;
+        }
+
+        private void link(int node, char c, int child) {
+            char[] nodeLabels = labels.get(node);
+            int[] nodeTargets = targets.get(node);
+            int pos = -(Arrays.binarySearch(nodeLabels, c) + 1);
+            char[] newLabels = new char[nodeLabels.length + 1];
+            int[] newTargets = new int[nodeTargets.length + 1];
+            System.arraycopy(nodeLabels, 0, newLabels, 0, pos);
+            System.arraycopy(nodeTargets, 0, newTargets, 0, pos);
+            newLabels[pos] = c;
+            newTargets[pos] = child;
+            System.arraycopy(nodeLabels, pos, newLabels, pos + 1, nodeLabels.length - pos);
+            System.arraycopy(nodeTargets, pos, newTargets, pos + 1, nodeTargets.length - pos);
+            labels.set(node, newLabels);
+            targets.set(node, newTargets);
+        }
+    }
+}
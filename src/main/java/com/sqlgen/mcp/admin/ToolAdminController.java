@@ -1,6 +1,7 @@
 package com.sqlgen.mcp.admin;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sqlgen.mcp.service.QueryEmbeddingCache;
 import com.sqlgen.mcp.service.VectorStoreService;
 import io.javalin.http.Context;
 import io.javalin.http.UploadedFile;
@@ -17,13 +18,16 @@ public class ToolAdminController {
 
     private final ToolMetadataStore metadataStore;
     private final VectorStoreService vectorStoreService;
+    private final QueryEmbeddingCache queryEmbeddingCache;
     private final ObjectMapper objectMapper;
 
     public ToolAdminController(ToolMetadataStore metadataStore,
                                VectorStoreService vectorStoreService,
+                               QueryEmbeddingCache queryEmbeddingCache,
                                ObjectMapper objectMapper) {
         this.metadataStore = metadataStore;
         this.vectorStoreService = vectorStoreService;
+        this.queryEmbeddingCache = queryEmbeddingCache;
         this.objectMapper = objectMapper;
     }
 
@@ -135,7 +139,9 @@ public class ToolAdminController {
                "provider", vectorStoreService.getConfiguredProvider(),
                "storeType", vectorStoreService.getStoreType(),
                "ready", vectorStoreService.isReady(),
-               "total", vectorStoreService.getTableCount()
+               "total", vectorStoreService.getTableCount(),
+               "queryCache", queryEmbeddingCache.stats(),
+               "resultCache", vectorStoreService.getResultCacheStats()
            )));
     }
 
@@ -199,6 +205,19 @@ public class ToolAdminController {
         }
     }
 
+    // ── POST /api/tools/korean-dict/reload ───────────────────────────────────
+    // ai.korean-dict.path (없으면 classpath) 사전을 다시 읽어 교체하고 텍스트 색인을 새 사전으로 다시 만든다. 실패하면 기존 사전 유지.
+    public void reloadKoreanDict(Context ctx) throws Exception {
+        try {
+            int entries = vectorStoreService.reloadKoreanDictionary();
+            ctx.contentType("application/json")
+               .result(objectMapper.writeValueAsString(Map.of("success", true, "entries", entries)));
+        } catch (Exception e) {
+            ctx.contentType("application/json")
+               .result(objectMapper.writeValueAsString(Map.of("success", false, "error", String.valueOf(e.getMessage()))));
+        }
+    }
+
     private int parseIntOrDefault(String val, int def) {
         if (val == null) return def;
         try { return Integer.parseInt(val); } catch (NumberFormatException e) { return def; }
@@ -10,6 +10,7 @@ import java.nio.file.*;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * 툴별 추가 설명(extraDescription), 부스트 점수(boost), 부스트 발동 키워드(keywords)를 관리합니다.
@@ -42,6 +43,10 @@ public class ToolMetadataStore {
     private final Map<String, ToolMeta> store = new ConcurrentHashMap<>();
     private final ObjectMapper objectMapper = new ObjectMapper();
     private final Path metaFilePath;
+    /** 검색용으로 컴파일한 boost 규칙. 변경될 때마다 통째로 교체한다. */
+    private volatile BoostRules boostRules = BoostRules.EMPTY;
+    /** 변경 횟수 (검색 결과 캐시 무효화용) */
+    private final AtomicLong version = new AtomicLong();
 
     public ToolMetadataStore(
             @Value("${tool.metadata.path:tool-metadata.json}") String metaFilePath) {
@@ -59,24 +64,42 @@ public class ToolMetadataStore {
 
     public void set(String toolName, String extraDescription, double boost, List<String> keywords) {
         store.put(toolName, new ToolMeta(extraDescription, boost, keywords));
-        save();
+        changed();
     }
 
     public void remove(String toolName) {
         store.remove(toolName);
-        save();
+        changed();
     }
 
     public void replaceAll(Map<String, ToolMeta> newData) {
         store.clear();
         store.putAll(newData);
-        save();
+        changed();
     }
 
     public Map<String, ToolMeta> getAll() {
         return Map.copyOf(store);
     }
 
+    public BoostRules boostRules() {
+        return boostRules;
+    }
+
+    public long version() {
+        return version.get();
+    }
+
+    private synchronized void changed() {
+        save();
+        recompile();
+    }
+
+    private void recompile() {
+        boostRules = BoostRules.compile(Map.copyOf(store));
+        version.incrementAndGet();
+    }
+
     @SuppressWarnings("unchecked")
     private void load() {
         if (!Files.exists(metaFilePath)) return;
@@ -89,6 +112,7 @@ public class ToolMetadataStore {
                 List<String> keywords = (List<String>) meta.getOrDefault("keywords", List.of());
                 store.put(toolName, new ToolMeta(desc, boost, keywords));
             });
+            recompile();
             log.info("[ToolMetadata] Loaded {} entries from {}", store.size(), metaFilePath);
         } catch (Exception e) {
             log.error("[ToolMetadata] Load failed: {}", e.getMessage(), e);
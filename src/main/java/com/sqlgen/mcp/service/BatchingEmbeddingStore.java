@@ -0,0 +1,137 @@
+package com.sqlgen.mcp.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.function.IntFunction;
+
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.store.embedding.EmbeddingSearchRequest;
+import dev.langchain4j.store.embedding.EmbeddingSearchResult;
+import dev.langchain4j.store.embedding.EmbeddingStore;
+import dev.langchain4j.store.embedding.filter.Filter;
+
+/**
+ * 원격 저장소(ChromaDB) 쓰기를 묶음 요청으로 나누는 래퍼.
+ * addAll / removeAll(ids) 를 batchSize 단위 요청으로 쪼개고 최대 concurrency 개까지 동시에 보낸다.
+ * 검색과 단건 호출은 그대로 위임한다.
+ *
+ * 한 묶음이라도 실패하면 나머지 묶음이 끝난 뒤 첫 예외를 던진다. id 기반 쓰기이므로 같은 호출을 다시 해도 안전하다.
+ */
+final class BatchingEmbeddingStore implements EmbeddingStore<TextSegment> {
+
+    private final EmbeddingStore<TextSegment> delegate;
+    private final int batchSize;
+    private final Semaphore permits;
+
+    BatchingEmbeddingStore(EmbeddingStore<TextSegment> delegate, int batchSize, int concurrency) {
+        this.delegate = delegate;
+        this.batchSize = Math.max(1, batchSize);
+        this.permits = new Semaphore(Math.max(1, concurrency));
+    }
+
+    @Override
+    public String add(Embedding embedding) {
+        return delegate.add(embedding);
+    }
+
+    @Override
+    public void add(String id, Embedding embedding) {
+        delegate.add(id, embedding);
+    }
+
+    @Override
+    public String add(Embedding embedding, TextSegment segment) {
+        return delegate.add(embedding, segment);
+    }
+
+    @Override
+    public List<String> addAll(List<Embedding> embeddings) {
+        List<String> ids = generateIds(embeddings.size());
+        addAll(ids, embeddings, null);
+        return ids;
+    }
+
+    @Override
+    public List<String> addAll(List<Embedding> embeddings, List<TextSegment> embedded) {
+        List<String> ids = generateIds(embeddings.size());
+        addAll(ids, embeddings, embedded);
+        return ids;
+    }
+
+    @Override
+    public void addAll(List<String> ids, List<Embedding> embeddings, List<TextSegment> embedded) {
+        inBatches(ids.size(), from -> {
+            int to = Math.min(from + batchSize, ids.size());
+            return () -> delegate.addAll(ids.subList(from, to), embeddings.subList(from, to),
+                    embedded == null ? null : embedded.subList(from, to));
+        });
+    }
+
+    @Override
+    public void removeAll(Collection<String> ids) {
+        List<String> list = List.copyOf(ids);
+        inBatches(list.size(), from -> {
+            List<String> chunk = list.subList(from, Math.min(from + batchSize, list.size()));
+            return () -> delegate.removeAll(chunk);
+        });
+    }
+
+    @Override
+    public void removeAll(Filter filter) {
+        delegate.removeAll(filter);
+    }
+
+    @Override
+    public void removeAll() {
+        delegate.removeAll();
+    }
+
+    @Override
+    public EmbeddingSearchResult<TextSegment> search(EmbeddingSearchRequest request) {
+        return delegate.search(request);
+    }
+
+    /** [0, total) 를 batchSize 단위로 나눠 실행한다. 한 묶음뿐이면 호출 스레드에서 바로 보낸다. */
+    private void inBatches(int total, IntFunction<Runnable> batchAt) {
+        if (total == 0) return;
+        if (total <= batchSize) {
+            batchAt.apply(0).run();
+            return;
+        }
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int from = 0; from < total; from += batchSize) {
+                Runnable batch = batchAt.apply(from);
+                futures.add(executor.submit(() -> {
+                    permits.acquireUninterruptibly();
+                    try {
+                        batch.run();
+                    } finally {
+                        permits.release();
+                    }
+                }));
+            }
+            RuntimeException failure = null;
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    if (failure == null) {
+                        failure = e.getCause() instanceof RuntimeException re ? re : new IllegalStateException(e.getCause());
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while writing embedding batches", e);
+                }
+            }
+            if (failure != null) throw failure;
+        }
+    }
+}
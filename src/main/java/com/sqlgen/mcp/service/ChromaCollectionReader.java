@@ -0,0 +1,211 @@
+package com.sqlgen.mcp.service;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import dev.langchain4j.data.document.Metadata;
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.store.embedding.EmbeddingMatch;
+
+/**
+ * langchain4j ChromaEmbeddingStore 가 제공하지 않는 ChromaDB V2 REST API 호출 (전체 조회, 다중 질의 검색).
+ * TieredEmbeddingStore 가 로컬 복제본을 채우고, 다른 인스턴스의 변경 여부를 판단하고, 복제본이 없을 때 검색하는 데 쓴다.
+ *
+ *   GET  /api/v2/tenants/{tenant}/databases/{database}/collections/{name}  : 컬렉션 id, version
+ *   GET  .../collections/{id}/count                                         : 항목 수
+ *   POST .../collections/{id}/get    {limit, offset, include}               : 페이지 단위 조회 (include 가 비면 id 만)
+ *   POST .../collections/{id}/query  {query_embeddings, n_results, include} : 질의 여러 개를 요청 한 건으로 검색
+ */
+final class ChromaCollectionReader {
+
+    /**
+     * 컬렉션 상태 식별값. 하나라도 바뀌면 다른 쓰기가 있었던 것으로 본다.
+     * 구버전 서버는 version 을 주지 않으므로 (-1) 항목 수만으로는 같은 수의 추가/삭제나 본문 교체를 알 수 없다.
+     * 그때는 digest 에 id/본문 digest 를 채워 함께 비교한다. version 이 있으면 digest 는 0 이다.
+     */
+    record Fingerprint(long version, long count, long digest) {
+        boolean versioned() {
+            return version >= 0;
+        }
+    }
+
+    @FunctionalInterface
+    interface RowConsumer {
+        void accept(String id, Embedding embedding, TextSegment segment);
+    }
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    private final HttpClient http = HttpClient.newBuilder().connectTimeout(TIMEOUT).build();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final String collectionsUrl;
+    private final String collectionName;
+    private volatile String collectionId;
+
+    ChromaCollectionReader(String baseUrl, String tenant, String database, String collectionName) {
+        String base = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        this.collectionsUrl = base + "/api/v2/tenants/" + encode(tenant) + "/databases/" + encode(database) + "/collections/";
+        this.collectionName = collectionName;
+    }
+
+    /** 컬렉션 id 를 확인하고 version/항목 수를 읽는다. digest 는 채우지 않는다. */
+    Fingerprint fingerprint() throws IOException, InterruptedException {
+        JsonNode collection = send(HttpRequest.newBuilder(URI.create(collectionsUrl + encode(collectionName))).GET());
+        collectionId = collection.path("id").asText();
+        long version = collection.path("version").asLong(-1);
+        long count = send(HttpRequest.newBuilder(URI.create(collectionsUrl + collectionId + "/count")).GET()).asLong();
+        return new Fingerprint(version, count, 0);
+    }
+
+    /**
+     * version 이 없으면 id 와 본문을 읽어 digest 를 채운다 (벡터는 읽지 않는다).
+     * 다른 인스턴스도 같은 모델로 임베딩하므로 본문이 같으면 벡터도 같다고 본다.
+     */
+    Fingerprint fingerprint(int pageSize) throws IOException, InterruptedException {
+        Fingerprint fingerprint = fingerprint();
+        if (fingerprint.versioned()) return fingerprint;
+        long[] digest = new long[1];
+        long[] count = new long[1];
+        forEachPage(pageSize, page -> {
+            JsonNode ids = page.path("ids");
+            for (int i = 0; i < ids.size(); i++) {
+                JsonNode document = page.path("documents").path(i);
+                digest[0] += rowDigest(ids.path(i).asText(), document.isTextual() ? document.asText() : null);
+            }
+            count[0] += ids.size();
+        }, "documents");
+        return new Fingerprint(-1, count[0], digest[0]);
+    }
+
+    /** 행 하나의 digest. 순서와 무관하게 합으로 모은다. */
+    static long rowDigest(String id, String document) {
+        long h = id.hashCode() * 0x9E3779B97F4A7C15L + (document == null ? 0 : document.hashCode());
+        h = (h ^ (h >>> 33)) * 0xFF51AFD7ED558CCDL;
+        h = (h ^ (h >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return h ^ (h >>> 33);
+    }
+
+    /** 컬렉션 전체를 pageSize 단위로 읽는다. fingerprint() 를 먼저 호출해야 한다. */
+    void readAll(int pageSize, RowConsumer consumer) throws IOException, InterruptedException {
+        forEachPage(pageSize, page -> {
+            JsonNode ids = page.path("ids");
+            for (int i = 0; i < ids.size(); i++) {
+                JsonNode document = page.path("documents").path(i);
+                TextSegment segment = document.isTextual()
+                        ? TextSegment.from(document.asText(), metadata(page.path("metadatas").path(i)))
+                        : null;
+                consumer.accept(ids.path(i).asText(), embedding(page.path("embeddings").path(i)), segment);
+            }
+        }, "embeddings", "documents", "metadatas");
+    }
+
+    /** 컬렉션의 id 만 pageSize 단위로 읽는다 (벡터/본문 제외). fingerprint() 를 먼저 호출해야 한다. */
+    void readIds(int pageSize, Consumer<String> consumer) throws IOException, InterruptedException {
+        forEachPage(pageSize, page -> page.path("ids").forEach(id -> consumer.accept(id.asText())));
+    }
+
+    /** /get 을 offset 을 옮겨 가며 마지막 페이지까지 보낸다. include 가 비면 id 만 받는다. */
+    private void forEachPage(int pageSize, Consumer<JsonNode> consumer, String... include)
+            throws IOException, InterruptedException {
+        for (int offset = 0; ; offset += pageSize) {
+            ObjectNode body = objectMapper.createObjectNode();
+            body.put("limit", pageSize);
+            body.put("offset", offset);
+            ArrayNode fields = body.putArray("include");
+            for (String field : include) fields.add(field);
+            JsonNode page = send(HttpRequest.newBuilder(URI.create(collectionsUrl + collectionId + "/get"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body))));
+            consumer.accept(page);
+            if (page.path("ids").size() < pageSize) return;
+        }
+    }
+
+    /**
+     * 질의 벡터 전부를 /query 요청 한 건으로 검색한다. 점수는 ChromaEmbeddingStore 와 같게 코사인 거리 d 를 1 - d/2 로 바꾼다.
+     * @return queries 순서대로 질의별 결과
+     */
+    List<List<EmbeddingMatch<TextSegment>>> query(List<Embedding> queries, int maxResults, double minScore)
+            throws IOException, InterruptedException {
+        if (collectionId == null) fingerprint();
+        ObjectNode body = objectMapper.createObjectNode();
+        ArrayNode vectors = body.putArray("query_embeddings");
+        for (Embedding query : queries) {
+            ArrayNode vector = vectors.addArray();
+            for (float v : query.vector()) vector.add(v);
+        }
+        body.put("n_results", maxResults);
+        body.putArray("include").add("embeddings").add("documents").add("metadatas").add("distances");
+        JsonNode response = send(HttpRequest.newBuilder(URI.create(collectionsUrl + collectionId + "/query"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body))));
+        List<List<EmbeddingMatch<TextSegment>>> results = new ArrayList<>(queries.size());
+        for (int q = 0; q < queries.size(); q++) {
+            JsonNode ids = response.path("ids").path(q);
+            List<EmbeddingMatch<TextSegment>> matches = new ArrayList<>(ids.size());
+            for (int i = 0; i < ids.size(); i++) {
+                double score = 1 - response.path("distances").path(q).path(i).asDouble() / 2;
+                if (score < minScore) continue;
+                JsonNode document = response.path("documents").path(q).path(i);
+                TextSegment segment = document.isTextual()
+                        ? TextSegment.from(document.asText(), metadata(response.path("metadatas").path(q).path(i)))
+                        : null;
+                matches.add(new EmbeddingMatch<>(score, ids.path(i).asText(),
+                        embedding(response.path("embeddings").path(q).path(i)), segment));
+            }
+            results.add(matches);
+        }
+        return results;
+    }
+
+    private static Embedding embedding(JsonNode vector) {
+        float[] values = new float[vector.size()];
+        for (int d = 0; d < values.length; d++) {
+            values[d] = (float) vector.path(d).asDouble();
+        }
+        return new Embedding(values);
+    }
+
+    private static Metadata metadata(JsonNode node) {
+        Map<String, Object> values = new HashMap<>();
+        for (Iterator<Map.Entry<String, JsonNode>> it = node.fields(); it.hasNext(); ) {
+            Map.Entry<String, JsonNode> e = it.next();
+            JsonNode v = e.getValue();
+            if (v.isIntegralNumber()) values.put(e.getKey(), v.asLong());
+            else if (v.isNumber()) values.put(e.getKey(), v.asDouble());
+            else if (!v.isNull()) values.put(e.getKey(), v.asText());
+        }
+        return Metadata.from(values);
+    }
+
+    private JsonNode send(HttpRequest.Builder request) throws IOException, InterruptedException {
+        HttpResponse<String> response = http.send(request.timeout(TIMEOUT).build(), HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() / 100 != 2) {
+            throw new IOException("Chroma " + response.request().method() + " " + response.uri()
+                    + " failed: HTTP " + response.statusCode());
+        }
+        return objectMapper.readTree(response.body());
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8).replace("+", "%20");
+    }
+}
@@ -1,11 +1,12 @@
 package com.sqlgen.mcp.service;
 
+import java.util.Collection;
+
 import org.springframework.core.env.Environment;
 import org.springframework.stereotype.Component;
 
 import dev.langchain4j.data.segment.TextSegment;
 import dev.langchain4j.model.embedding.EmbeddingModel;
-import dev.langchain4j.model.embedding.onnx.allminilml6v2.AllMiniLmL6V2EmbeddingModel;
 import dev.langchain4j.store.embedding.EmbeddingStore;
 import dev.langchain4j.store.embedding.chroma.ChromaApiVersion;
 import dev.langchain4j.store.embedding.chroma.ChromaEmbeddingStore;
@@ -26,9 +27,36 @@ public class ChromaVectorStoreModeStrategy implements VectorStoreModeStrategy {
         return "chroma";
     }
 
+    @Override
+    public boolean persistentStore() {
+        return true;
+    }
+
+    @Override
+    public String storeIdentity(Environment env) {
+        return String.join("/", url(env), tenant(env), database(env),
+                collection(env, ".table-collection-name", "sql_gen_tables"));
+    }
+
+    @Override
+    public long storedCount(EmbeddingStore<TextSegment> store) {
+        return store instanceof TieredEmbeddingStore tiered ? tiered.remoteCount() : -1;
+    }
+
+    @Override
+    public String exampleStoreIdentity(Environment env) {
+        return String.join("/", url(env), tenant(env), database(env),
+                collection(env, ".example-collection-name", "sql_gen_examples"));
+    }
+
+    @Override
+    public Collection<String> storedIds(EmbeddingStore<TextSegment> store) {
+        return store instanceof TieredEmbeddingStore tiered ? tiered.remoteIds() : null;
+    }
+
     @Override
     public EmbeddingModel createEmbeddingModel(Environment env) {
-        return new AllMiniLmL6V2EmbeddingModel();
+        return LocalOnnxEmbeddingModel.create(env);
     }
 
     @Override
@@ -46,6 +74,12 @@ public class ChromaVectorStoreModeStrategy implements VectorStoreModeStrategy {
         return clearOrRecreate(currentStore, () -> createTableStore(env));
     }
 
+    @Override
+    public EmbeddingStore<TextSegment> forkTableStore(EmbeddingStore<TextSegment> currentStore, Environment env) {
+        // 원격 컬렉션은 복제하지 않는다. reload 는 같은 컬렉션에서 배치 단위로 id 를 교체한다.
+        return currentStore;
+    }
+
     @Override
     public EmbeddingStore<TextSegment> resetExampleStore(EmbeddingStore<TextSegment> currentStore, Environment env) {
         return clearOrRecreate(currentStore, () -> createExampleStore(env));
@@ -54,18 +88,44 @@ public class ChromaVectorStoreModeStrategy implements VectorStoreModeStrategy {
     private EmbeddingStore<TextSegment> buildStore(Environment env, String collectionSuffix, String defaultCollection) {
         // 테이블 검색과 SQL 예시 검색은 컬렉션만 다르고 연결 파라미터는 동일하다.
         // 환경변수(CHROMA_URL 등)가 application.yml보다 우선 적용된다 — 외부 ChromaDB 연결 시 사용.
-        String url      = getEnvOrProp("CHROMA_URL",      env, PREFIX + ".url",      "http://localhost:18000");
-        String tenant   = getEnvOrProp("CHROMA_TENANT",   env, PREFIX + ".tenant",   "default_tenant");
-        String database = getEnvOrProp("CHROMA_DATABASE", env, PREFIX + ".database", "default_database");
-        String collection = env.getProperty(PREFIX + collectionSuffix,
-                env.getProperty(PREFIX + ".collection-name", defaultCollection));
-        return ChromaEmbeddingStore.builder()
+        String url      = url(env);
+        String tenant   = tenant(env);
+        String database = database(env);
+        String collection = collection(env, collectionSuffix, defaultCollection);
+        EmbeddingStore<TextSegment> store = ChromaEmbeddingStore.builder()
                 .apiVersion(ChromaApiVersion.V2)
                 .baseUrl(url)
                 .tenantName(tenant)
                 .databaseName(database)
                 .collectionName(collection)
                 .build();
+        // 재인덱싱 시 id 기반 addAll / removeAll 을 batch-size 단위 요청으로 묶고 write-concurrency 개까지 동시에 보낸다.
+        int batchSize = env.getProperty(PREFIX + ".batch-size", Integer.class, 500);
+        EmbeddingStore<TextSegment> batching = new BatchingEmbeddingStore(store, batchSize,
+                env.getProperty(PREFIX + ".write-concurrency", Integer.class, 4));
+        // 검색은 로컬 복제본이 처리하고 ChromaDB 는 영구 저장/공유용 원본으로 쓴다.
+        // 복제본을 끄면 원격 검색만 하며, 다중 질의는 /query 요청 한 건으로 보낸다.
+        return new TieredEmbeddingStore(batching,
+                new ChromaCollectionReader(url, tenant, database, collection), batchSize,
+                env.getProperty(PREFIX + ".local-replica.reconcile-seconds", Long.class, 60L) * 1000,
+                env.getProperty(PREFIX + ".local-replica.enabled", Boolean.class, true));
+    }
+
+    private String url(Environment env) {
+        return getEnvOrProp("CHROMA_URL", env, PREFIX + ".url", "http://localhost:18000");
+    }
+
+    private String tenant(Environment env) {
+        return getEnvOrProp("CHROMA_TENANT", env, PREFIX + ".tenant", "default_tenant");
+    }
+
+    private String database(Environment env) {
+        return getEnvOrProp("CHROMA_DATABASE", env, PREFIX + ".database", "default_database");
+    }
+
+    private String collection(Environment env, String collectionSuffix, String defaultCollection) {
+        return env.getProperty(PREFIX + collectionSuffix,
+                env.getProperty(PREFIX + ".collection-name", defaultCollection));
     }
 
     private String getEnvOrProp(String envKey, Environment env, String propKey, String defaultValue) {
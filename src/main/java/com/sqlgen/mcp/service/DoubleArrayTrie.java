@@ -0,0 +1,167 @@
+package com.sqlgen.mcp.service;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 한국어 사전 최장 일치용 불변 double-array trie.
+ *
+ * 상태 s 에서 문자 코드 c 로의 전이는 t = base[s] + c 이고 check[t] == s 일 때만 유효하다.
+ * 사전에 나오는 문자만 1..n 의 조밀한 코드로 바꿔 배열 크기를 줄이고, 공백은 하나의 코드(SPACE)로 취급한다.
+ * 조회는 입력 문자열을 그대로 훑으며 배열만 읽으므로 부분 문자열을 만들지 않는다.
+ */
+final class DoubleArrayTrie {
+
+    static final char SPACE = ' ';
+
+    /** 문자 → 전이 코드 (0 은 사전에 없는 문자) */
+    private final char[] codes;
+    private final int[] base;
+    private final int[] check;
+    /** 상태 → 키 번호 (-1 은 키가 끝나지 않는 상태) */
+    private final int[] value;
+    private final String[] values;
+
+    private DoubleArrayTrie(char[] codes, int[] base, int[] check, int[] value, String[] values) {
+        this.codes = codes;
+        this.base = base;
+        this.check = check;
+        this.value = value;
+        this.values = values;
+    }
+
+    /**
+     * @param entries 키는 공백 하나로 구분된 정규화 문자열이어야 한다. 같은 키는 뒤의 값이 남는다.
+     */
+    static DoubleArrayTrie build(Map<String, String> entries) {
+        char[] codes = new char[Character.MAX_VALUE + 1];
+        char next = 1;
+        for (String key : entries.keySet()) {
+            for (int i = 0; i < key.length(); i++) {
+                char c = key.charAt(i);
+                if (codes[c] == 0) codes[c] = next++;
+            }
+        }
+
+        // 1) 일반 trie 를 만든 뒤 2) 너비 우선으로 배열에 옮긴다.
+        Node root = new Node();
+        String[] values = new String[entries.size()];
+        int index = 0;
+        for (Map.Entry<String, String> e : entries.entrySet()) {
+            Node node = root;
+            String key = e.getKey();
+            for (int i = 0; i < key.length(); i++) {
+                node = node.children.computeIfAbsent((int) codes[key.charAt(i)], k -> new Node());
+            }
+            values[index] = e.getValue();
+            node.value = index++;
+        }
+
+        Slots slots = new Slots(Math.max(64, entries.size() * 8));
+        slots.value[0] = root.value;
+        slots.check[0] = 0;
+        ArrayDeque<Map.Entry<Integer, Node>> queue = new ArrayDeque<>();
+        queue.add(Map.entry(0, root));
+        int searchFrom = 1;
+        while (!queue.isEmpty()) {
+            Map.Entry<Integer, Node> current = queue.poll();
+            int state = current.getKey();
+            Node node = current.getValue();
+            if (node.children.isEmpty()) continue;
+
+            List<Integer> labels = List.copyOf(node.children.keySet());
+            int first = labels.get(0);
+            int b = Math.max(1, searchFrom - first);
+            while (!slots.fits(b, labels)) b++;
+            // 앞쪽 빈칸이 대부분 찼으면 탐색 시작점을 당겨 빌드를 선형에 가깝게 유지한다.
+            while (searchFrom < slots.check.length && slots.check[searchFrom] != -1) searchFrom++;
+
+            slots.base[state] = b;
+            for (int label : labels) {
+                int t = b + label;
+                slots.ensure(t + 1);
+                slots.check[t] = state;
+            }
+            for (int label : labels) {
+                Node child = node.children.get(label);
+                int t = b + label;
+                slots.value[t] = child.value;
+                queue.add(Map.entry(t, child));
+            }
+        }
+        int size = slots.used + 1;
+        return new DoubleArrayTrie(codes,
+                Arrays.copyOf(slots.base, size),
+                Arrays.copyOf(slots.check, size),
+                Arrays.copyOf(slots.value, size),
+                values);
+    }
+
+    /** 시작 상태 */
+    int root() {
+        return 0;
+    }
+
+    /** @return 다음 상태, 전이가 없으면 -1 */
+    int next(int state, char c) {
+        int code = codes[c];
+        if (code == 0) return -1;
+        int t = base[state] + code;
+        return t < check.length && check[t] == state && t != 0 ? t : -1;
+    }
+
+    /** @return state 에서 끝나는 키의 값, 없으면 null */
+    String valueAt(int state) {
+        int v = value[state];
+        return v < 0 ? null : values[v];
+    }
+
+    /** 배열 슬롯 수 (메모리 사용량 확인용) */
+    int capacity() {
+        return check.length;
+    }
+
+    private static final class Node {
+        final TreeMap<Integer, Node> children = new TreeMap<>();
+        int value = -1;
+    }
+
+    /** 빌드 중에만 쓰는 가변 배열 */
+    private static final class Slots {
+        int[] base;
+        int[] check;
+        int[] value;
+        int used;
+
+        Slots(int capacity) {
+            base = new int[capacity];
+            check = new int[capacity];
+            value = new int[capacity];
+            Arrays.fill(check, -1);
+            Arrays.fill(value, -1);
+        }
+
+        boolean fits(int b, List<Integer> labels) {
+            for (int label : labels) {
+                int t = b + label;
+                if (t < check.length && check[t] != -1) return false;
+            }
+            return true;
+        }
+
+        void ensure(int size) {
+            if (size > used) used = size - 1;
+            if (size <= check.length) return;
+            int capacity = Math.max(size, check.length * 2);
+            int old = check.length;
+            base = Arrays.copyOf(base, capacity);
+            check = Arrays.copyOf(check, capacity);
+            value = Arrays.copyOf(value, capacity);
+            Arrays.fill(check, old, capacity, -1);
+            Arrays.fill(value, old, capacity, -1);
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.sqlgen.mcp.service;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.embedding.EmbeddingModel;
+
+/**
+ * 동시에 들어온 검색어 임베딩 요청을 모아 embedAll 한 번으로 처리하는 micro-batcher.
+ *
+ * 첫 요청이 들어온 뒤 window 동안 (또는 maxBatch 건이 찰 때까지) 모은 검색어를 한 묶음으로 보내고,
+ * 호출자마다 자기 검색어의 CompletableFuture 를 돌려받는다. 같은 검색어가 대기 중이면 같은 future 를 공유한다.
+ * 동시에 실행하는 묶음은 maxInFlight 개로 제한한다. 모델이 바쁜 동안 들어온 요청은 다음 묶음에 모이므로
+ * 부하가 클수록 묶음이 커지고, 호출 스레드 수만큼 추론이 겹쳐 코어를 나눠 먹는 일이 없다.
+ *
+ * 로컬 ONNX 모델은 embedAll 에서 문장들을 모델 executor 로 나눠 돌리고, 원격 모델(Ollama / vLLM)은 요청 한 건으로 보낸다.
+ * 부하가 없을 때는 요청 하나가 최대 window 만큼 늦어진다.
+ */
+final class EmbeddingCoalescer implements AutoCloseable {
+
+    private final EmbeddingModel model;
+    private final long windowNanos;
+    private final int maxBatch;
+    private final Semaphore inFlight;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+    /** 대기 중인 검색어 → 결과 future (도착 순서) */
+    private final LinkedHashMap<String, CompletableFuture<Embedding>> pending = new LinkedHashMap<>();
+    /** pending 의 가장 오래된 요청 도착 시각 */
+    private long oldestArrival;
+    private boolean closed;
+
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder items = new LongAdder();
+
+    EmbeddingCoalescer(EmbeddingModel model, long windowMillis, int maxBatch, int maxInFlight) {
+        this.model = model;
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, windowMillis));
+        this.maxBatch = Math.max(1, maxBatch);
+        this.inFlight = new Semaphore(Math.max(1, maxInFlight));
+        Thread.ofVirtual().name("embedding-coalescer").start(this::dispatchLoop);
+    }
+
+    CompletableFuture<Embedding> submit(String text) {
+        lock.lock();
+        try {
+            CompletableFuture<Embedding> future = pending.get(text);
+            if (future != null) return future;
+            future = new CompletableFuture<>();
+            if (closed) {
+                future.completeExceptionally(new IllegalStateException("Embedding coalescer is closed"));
+                return future;
+            }
+            if (pending.isEmpty()) oldestArrival = System.nanoTime();
+            pending.put(text, future);
+            if (pending.size() == 1 || pending.size() >= maxBatch) changed.signal();
+            return future;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** 실행한 묶음 수 */
+    long batchCount() {
+        return batches.sum();
+    }
+
+    /** 묶음으로 임베딩한 검색어 수 */
+    long itemCount() {
+        return items.sum();
+    }
+
+    /** 더 받지 않고, 대기 중인 요청은 마저 보낸 뒤 dispatcher 를 끝낸다. */
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            closed = true;
+            changed.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void dispatchLoop() {
+        while (true) {
+            Map<String, CompletableFuture<Embedding>> batch;
+            try {
+                // 실행 슬롯을 먼저 확보한다. 기다리는 동안 들어온 요청은 이번 묶음에 합쳐진다.
+                inFlight.acquire();
+                lock.lock();
+                try {
+                    while (pending.isEmpty() && !closed) {
+                        changed.await();
+                    }
+                    if (pending.isEmpty()) return;
+                    long remaining;
+                    while (!closed && pending.size() < maxBatch
+                            && (remaining = oldestArrival + windowNanos - System.nanoTime()) > 0) {
+                        changed.awaitNanos(remaining);
+                    }
+                    batch = drain();
+                } finally {
+                    lock.unlock();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            Thread.ofVirtual().name("embedding-batch").start(() -> {
+                try {
+                    run(batch);
+                } finally {
+                    inFlight.release();
+                }
+            });
+        }
+    }
+
+    /** 앞에서부터 maxBatch 건을 꺼낸다. 남은 요청은 이미 창을 넘겼으므로 다음 루프에서 바로 보낸다. */
+    private Map<String, CompletableFuture<Embedding>> drain() {
+        Map<String, CompletableFuture<Embedding>> batch = new LinkedHashMap<>();
+        Iterator<Map.Entry<String, CompletableFuture<Embedding>>> it = pending.entrySet().iterator();
+        while (it.hasNext() && batch.size() < maxBatch) {
+            Map.Entry<String, CompletableFuture<Embedding>> e = it.next();
+            batch.put(e.getKey(), e.getValue());
+            it.remove();
+        }
+        return batch;
+    }
+
+    private void run(Map<String, CompletableFuture<Embedding>> batch) {
+        List<TextSegment> segments = new ArrayList<>(batch.size());
+        batch.keySet().forEach(text -> segments.add(TextSegment.from(text)));
+        try {
+            List<Embedding> embeddings = model.embedAll(segments).content();
+            int i = 0;
+            for (CompletableFuture<Embedding> future : batch.values()) {
+                future.complete(embeddings.get(i++));
+            }
+            batches.increment();
+            items.add(batch.size());
+        } catch (Throwable e) {
+            batch.values().forEach(future -> future.completeExceptionally(e));
+        }
+    }
+}
@@ -0,0 +1,613 @@
+package com.sqlgen.mcp.service;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiConsumer;
+import java.util.stream.IntStream;
+
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.store.embedding.EmbeddingMatch;
+import dev.langchain4j.store.embedding.EmbeddingSearchRequest;
+import dev.langchain4j.store.embedding.EmbeddingSearchResult;
+import dev.langchain4j.store.embedding.EmbeddingStore;
+import dev.langchain4j.store.embedding.RelevanceScore;
+import dev.langchain4j.store.embedding.filter.Filter;
+
+/**
+ * 연속된 float[] 행렬 하나에 정규화된 벡터를 행 단위로 담는 인메모리 저장소 (local provider 기본값).
+ *
+ * InMemoryEmbeddingStore 는 항목마다 Embedding/Entry 객체를 두고 하나씩 점수를 매기지만,
+ * 여기서는 행을 미리 정규화해 두고 내적(= 코사인) 만으로 brute-force top-k 를 구한다.
+ * 내적은 VectorOps(SIMD 가능 시 jdk.incubator.vector)로 계산하고, 행 수가 많으면 코어 수만큼 구간을 나눠 병렬로 훑는다.
+ * 점수는 InMemoryEmbeddingStore 와 같게 RelevanceScore.fromCosineSimilarity 로 변환해 minScore 의미를 유지한다.
+ *
+ * 양자화(Quantization.INT8 / BINARY)를 켜면 힙에는 행별 int8 코드 또는 부호 비트 코드만 두고,
+ * 원본 float 벡터는 off-heap(direct buffer)에 보관한다. 검색은 코드로 k × rescoreFactor 개 후보를 고른 뒤
+ * 후보만 원본 벡터로 다시 계산(rescoring)하므로 최종 점수는 양자화 없이 계산한 값과 같다.
+ *
+ * searchAll 은 질의 여러 개를 행렬 한 번 스캔으로 처리한다. 행 하나를 읽은 채로 모든 질의와 내적하므로
+ * 질의 수만큼 행렬 전체를 다시 읽지 않는다.
+ */
+public class FlatVectorEmbeddingStore implements EmbeddingStore<TextSegment>, MultiQuerySearch {
+
+    /** 1차 후보 스캔용 벡터 표현 */
+    public enum Quantization {
+        /** float32 행렬 (힙) */
+        NONE,
+        /** 행별 scale + int8 코드. 힙 사용량 약 1/4 */
+        INT8,
+        /** 차원별 부호 1비트. 힙 사용량 약 1/32 */
+        BINARY
+    }
+
+    /** 이 행 수 이상이면 구간을 나눠 병렬 스캔한다. */
+    static final int PARALLEL_THRESHOLD = 16_384;
+    /** searchAll 에서 모든 질의가 공유하는 행 블록 크기 (384차원 float 기준 약 96KB) */
+    private static final int SCAN_BLOCK_ROWS = 64;
+    private static final int INITIAL_CAPACITY = 256;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Quantization quantization;
+    private final int rescoreFactor;
+    private int dimension = -1;
+    /** Quantization.NONE 일 때만 사용 */
+    private float[] matrix = new float[0];
+    /** INT8: 행 × 차원 코드와 행별 scale */
+    private byte[] int8Codes = new byte[0];
+    private float[] int8Scales = new float[0];
+    /** BINARY: 행 × words 부호 비트 */
+    private long[] binaryCodes = new long[0];
+    private int binaryWords;
+    /** 양자화 모드의 원본 벡터 (off-heap, rescoring 용) */
+    private FloatBuffer fullPrecision;
+    private String[] ids = new String[0];
+    private TextSegment[] segments = new TextSegment[0];
+    private final Map<String, Integer> rowById = new HashMap<>();
+    private int size;
+
+    public FlatVectorEmbeddingStore() {
+        this(Quantization.NONE, 0);
+    }
+
+    /**
+     * @param rescoreFactor 1차 스캔에서 남길 후보 배수 (k × rescoreFactor). 0 이하면 INT8 4, BINARY 10 을 쓴다.
+     */
+    public FlatVectorEmbeddingStore(Quantization quantization, int rescoreFactor) {
+        this.quantization = quantization;
+        this.rescoreFactor = rescoreFactor > 0 ? rescoreFactor : (quantization == Quantization.BINARY ? 10 : 4);
+    }
+
+    @Override
+    public String add(Embedding embedding) {
+        String id = UUID.randomUUID().toString();
+        add(id, embedding);
+        return id;
+    }
+
+    @Override
+    public void add(String id, Embedding embedding) {
+        addAll(List.of(id), List.of(embedding), null);
+    }
+
+    @Override
+    public String add(Embedding embedding, TextSegment segment) {
+        String id = UUID.randomUUID().toString();
+        addAll(List.of(id), List.of(embedding), segment == null ? null : List.of(segment));
+        return id;
+    }
+
+    @Override
+    public List<String> addAll(List<Embedding> embeddings) {
+        List<String> newIds = generateIds(embeddings.size());
+        addAll(newIds, embeddings, null);
+        return newIds;
+    }
+
+    /** 같은 id 가 이미 있으면 해당 행을 덮어쓴다 (upsert). */
+    @Override
+    public void addAll(List<String> newIds, List<Embedding> embeddings, List<TextSegment> embedded) {
+        if (newIds.size() != embeddings.size() || (embedded != null && embedded.size() != embeddings.size())) {
+            throw new IllegalArgumentException("ids, embeddings and embedded must have the same size");
+        }
+        lock.writeLock().lock();
+        try {
+            for (int i = 0; i < newIds.size(); i++) {
+                float[] vector = embeddings.get(i).vector();
+                if (dimension < 0) {
+                    dimension = vector.length;
+                    binaryWords = (dimension + 63) / 64;
+                } else if (vector.length != dimension) {
+                    throw new IllegalArgumentException(
+                            "Embedding dimension " + vector.length + " does not match store dimension " + dimension);
+                }
+                Integer existing = rowById.get(newIds.get(i));
+                int row = existing != null ? existing : appendRow(newIds.get(i));
+                writeRow(row, VectorOps.normalized(vector));
+                segments[row] = embedded == null ? null : embedded.get(i);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void removeAll(Collection<String> idsToRemove) {
+        lock.writeLock().lock();
+        try {
+            for (String id : idsToRemove) {
+                Integer row = rowById.remove(id);
+                if (row != null) {
+                    removeRow(row);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void removeAll(Filter filter) {
+        lock.writeLock().lock();
+        try {
+            List<String> matched = new ArrayList<>();
+            for (int row = 0; row < size; row++) {
+                if (segments[row] != null && filter.test(segments[row].metadata())) {
+                    matched.add(ids[row]);
+                }
+            }
+            removeAll(matched);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void removeAll() {
+        lock.writeLock().lock();
+        try {
+            rowById.clear();
+            Arrays.fill(segments, 0, size, null);
+            Arrays.fill(ids, 0, size, null);
+            size = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public EmbeddingSearchResult<TextSegment> search(EmbeddingSearchRequest request) {
+        lock.readLock().lock();
+        try {
+            if (size == 0) {
+                return new EmbeddingSearchResult<>(List.of());
+            }
+            float[] query = VectorOps.normalized(request.queryEmbedding().vector());
+            if (query.length != dimension) {
+                throw new IllegalArgumentException(
+                        "Query dimension " + query.length + " does not match store dimension " + dimension);
+            }
+            double minCosine = request.minScore() * 2 - 1;
+            TopKHeap heap = quantization == Quantization.NONE
+                    ? scan(query, request.maxResults(), minCosine, request.filter())
+                    : rescore(query, scan(query, request.maxResults() * rescoreFactor, Double.NEGATIVE_INFINITY, request.filter()),
+                            request.maxResults(), minCosine);
+
+            return new EmbeddingSearchResult<>(toMatches(heap));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<List<EmbeddingMatch<TextSegment>>> searchAll(List<Embedding> queries, int maxResults, double minScore) {
+        lock.readLock().lock();
+        try {
+            List<List<EmbeddingMatch<TextSegment>>> results = new ArrayList<>(queries.size());
+            if (size == 0) {
+                queries.forEach(q -> results.add(List.of()));
+                return results;
+            }
+            float[][] normalized = new float[queries.size()][];
+            for (int q = 0; q < normalized.length; q++) {
+                normalized[q] = VectorOps.normalized(queries.get(q).vector());
+                if (normalized[q].length != dimension) {
+                    throw new IllegalArgumentException(
+                            "Query dimension " + normalized[q].length + " does not match store dimension " + dimension);
+                }
+            }
+            double minCosine = minScore * 2 - 1;
+            TopKHeap[] heaps = quantization == Quantization.NONE
+                    ? scanAll(normalized, maxResults, minCosine)
+                    : scanAll(normalized, maxResults * rescoreFactor, Double.NEGATIVE_INFINITY);
+            for (int q = 0; q < normalized.length; q++) {
+                TopKHeap heap = quantization == Quantization.NONE
+                        ? heaps[q]
+                        : rescore(normalized[q], heaps[q], maxResults, minCosine);
+                results.add(toMatches(heap));
+            }
+            return results;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** 같은 내용을 가진 독립 사본. reload 시 검색 중인 저장소를 건드리지 않고 다음 세대를 만들 때 쓴다. */
+    public FlatVectorEmbeddingStore copy() {
+        lock.readLock().lock();
+        try {
+            FlatVectorEmbeddingStore copy = new FlatVectorEmbeddingStore(quantization, rescoreFactor);
+            copy.dimension = dimension;
+            copy.binaryWords = binaryWords;
+            copy.matrix = matrix.clone();
+            copy.int8Codes = int8Codes.clone();
+            copy.int8Scales = int8Scales.clone();
+            copy.binaryCodes = binaryCodes.clone();
+            if (fullPrecision != null) {
+                copy.fullPrecision = ByteBuffer.allocateDirect(fullPrecision.capacity() * Float.BYTES)
+                        .order(ByteOrder.nativeOrder())
+                        .asFloatBuffer();
+                copy.fullPrecision.put(0, fullPrecision, 0, size * dimension);
+            }
+            copy.ids = ids.clone();
+            copy.segments = segments.clone();
+            copy.rowById.putAll(rowById);
+            copy.size = size;
+            return copy;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** 저장된 행을 (id, 정규화 벡터 사본) 으로 훑는다. 스냅샷 저장용 */
+    public void forEachVector(BiConsumer<String, float[]> consumer) {
+        lock.readLock().lock();
+        try {
+            for (int row = 0; row < size; row++) {
+                consumer.accept(ids[row], readRow(row));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** 저장된 행을 (id, 본문) 으로 훑는다. 본문 없이 넣은 행은 null */
+    public void forEachSegment(BiConsumer<String, TextSegment> consumer) {
+        lock.readLock().lock();
+        try {
+            for (int row = 0; row < size; row++) {
+                consumer.accept(ids[row], segments[row]);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Quantization quantization() {
+        return quantization;
+    }
+
+    /** 1차 스캔용 벡터(또는 코드)가 힙에서 차지하는 대략적인 크기 (byte) */
+    public long vectorBytes() {
+        lock.readLock().lock();
+        try {
+            return switch (quantization) {
+                case NONE -> (long) matrix.length * Float.BYTES;
+                case INT8 -> (long) int8Codes.length + (long) int8Scales.length * Float.BYTES;
+                case BINARY -> (long) binaryCodes.length * Long.BYTES;
+            };
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** rescoring 용 원본 벡터가 off-heap 에서 차지하는 크기 (byte) */
+    public long offHeapBytes() {
+        lock.readLock().lock();
+        try {
+            return fullPrecision == null ? 0 : (long) fullPrecision.capacity() * Float.BYTES;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 양자화 검색 결과가 정확 검색(원본 벡터 전수 비교) top-k 와 얼마나 겹치는지 측정한다. 양자화를 쓰지 않으면 1.0 이다.
+     *
+     * 저장된 행을 그대로 질의로 쓰면 자기 자신이 항상 1위로 맞아 recall 이 부풀려지므로, 임의 행에 노이즈를 더한 벡터를
+     * 질의로 쓰고 그 원본 행은 양쪽 결과에서 뺀다. 질의 하나마다 전수 비교를 하므로 읽기 락은 질의 단위로 잡고 놓는다.
+     *
+     * @param noise 원본 행 크기 대비 노이즈 크기 (예: 0.2)
+     */
+    public double sampleRecall(int queries, int k, double noise) {
+        Random random = new Random(7);
+        int hits = 0;
+        int total = 0;
+        for (int q = 0; q < queries; q++) {
+            lock.readLock().lock();
+            try {
+                if (quantization == Quantization.NONE || size == 0) return 1.0;
+                int source = random.nextInt(size);
+                float[] query = perturbed(readRow(source), noise, random);
+                TopKHeap exact = new TopKHeap(k);
+                float[] buffer = new float[dimension];
+                for (int row = 0; row < size; row++) {
+                    if (row == source) continue;
+                    fullPrecision.get(row * dimension, buffer, 0, dimension);
+                    exact.offer(row, VectorOps.dot(query, 0, buffer, 0, dimension));
+                }
+                TopKHeap approx = rescore(query, scan(query, (k + 1) * rescoreFactor, Double.NEGATIVE_INFINITY, null),
+                        k + 1, Double.NEGATIVE_INFINITY);
+                int[] exactRows = new int[exact.size()];
+                int n = exact.drainDescending(exactRows, null);
+                int[] approxRows = new int[approx.size()];
+                int m = approx.drainDescending(approxRows, null);
+                Set<Integer> expected = new HashSet<>();
+                for (int i = 0; i < n; i++) expected.add(exactRows[i]);
+                for (int i = 0, counted = 0; i < m && counted < k; i++) {
+                    if (approxRows[i] == source) continue;
+                    counted++;
+                    if (expected.contains(approxRows[i])) hits++;
+                }
+                total += n;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+        return total == 0 ? 1.0 : (double) hits / total;
+    }
+
+    /** vector 에 크기 noise × |vector| 의 가우시안 노이즈를 더해 정규화한다. */
+    private static float[] perturbed(float[] vector, double noise, Random random) {
+        double norm = 0;
+        for (float v : vector) norm += v * v;
+        double sigma = noise * Math.sqrt(norm / vector.length);
+        float[] out = new float[vector.length];
+        for (int d = 0; d < vector.length; d++) {
+            out[d] = (float) (vector[d] + random.nextGaussian() * sigma);
+        }
+        return VectorOps.normalized(out);
+    }
+
+    private TopKHeap scan(float[] query, int k, double minCosine, Filter filter) {
+        long[] queryBits = quantization == Quantization.BINARY ? binarize(query, binaryWords) : null;
+        int rows = size;
+        if (rows < PARALLEL_THRESHOLD) {
+            return scanRange(query, queryBits, 0, rows, k, minCosine, filter);
+        }
+        int chunks = Math.min(Runtime.getRuntime().availableProcessors(), rows / (PARALLEL_THRESHOLD / 4));
+        int chunkSize = (rows + chunks - 1) / chunks;
+        // 구간별 top-k 를 구한 뒤 하나로 합친다. 읽기 락은 호출 스레드가 잡고 있으므로 구간 작업은 배열만 읽는다.
+        return IntStream.range(0, chunks)
+                .parallel()
+                .mapToObj(c -> scanRange(query, queryBits, c * chunkSize, Math.min(rows, (c + 1) * chunkSize), k, minCosine, filter))
+                .reduce(new TopKHeap(k), (merged, part) -> {
+                    TopKHeap result = new TopKHeap(k);
+                    result.addAll(merged);
+                    result.addAll(part);
+                    return result;
+                });
+    }
+
+    /** 질의별 top-k 를 행렬 한 번 스캔으로 구한다. 행 수가 많으면 scan 과 같이 구간을 나눠 병렬로 훑는다. */
+    private TopKHeap[] scanAll(float[][] queries, int k, double minCosine) {
+        long[][] queryBits = new long[queries.length][];
+        if (quantization == Quantization.BINARY) {
+            for (int q = 0; q < queries.length; q++) {
+                queryBits[q] = binarize(queries[q], binaryWords);
+            }
+        }
+        int rows = size;
+        if (rows < PARALLEL_THRESHOLD) {
+            return scanRangeAll(queries, queryBits, 0, rows, k, minCosine);
+        }
+        int chunks = Math.min(Runtime.getRuntime().availableProcessors(), rows / (PARALLEL_THRESHOLD / 4));
+        int chunkSize = (rows + chunks - 1) / chunks;
+        List<TopKHeap[]> parts = IntStream.range(0, chunks)
+                .parallel()
+                .mapToObj(c -> scanRangeAll(queries, queryBits, c * chunkSize, Math.min(rows, (c + 1) * chunkSize), k, minCosine))
+                .toList();
+        TopKHeap[] merged = new TopKHeap[queries.length];
+        for (int q = 0; q < queries.length; q++) {
+            merged[q] = new TopKHeap(k);
+            for (TopKHeap[] part : parts) {
+                merged[q].addAll(part[q]);
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * 행을 캐시에 들어가는 블록(SCAN_BLOCK_ROWS)으로 나누고, 블록마다 모든 질의를 채점한다.
+     * 블록은 첫 질의에서 캐시로 올라온 뒤 나머지 질의가 재사용하므로 행렬은 메모리에서 한 번만 읽힌다.
+     */
+    private TopKHeap[] scanRangeAll(float[][] queries, long[][] queryBits, int from, int to, int k, double minCosine) {
+        TopKHeap[] heaps = new TopKHeap[queries.length];
+        for (int q = 0; q < heaps.length; q++) {
+            heaps[q] = new TopKHeap(k);
+        }
+        int dim = dimension;
+        for (int blockStart = from; blockStart < to; blockStart += SCAN_BLOCK_ROWS) {
+            int blockEnd = Math.min(to, blockStart + SCAN_BLOCK_ROWS);
+            for (int q = 0; q < queries.length; q++) {
+                TopKHeap heap = heaps[q];
+                float[] query = queries[q];
+                long[] bits = queryBits[q];
+                for (int row = blockStart; row < blockEnd; row++) {
+                    double score = switch (quantization) {
+                        case NONE -> VectorOps.dot(query, 0, matrix, row * dim, dim);
+                        case INT8 -> int8Scales[row] * VectorOps.dotInt8(query, int8Codes, row * dim, dim);
+                        case BINARY -> VectorOps.binarySimilarity(bits, 0, binaryCodes, row * binaryWords, binaryWords, dim);
+                    };
+                    if (score >= minCosine && score > heap.threshold()) {
+                        heap.offer(row, score);
+                    }
+                }
+            }
+        }
+        return heaps;
+    }
+
+    private List<EmbeddingMatch<TextSegment>> toMatches(TopKHeap heap) {
+        int[] rows = new int[heap.size()];
+        double[] cosines = new double[heap.size()];
+        int n = heap.drainDescending(rows, cosines);
+        List<EmbeddingMatch<TextSegment>> matches = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            int row = rows[i];
+            matches.add(new EmbeddingMatch<>(RelevanceScore.fromCosineSimilarity(cosines[i]),
+                    ids[row], new Embedding(readRow(row)), segments[row]));
+        }
+        return matches;
+    }
+
+    private TopKHeap scanRange(float[] query, long[] queryBits, int from, int to, int k, double minCosine, Filter filter) {
+        TopKHeap heap = new TopKHeap(k);
+        int dim = dimension;
+        for (int row = from; row < to; row++) {
+            double score = switch (quantization) {
+                case NONE -> VectorOps.dot(query, 0, matrix, row * dim, dim);
+                case INT8 -> int8Scales[row] * VectorOps.dotInt8(query, int8Codes, row * dim, dim);
+                case BINARY -> VectorOps.binarySimilarity(queryBits, 0, binaryCodes, row * binaryWords, binaryWords, dim);
+            };
+            if (score < minCosine || score <= heap.threshold()) continue;
+            if (filter != null && (segments[row] == null || !filter.test(segments[row].metadata()))) continue;
+            heap.offer(row, score);
+        }
+        return heap;
+    }
+
+    /** 1차 후보를 off-heap 원본 벡터로 다시 계산해 최종 top-k 를 만든다. */
+    private TopKHeap rescore(float[] query, TopKHeap candidates, int k, double minCosine) {
+        int[] rows = new int[candidates.size()];
+        int n = candidates.drainDescending(rows, null);
+        TopKHeap heap = new TopKHeap(k);
+        float[] buffer = new float[dimension];
+        for (int i = 0; i < n; i++) {
+            fullPrecision.get(rows[i] * dimension, buffer, 0, dimension);
+            double cosine = VectorOps.dot(query, 0, buffer, 0, dimension);
+            if (cosine >= minCosine) {
+                heap.offer(rows[i], cosine);
+            }
+        }
+        return heap;
+    }
+
+    private void writeRow(int row, float[] normalized) {
+        int dim = dimension;
+        switch (quantization) {
+            case NONE -> System.arraycopy(normalized, 0, matrix, row * dim, dim);
+            case INT8 -> {
+                // 대칭 양자화: 행의 최대 절댓값을 127 로 맞춘다.
+                float maxAbs = 0f;
+                for (float v : normalized) maxAbs = Math.max(maxAbs, Math.abs(v));
+                float scale = maxAbs == 0f ? 1f : maxAbs / 127f;
+                for (int d = 0; d < dim; d++) {
+                    int8Codes[row * dim + d] = (byte) Math.round(normalized[d] / scale);
+                }
+                int8Scales[row] = scale;
+            }
+            case BINARY -> System.arraycopy(binarize(normalized, binaryWords), 0, binaryCodes, row * binaryWords, binaryWords);
+        }
+        if (quantization != Quantization.NONE) {
+            fullPrecision.put(row * dim, normalized, 0, dim);
+        }
+    }
+
+    private float[] readRow(int row) {
+        if (quantization == Quantization.NONE) {
+            return Arrays.copyOfRange(matrix, row * dimension, (row + 1) * dimension);
+        }
+        float[] vector = new float[dimension];
+        fullPrecision.get(row * dimension, vector, 0, dimension);
+        return vector;
+    }
+
+    private static long[] binarize(float[] vector, int words) {
+        long[] bits = new long[words];
+        for (int d = 0; d < vector.length; d++) {
+            if (vector[d] > 0f) {
+                bits[d >>> 6] |= 1L << (d & 63);
+            }
+        }
+        return bits;
+    }
+
+    private int appendRow(String id) {
+        if (size == ids.length) {
+            grow(Math.max(INITIAL_CAPACITY, ids.length * 2));
+        }
+        int row = size++;
+        ids[row] = id;
+        rowById.put(id, row);
+        return row;
+    }
+
+    private void grow(int capacity) {
+        ids = Arrays.copyOf(ids, capacity);
+        segments = Arrays.copyOf(segments, capacity);
+        switch (quantization) {
+            case NONE -> matrix = Arrays.copyOf(matrix, capacity * dimension);
+            case INT8 -> {
+                int8Codes = Arrays.copyOf(int8Codes, capacity * dimension);
+                int8Scales = Arrays.copyOf(int8Scales, capacity);
+            }
+            case BINARY -> binaryCodes = Arrays.copyOf(binaryCodes, capacity * binaryWords);
+        }
+        if (quantization != Quantization.NONE) {
+            FloatBuffer grown = ByteBuffer.allocateDirect(capacity * dimension * Float.BYTES)
+                    .order(ByteOrder.nativeOrder())
+                    .asFloatBuffer();
+            if (fullPrecision != null) {
+                grown.put(0, fullPrecision, 0, size * dimension);
+            }
+            fullPrecision = grown;
+        }
+    }
+
+    /** 마지막 행을 빈 자리로 옮겨 행렬을 연속 상태로 유지한다. */
+    private void removeRow(int row) {
+        int last = size - 1;
+        if (row != last) {
+            int dim = dimension;
+            switch (quantization) {
+                case NONE -> System.arraycopy(matrix, last * dim, matrix, row * dim, dim);
+                case INT8 -> {
+                    System.arraycopy(int8Codes, last * dim, int8Codes, row * dim, dim);
+                    int8Scales[row] = int8Scales[last];
+                }
+                case BINARY -> System.arraycopy(binaryCodes, last * binaryWords, binaryCodes, row * binaryWords, binaryWords);
+            }
+            if (quantization != Quantization.NONE) {
+                fullPrecision.put(row * dim, fullPrecision, last * dim, dim);
+            }
+            ids[row] = ids[last];
+            segments[row] = segments[last];
+            rowById.put(ids[row], row);
+        }
+        ids[last] = null;
+        segments[last] = null;
+        size--;
+    }
+}
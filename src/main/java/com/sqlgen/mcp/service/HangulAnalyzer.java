@@ -0,0 +1,223 @@
+package com.sqlgen.mcp.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * 한국어 검색어/코멘트용 경량 분석기.
+ *
+ *   1. 공백·구두점과 한글/영숫자 경계에서 단어를 나눈다 ("LOT이력은" → "lot", "이력은").
+ *   2. 한글 단어 끝의 조사/어미를 뗀다 ("설비상태를" → "설비상태", "조회하기" → "조회"). 어간이 두 글자 이상 남을 때만 뗀다.
+ *      명사 끝 음절과 겹치는 조사("단가", "경로", "정의")는 남는 어간이 어휘 단어일 때만 뗀다.
+ *   3. 사전 단어로 빈틈없이 나눠지는 복합명사는 단어들로 나눈다 ("설비상태" → "설비", "상태"). 나누는 단어 수가 가장 적은 분할을 고른다.
+ *
+ * 어휘는 korean-dict.json 의 한글 단어에 reload 시점의 코멘트/remark 단어를 더한 것이다.
+ * 인덱싱 시 코멘트/remark 에 한 번, 검색 시 키워드마다 한 번 실행한다. 불변 객체라 여러 스레드에서 같이 쓴다.
+ */
+final class HangulAnalyzer {
+
+    /** 긴 것부터 비교하는 조사/어미 목록 */
+    private static final String[] SUFFIXES = {
+            "해주세요", "에서부터", "으로부터",
+            "에서는", "에서도", "으로는", "으로도", "에게는", "이라는", "이라고", "합니다", "입니다", "하려면",
+            "에서", "에게", "한테", "까지", "부터", "으로", "이나", "이랑", "처럼", "보다", "마다", "에는", "에도", "와의", "과의",
+            "로의", "하기", "하는", "하고", "하여", "해서", "해줘", "되는", "하다", "이다",
+            "은", "는", "이", "가", "을", "를", "의", "에", "와", "과", "도", "로", "만", "된", "한"
+    };
+
+    /** 명사의 끝 음절로도 흔히 쓰이는 조사. 어간이 어휘로 확인될 때만 뗀다. */
+    private static final Set<String> AMBIGUOUS_SUFFIXES = Set.of("이", "가", "도", "로", "만", "의", "과", "한", "된");
+
+    /** 검색 요청 동사. 다른 단어가 있으면 토큰 매칭 조건에서 뺀다 (번역/정규화에는 남긴다). */
+    private static final Set<String> REQUEST_WORDS = Set.of(
+            "조회", "검색", "찾기", "보기", "확인", "알려줘", "보여줘", "가져오기");
+
+    private static final int MIN_STEM = 2;
+    private static final int MAX_WORD = 8;
+
+    /**
+     * 한 단어의 분석 결과.
+     * @param stem  조사/어미를 뗀 어간
+     * @param parts 복합명사 분할 결과 (나눠지지 않으면 빈 배열)
+     */
+    record Term(String stem, String[] parts) {
+        boolean isRequestWord() {
+            return REQUEST_WORDS.contains(stem);
+        }
+    }
+
+    private final Set<String> vocabulary;
+
+    private HangulAnalyzer(Set<String> vocabulary) {
+        this.vocabulary = vocabulary;
+    }
+
+    static HangulAnalyzer empty() {
+        return new HangulAnalyzer(Set.of());
+    }
+
+    /** 사전 키(다단어 키는 단어별)에서 두 글자 이상 한글 단어를 어휘로 삼는다. */
+    static HangulAnalyzer of(Collection<String> dictionaryKeys) {
+        Set<String> words = new HashSet<>();
+        for (String key : dictionaryKeys) {
+            for (String word : key.trim().toLowerCase().split("\\s+")) {
+                if (isVocabularyWord(word)) words.add(word);
+            }
+        }
+        return new HangulAnalyzer(Set.copyOf(words));
+    }
+
+    /** texts 에 공백으로 떨어져 나오는 한글 단어(조사 제거 후)를 어휘에 더한 분석기 */
+    HangulAnalyzer withWordsFrom(String[] texts) {
+        Set<String> words = new HashSet<>(vocabulary);
+        for (String text : texts) {
+            splitWords(text, word -> {
+                if (isHangul(word)) {
+                    String stem = stripSuffix(word);
+                    if (isVocabularyWord(stem)) words.add(stem);
+                }
+            });
+        }
+        return words.size() == vocabulary.size() ? this : new HangulAnalyzer(Set.copyOf(words));
+    }
+
+    /** 단어별 분석 결과 (등장 순서) */
+    List<Term> terms(String text) {
+        List<Term> terms = new ArrayList<>();
+        splitWords(text, word -> {
+            if (!isHangul(word)) {
+                terms.add(new Term(word, new String[0]));
+                return;
+            }
+            String stem = stripSuffix(word);
+            String[] parts = split(stem);
+            terms.add(new Term(stem, parts == null ? new String[0] : parts));
+        });
+        return terms;
+    }
+
+    /** 색인용 토큰: 단어마다 어간과 복합명사 분할 결과 (중복 제거) */
+    Set<String> tokens(String text) {
+        Set<String> tokens = new LinkedHashSet<>();
+        for (Term term : terms(text)) {
+            tokens.add(term.stem());
+            for (String part : term.parts()) tokens.add(part);
+        }
+        return tokens;
+    }
+
+    /** 사전 조회용 정규화 문자열: "설비상태를 조회" → "설비 상태 조회" */
+    String normalize(String text) {
+        StringBuilder out = new StringBuilder(text.length());
+        for (Term term : terms(text)) {
+            if (term.parts().length > 0) {
+                for (String part : term.parts()) {
+                    if (!out.isEmpty()) out.append(' ');
+                    out.append(part);
+                }
+            } else {
+                if (!out.isEmpty()) out.append(' ');
+                out.append(term.stem());
+            }
+        }
+        return out.toString();
+    }
+
+    /**
+     * 한글 단어 끝의 조사/어미를 하나 뗀다. 단어 자체가 어휘에 있거나 어휘로 나눠지는 복합명사("판매단가")이거나
+     * 어간이 너무 짧아지면 그대로 둔다.
+     */
+    private String stripSuffix(String word) {
+        if (vocabulary.contains(word) || split(word) != null) return word;
+        for (String suffix : SUFFIXES) {
+            if (word.length() - suffix.length() >= MIN_STEM && word.endsWith(suffix)) {
+                String stem = word.substring(0, word.length() - suffix.length());
+                if (AMBIGUOUS_SUFFIXES.contains(suffix) && !vocabulary.contains(stem) && split(stem) == null) {
+                    return word;
+                }
+                return stem;
+            }
+        }
+        return word;
+    }
+
+    /**
+     * 어휘 단어로 빈틈없이 나눌 수 있으면 단어 수가 가장 적은 분할을 돌려준다.
+     * stem 자체가 어휘에 있어도 (다른 코멘트에서 붙여 쓴 경우) 두 단어 이상으로 나눠 본다.
+     * @return 두 단어 이상으로 나눠지지 않으면 null
+     */
+    private String[] split(String stem) {
+        int n = stem.length();
+        if (n < MIN_STEM * 2 || vocabulary.isEmpty()) return null;
+        // fewest[i] = stem[0, i) 를 나누는 최소 단어 수, from[i] = 마지막 단어 시작 위치
+        int[] fewest = new int[n + 1];
+        int[] from = new int[n + 1];
+        Arrays.fill(fewest, Integer.MAX_VALUE);
+        fewest[0] = 0;
+        for (int end = MIN_STEM; end <= n; end++) {
+            for (int start = Math.max(0, end - MAX_WORD); start <= end - MIN_STEM; start++) {
+                if (fewest[start] == Integer.MAX_VALUE || fewest[start] + 1 >= fewest[end]) continue;
+                if (start == 0 && end == n) continue;
+                if (vocabulary.contains(stem.substring(start, end))) {
+                    fewest[end] = fewest[start] + 1;
+                    from[end] = start;
+                }
+            }
+        }
+        if (fewest[n] == Integer.MAX_VALUE || fewest[n] < 2) return null;
+        String[] parts = new String[fewest[n]];
+        for (int end = n, i = parts.length - 1; end > 0; end = from[end], i--) {
+            parts[i] = stem.substring(from[end], end);
+        }
+        return parts;
+    }
+
+    /** 소문자로 바꾼 뒤 공백/구두점, 한글과 영숫자 경계에서 단어를 나눈다. */
+    private static void splitWords(String text, Consumer<String> sink) {
+        if (text == null) return;
+        String lower = text.toLowerCase();
+        int start = -1;
+        boolean hangul = false;
+        for (int i = 0; i <= lower.length(); i++) {
+            char c = i < lower.length() ? lower.charAt(i) : ' ';
+            boolean letter = Character.isLetterOrDigit(c);
+            boolean h = isHangul(c);
+            if (start >= 0 && (!letter || h != hangul)) {
+                sink.accept(lower.substring(start, i));
+                start = -1;
+            }
+            if (letter && start < 0) {
+                start = i;
+                hangul = h;
+            }
+        }
+    }
+
+    private static boolean isVocabularyWord(String word) {
+        return word.length() >= MIN_STEM && word.length() <= MAX_WORD && isHangul(word);
+    }
+
+    static boolean containsHangul(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (isHangul(text.charAt(i))) return true;
+        }
+        return false;
+    }
+
+    static boolean isHangul(String word) {
+        for (int i = 0; i < word.length(); i++) {
+            if (!isHangul(word.charAt(i))) return false;
+        }
+        return !word.isEmpty();
+    }
+
+    private static boolean isHangul(char c) {
+        return c >= 0xAC00 && c <= 0xD7A3;
+    }
+}
@@ -0,0 +1,671 @@
+package com.sqlgen.mcp.service;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.store.embedding.EmbeddingMatch;
+import dev.langchain4j.store.embedding.EmbeddingSearchRequest;
+import dev.langchain4j.store.embedding.EmbeddingSearchResult;
+import dev.langchain4j.store.embedding.EmbeddingStore;
+import dev.langchain4j.store.embedding.RelevanceScore;
+import dev.langchain4j.store.embedding.filter.Filter;
+
+/**
+ * HNSW(Hierarchical Navigable Small World) 근사 최근접 이웃 인덱스 (hnsw provider).
+ *
+ * 세그먼트 수가 10만 건 이상으로 커져 전수 비교가 부담될 때 사용한다.
+ * - M: 노드당 이웃 수 (0층은 2M), efConstruction: 삽입 시 후보 폭,
+ *   efSearch: 검색 시 후보 폭의 하한 (실제 폭은 max(efSearch, maxResults × EF_PER_RESULT))
+ * - 삽입은 증분으로 그래프에 연결하고, 삭제는 tombstone 으로 표시한 뒤 비율이 커지면 그래프를 다시 만든다.
+ * - save/load 로 그래프 전체를 파일에 저장해 재시작 시 재구축하지 않는다.
+ * 벡터는 정규화해 두고 내적을 코사인으로 쓰며, 점수는 RelevanceScore.fromCosineSimilarity 로 변환한다.
+ */
+public class HnswEmbeddingStore implements EmbeddingStore<TextSegment> {
+    private static final Logger logger = LoggerFactory.getLogger(HnswEmbeddingStore.class);
+
+    private static final int MAGIC = 0x484E5357; // "HNSW"
+    private static final int FORMAT_VERSION = 1;
+    private static final int MAX_LEVEL = 16;
+    /** 삭제 표시된 노드가 이 비율을 넘으면 살아 있는 노드만으로 그래프를 다시 만든다. */
+    private static final double COMPACT_RATIO = 0.3;
+    private static final int COMPACT_MIN_NODES = 1_000;
+    /** 결과 하나당 후보 폭. maxResults 가 커도 recall 이 efSearch 고정값만큼 떨어지지 않게 한다. */
+    private static final int EF_PER_RESULT = 10;
+
+    private final int m;
+    private final int efConstruction;
+    private final int efSearch;
+    private final double levelMultiplier;
+    private final Path path;
+    private final Random random = new Random(42);
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ThreadLocal<Visited> visitedHolder = ThreadLocal.withInitial(Visited::new);
+
+    private int dimension = -1;
+    private float[] vectors = new float[0];
+    private String[] ids = new String[0];
+    private TextSegment[] segments = new TextSegment[0];
+    private boolean[] deleted = new boolean[0];
+    private int[] levels = new int[0];
+    /** links[node][level] = 이웃 노드 배열 (정확한 길이) */
+    private int[][][] links = new int[0][][];
+    private final Map<String, Integer> nodeById = new HashMap<>();
+    private int nodeCount;
+    private int deletedCount;
+    private int entryPoint = -1;
+    private int maxLevel = -1;
+
+    public HnswEmbeddingStore(int m, int efConstruction, int efSearch, Path path) {
+        this.m = Math.max(2, m);
+        this.efConstruction = Math.max(this.m, efConstruction);
+        this.efSearch = Math.max(1, efSearch);
+        this.levelMultiplier = 1.0 / Math.log(this.m);
+        this.path = path;
+    }
+
+    // ── EmbeddingStore ──────────────────────────────────────────────────────
+
+    @Override
+    public String add(Embedding embedding) {
+        String id = UUID.randomUUID().toString();
+        add(id, embedding);
+        return id;
+    }
+
+    @Override
+    public void add(String id, Embedding embedding) {
+        addAll(List.of(id), List.of(embedding), null);
+    }
+
+    @Override
+    public String add(Embedding embedding, TextSegment segment) {
+        String id = UUID.randomUUID().toString();
+        addAll(List.of(id), List.of(embedding), segment == null ? null : List.of(segment));
+        return id;
+    }
+
+    @Override
+    public List<String> addAll(List<Embedding> embeddings) {
+        List<String> newIds = generateIds(embeddings.size());
+        addAll(newIds, embeddings, null);
+        return newIds;
+    }
+
+    /** 같은 id 가 있으면 이전 노드를 삭제 표시하고 새 노드로 삽입한다 (upsert). */
+    @Override
+    public void addAll(List<String> newIds, List<Embedding> embeddings, List<TextSegment> embedded) {
+        if (newIds.size() != embeddings.size() || (embedded != null && embedded.size() != embeddings.size())) {
+            throw new IllegalArgumentException("ids, embeddings and embedded must have the same size");
+        }
+        lock.writeLock().lock();
+        try {
+            for (int i = 0; i < newIds.size(); i++) {
+                String id = newIds.get(i);
+                Integer existing = nodeById.remove(id);
+                if (existing != null) {
+                    markDeleted(existing);
+                }
+                insert(id, VectorOps.normalized(embeddings.get(i).vector()), embedded == null ? null : embedded.get(i));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void removeAll(Collection<String> idsToRemove) {
+        lock.writeLock().lock();
+        try {
+            for (String id : idsToRemove) {
+                Integer node = nodeById.remove(id);
+                if (node != null) {
+                    markDeleted(node);
+                }
+            }
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void removeAll(Filter filter) {
+        lock.writeLock().lock();
+        try {
+            List<String> matched = new ArrayList<>();
+            for (int node = 0; node < nodeCount; node++) {
+                if (!deleted[node] && segments[node] != null && filter.test(segments[node].metadata())) {
+                    matched.add(ids[node]);
+                }
+            }
+            removeAll(matched);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void removeAll() {
+        lock.writeLock().lock();
+        try {
+            clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public EmbeddingSearchResult<TextSegment> search(EmbeddingSearchRequest request) {
+        lock.readLock().lock();
+        try {
+            if (entryPoint < 0 || nodeById.isEmpty()) {
+                return new EmbeddingSearchResult<>(List.of());
+            }
+            float[] query = VectorOps.normalized(request.queryEmbedding().vector());
+            if (query.length != dimension) {
+                throw new IllegalArgumentException(
+                        "Query dimension " + query.length + " does not match store dimension " + dimension);
+            }
+            int k = request.maxResults();
+            int[] eps = {entryPoint};
+            for (int level = maxLevel; level > 0; level--) {
+                eps = new int[] {best(searchLayer(query, 0, eps, 1, level))};
+            }
+            // 삭제 표시된 노드와 필터 탈락분을 감안해 후보 폭을 k 의 배수 이상으로 잡는다.
+            TopKHeap found = searchLayer(query, 0, eps, Math.max(efSearch, k * EF_PER_RESULT), 0);
+            int[] nodes = new int[found.size()];
+            double[] cosines = new double[found.size()];
+            int n = found.drainDescending(nodes, cosines);
+
+            double minCosine = request.minScore() * 2 - 1;
+            Filter filter = request.filter();
+            List<EmbeddingMatch<TextSegment>> matches = new ArrayList<>(Math.min(n, k));
+            for (int i = 0; i < n && matches.size() < k; i++) {
+                int node = nodes[i];
+                if (deleted[node] || cosines[i] < minCosine) continue;
+                if (filter != null && (segments[node] == null || !filter.test(segments[node].metadata()))) continue;
+                float[] vector = Arrays.copyOfRange(vectors, node * dimension, (node + 1) * dimension);
+                matches.add(new EmbeddingMatch<>(RelevanceScore.fromCosineSimilarity(cosines[i]),
+                        ids[node], new Embedding(vector), segments[node]));
+            }
+            return new EmbeddingSearchResult<>(matches);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return nodeById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** 같은 그래프를 가진 독립 사본. 이웃 배열(int[])은 수정 시 새 배열로 교체하므로 노드별 층 배열만 복제한다. */
+    public HnswEmbeddingStore copy() {
+        lock.readLock().lock();
+        try {
+            HnswEmbeddingStore copy = new HnswEmbeddingStore(m, efConstruction, efSearch, path);
+            copy.dimension = dimension;
+            copy.vectors = vectors.clone();
+            copy.ids = ids.clone();
+            copy.segments = segments.clone();
+            copy.deleted = deleted.clone();
+            copy.levels = levels.clone();
+            copy.links = new int[links.length][][];
+            for (int node = 0; node < nodeCount; node++) {
+                copy.links[node] = links[node].clone();
+            }
+            copy.nodeById.putAll(nodeById);
+            copy.nodeCount = nodeCount;
+            copy.deletedCount = deletedCount;
+            copy.entryPoint = entryPoint;
+            copy.maxLevel = maxLevel;
+            return copy;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ── 영속화 ──────────────────────────────────────────────────────────────
+
+    /** 그래프 전체를 설정된 경로에 저장한다. 임시 파일에 쓴 뒤 교체하므로 중간에 실패해도 이전 파일이 유지된다. */
+    public void save() {
+        if (path == null) return;
+        lock.readLock().lock();
+        try {
+            Files.createDirectories(path.toAbsolutePath().getParent());
+            Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp), 1 << 16))) {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                out.writeInt(dimension);
+                out.writeInt(m);
+                out.writeInt(nodeCount);
+                out.writeInt(entryPoint);
+                out.writeInt(maxLevel);
+                for (int node = 0; node < nodeCount; node++) {
+                    out.writeBoolean(deleted[node]);
+                    out.writeUTF(ids[node]);
+                    writeText(out, segments[node] == null ? null : segments[node].text());
+                    out.writeInt(levels[node]);
+                    for (int d = 0; d < dimension; d++) {
+                        out.writeFloat(vectors[node * dimension + d]);
+                    }
+                    for (int level = 0; level <= levels[node]; level++) {
+                        int[] neighbors = links[node][level];
+                        out.writeInt(neighbors.length);
+                        for (int neighbor : neighbors) {
+                            out.writeInt(neighbor);
+                        }
+                    }
+                }
+            }
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            logger.info("[HNSW] Saved {} nodes ({} live) to {}", nodeCount, nodeById.size(), path);
+        } catch (IOException e) {
+            logger.error("[HNSW] Save failed: {}", e.getMessage(), e);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 저장된 그래프를 읽어 온다.
+     * @return 파일이 있고 정상적으로 읽었으면 true. 이웃 수(M)가 설정과 다르면 읽지 않는다.
+     */
+    public boolean load() {
+        if (path == null || !Files.exists(path)) return false;
+        lock.writeLock().lock();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path), 1 << 16))) {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+                logger.warn("[HNSW] {} is not a supported graph file. Ignored.", path);
+                return false;
+            }
+            int dim = in.readInt();
+            int savedM = in.readInt();
+            if (savedM != m) {
+                logger.warn("[HNSW] {} was built with M={} (configured M={}). Ignored.", path, savedM, m);
+                return false;
+            }
+            clear();
+            dimension = dim;
+            int count = in.readInt();
+            int savedEntry = in.readInt();
+            int savedMaxLevel = in.readInt();
+            ensureCapacity(count);
+            for (int node = 0; node < count; node++) {
+                deleted[node] = in.readBoolean();
+                ids[node] = in.readUTF();
+                String text = readText(in);
+                segments[node] = text == null ? null : TextSegment.from(text);
+                levels[node] = in.readInt();
+                for (int d = 0; d < dimension; d++) {
+                    vectors[node * dimension + d] = in.readFloat();
+                }
+                links[node] = new int[levels[node] + 1][];
+                for (int level = 0; level <= levels[node]; level++) {
+                    int[] neighbors = new int[in.readInt()];
+                    for (int j = 0; j < neighbors.length; j++) {
+                        neighbors[j] = in.readInt();
+                    }
+                    links[node][level] = neighbors;
+                }
+                if (deleted[node]) {
+                    deletedCount++;
+                } else {
+                    nodeById.put(ids[node], node);
+                }
+            }
+            nodeCount = count;
+            entryPoint = savedEntry;
+            maxLevel = savedMaxLevel;
+            logger.info("[HNSW] Loaded {} nodes ({} live) from {}", nodeCount, nodeById.size(), path);
+            return true;
+        } catch (IOException e) {
+            logger.error("[HNSW] Load failed: {}", e.getMessage(), e);
+            clear();
+            return false;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // ── 그래프 구성 ─────────────────────────────────────────────────────────
+
+    private void insert(String id, float[] vector, TextSegment segment) {
+        if (dimension < 0) {
+            dimension = vector.length;
+        } else if (vector.length != dimension) {
+            throw new IllegalArgumentException(
+                    "Embedding dimension " + vector.length + " does not match store dimension " + dimension);
+        }
+        ensureCapacity(nodeCount + 1);
+        int node = nodeCount++;
+        int level = randomLevel();
+        System.arraycopy(vector, 0, vectors, node * dimension, dimension);
+        ids[node] = id;
+        segments[node] = segment;
+        deleted[node] = false;
+        levels[node] = level;
+        links[node] = new int[level + 1][];
+        for (int l = 0; l <= level; l++) {
+            links[node][l] = new int[0];
+        }
+        nodeById.put(id, node);
+
+        if (entryPoint < 0) {
+            entryPoint = node;
+            maxLevel = level;
+            return;
+        }
+
+        int queryOffset = node * dimension;
+        int[] eps = {entryPoint};
+        for (int l = maxLevel; l > level; l--) {
+            eps = new int[] {best(searchLayer(vectors, queryOffset, eps, 1, l))};
+        }
+        for (int l = Math.min(level, maxLevel); l >= 0; l--) {
+            TopKHeap found = searchLayer(vectors, queryOffset, eps, efConstruction, l);
+            int[] candidates = new int[found.size()];
+            found.drainDescending(candidates, null);
+
+            int[] neighbors = selectNeighbors(node, candidates, maxConnections(l));
+            links[node][l] = neighbors;
+            for (int neighbor : neighbors) {
+                connect(neighbor, node, l);
+            }
+            eps = candidates;
+        }
+        if (level > maxLevel) {
+            entryPoint = node;
+            maxLevel = level;
+        }
+    }
+
+    /** neighbor 의 이웃 목록에 node 를 추가하고, 한도를 넘으면 휴리스틱으로 다시 고른다. */
+    private void connect(int neighbor, int node, int level) {
+        int[] current = links[neighbor][level];
+        int[] extended = Arrays.copyOf(current, current.length + 1);
+        extended[current.length] = node;
+        int limit = maxConnections(level);
+        if (extended.length <= limit) {
+            links[neighbor][level] = extended;
+            return;
+        }
+        // 유사도 내림차순으로 정렬한 뒤 선택한다.
+        Integer[] boxed = new Integer[extended.length];
+        double[] sims = new double[extended.length];
+        for (int i = 0; i < extended.length; i++) {
+            boxed[i] = i;
+            sims[i] = similarity(neighbor, extended[i]);
+        }
+        Arrays.sort(boxed, (a, b) -> Double.compare(sims[b], sims[a]));
+        int[] sorted = new int[extended.length];
+        for (int i = 0; i < sorted.length; i++) {
+            sorted[i] = extended[boxed[i]];
+        }
+        links[neighbor][level] = selectNeighbors(neighbor, sorted, limit);
+    }
+
+    /**
+     * 이웃 선택 휴리스틱 (HNSW 논문 Algorithm 4).
+     * 이미 고른 이웃보다 base 에 더 가까운 후보만 우선 채택해 그래프가 여러 방향으로 뻗도록 하고, 남는 자리는 버린 후보로 채운다.
+     * @param candidates base 와의 유사도 내림차순
+     */
+    private int[] selectNeighbors(int base, int[] candidates, int limit) {
+        int[] selected = new int[Math.min(limit, candidates.length)];
+        int count = 0;
+        int[] discarded = new int[candidates.length];
+        int discardedCount = 0;
+        for (int candidate : candidates) {
+            if (count >= limit) break;
+            if (candidate == base) continue;
+            double toBase = similarity(base, candidate);
+            boolean keep = true;
+            for (int i = 0; i < count; i++) {
+                if (similarity(candidate, selected[i]) > toBase) {
+                    keep = false;
+                    break;
+                }
+            }
+            if (keep) {
+                selected[count++] = candidate;
+            } else {
+                discarded[discardedCount++] = candidate;
+            }
+        }
+        for (int i = 0; i < discardedCount && count < selected.length; i++) {
+            selected[count++] = discarded[i];
+        }
+        return count == selected.length ? selected : Arrays.copyOf(selected, count);
+    }
+
+    /**
+     * 한 층에서 entry point 들로부터 탐색해 유사도 상위 ef 개를 찾는다.
+     * 삭제 표시된 노드도 경로로는 사용하고, 결과에서 거르는 것은 호출자가 한다.
+     */
+    private TopKHeap searchLayer(float[] query, int queryOffset, int[] entryPoints, int ef, int level) {
+        Visited visited = visitedHolder.get();
+        visited.reset(nodeCount);
+        TopKHeap results = new TopKHeap(ef);
+        CandidateQueue candidates = new CandidateQueue();
+        for (int ep : entryPoints) {
+            if (visited.mark(ep)) continue;
+            double sim = VectorOps.dot(query, queryOffset, vectors, ep * dimension, dimension);
+            candidates.push(ep, sim);
+            results.offer(ep, sim);
+        }
+        while (!candidates.isEmpty()) {
+            double sim = candidates.peekScore();
+            int current = candidates.pop();
+            if (sim < results.threshold()) break;
+            int[][] nodeLinks = links[current];
+            if (level >= nodeLinks.length) continue;
+            for (int neighbor : nodeLinks[level]) {
+                if (visited.mark(neighbor)) continue;
+                double s = VectorOps.dot(query, queryOffset, vectors, neighbor * dimension, dimension);
+                if (s > results.threshold()) {
+                    candidates.push(neighbor, s);
+                    results.offer(neighbor, s);
+                }
+            }
+        }
+        return results;
+    }
+
+    private int best(TopKHeap heap) {
+        int[] nodes = new int[heap.size()];
+        heap.drainDescending(nodes, null);
+        return nodes[0];
+    }
+
+    private double similarity(int a, int b) {
+        return VectorOps.dot(vectors, a * dimension, vectors, b * dimension, dimension);
+    }
+
+    private int maxConnections(int level) {
+        return level == 0 ? 2 * m : m;
+    }
+
+    private int randomLevel() {
+        double r = random.nextDouble();
+        return Math.min(MAX_LEVEL, (int) (-Math.log(1.0 - r) * levelMultiplier));
+    }
+
+    private void markDeleted(int node) {
+        if (!deleted[node]) {
+            deleted[node] = true;
+            deletedCount++;
+        }
+    }
+
+    private void compactIfNeeded() {
+        if (nodeCount < COMPACT_MIN_NODES || deletedCount < nodeCount * COMPACT_RATIO) return;
+        long started = System.currentTimeMillis();
+        int live = nodeCount - deletedCount;
+        String[] liveIds = new String[live];
+        float[][] liveVectors = new float[live][];
+        TextSegment[] liveSegments = new TextSegment[live];
+        int n = 0;
+        for (int node = 0; node < nodeCount; node++) {
+            if (deleted[node]) continue;
+            liveIds[n] = ids[node];
+            liveVectors[n] = Arrays.copyOfRange(vectors, node * dimension, (node + 1) * dimension);
+            liveSegments[n] = segments[node];
+            n++;
+        }
+        int dim = dimension;
+        clear();
+        dimension = dim;
+        for (int i = 0; i < n; i++) {
+            insert(liveIds[i], liveVectors[i], liveSegments[i]);
+        }
+        logger.info("[HNSW] Compacted graph to {} live nodes in {} ms", n, System.currentTimeMillis() - started);
+    }
+
+    private void clear() {
+        nodeById.clear();
+        vectors = new float[0];
+        ids = new String[0];
+        segments = new TextSegment[0];
+        deleted = new boolean[0];
+        levels = new int[0];
+        links = new int[0][][];
+        nodeCount = 0;
+        deletedCount = 0;
+        entryPoint = -1;
+        maxLevel = -1;
+        dimension = -1;
+    }
+
+    private void ensureCapacity(int required) {
+        if (required <= ids.length) return;
+        int capacity = Math.max(Math.max(256, required), ids.length * 2);
+        vectors = Arrays.copyOf(vectors, capacity * dimension);
+        ids = Arrays.copyOf(ids, capacity);
+        segments = Arrays.copyOf(segments, capacity);
+        deleted = Arrays.copyOf(deleted, capacity);
+        levels = Arrays.copyOf(levels, capacity);
+        links = Arrays.copyOf(links, capacity);
+    }
+
+    private static void writeText(DataOutputStream out, String text) throws IOException {
+        if (text == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readText(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) return null;
+        byte[] bytes = in.readNBytes(length);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /** 탐색 중 방문 여부. 세대 번호를 써서 매 검색마다 배열을 비우지 않는다. */
+    private static final class Visited {
+        private int[] marks = new int[0];
+        private int epoch;
+
+        void reset(int capacity) {
+            if (marks.length < capacity) {
+                marks = new int[Math.max(capacity, marks.length * 2)];
+                epoch = 0;
+            }
+            if (++epoch == Integer.MAX_VALUE) {
+                Arrays.fill(marks, 0);
+                epoch = 1;
+            }
+        }
+
+        /** 이미 방문했으면 true, 아니면 방문 표시 후 false */
+        boolean mark(int node) {
+            if (marks[node] == epoch) return true;
+            marks[node] = epoch;
+            return false;
+        }
+    }
+
+    /** 유사도가 가장 높은 후보부터 꺼내는 가변 크기 최대 힙 */
+    private static final class CandidateQueue {
+        private double[] scores = new double[64];
+        private int[] nodes = new int[64];
+        private int size;
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        double peekScore() {
+            return scores[0];
+        }
+
+        void push(int node, double score) {
+            if (size == scores.length) {
+                scores = Arrays.copyOf(scores, size * 2);
+                nodes = Arrays.copyOf(nodes, size * 2);
+            }
+            int i = size++;
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (scores[parent] >= score) break;
+                scores[i] = scores[parent];
+                nodes[i] = nodes[parent];
+                i = parent;
+            }
+            scores[i] = score;
+            nodes[i] = node;
+        }
+
+        int pop() {
+            int top = nodes[0];
+            size--;
+            if (size > 0) {
+                double score = scores[size];
+                int node = nodes[size];
+                int i = 0;
+                while (true) {
+                    int left = 2 * i + 1;
+                    if (left >= size) break;
+                    int right = left + 1;
+                    int larger = right < size && scores[right] > scores[left] ? right : left;
+                    if (score >= scores[larger]) break;
+                    scores[i] = scores[larger];
+                    nodes[i] = nodes[larger];
+                    i = larger;
+                }
+                scores[i] = score;
+                nodes[i] = node;
+            }
+            return top;
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.sqlgen.mcp.service;
+
+import java.nio.file.Path;
+
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.embedding.EmbeddingModel;
+import dev.langchain4j.store.embedding.EmbeddingStore;
+
+@Component
+public class HnswVectorStoreModeStrategy implements VectorStoreModeStrategy {
+    // hnsw 모드는 local 과 같은 ONNX 임베딩을 쓰되, 테이블 검색을 HNSW 근사 인덱스로 수행하고 그래프를 파일로 저장한다.
+
+    private static final String PREFIX = "ai.vector-store.hnsw";
+    private static final String TABLE_GRAPH_FILE = "tables.hnsw";
+
+    // 테이블 그래프를 파일에서 읽어 왔을 때만 매니페스트를 이어서 쓴다 (파일이 없으면 전체 재인덱싱)
+    private volatile boolean tableGraphLoaded;
+
+    @Override
+    public String provider() {
+        return "hnsw";
+    }
+
+    @Override
+    public String storeType() {
+        return "hnsw";
+    }
+
+    @Override
+    public boolean persistentStore() {
+        return tableGraphLoaded;
+    }
+
+    @Override
+    public String storeIdentity(Environment env) {
+        return tableGraphPath(env).toAbsolutePath().normalize().toString();
+    }
+
+    @Override
+    public long storedCount(EmbeddingStore<TextSegment> store) {
+        return store instanceof HnswEmbeddingStore hnsw ? hnsw.size() : -1;
+    }
+
+    @Override
+    public EmbeddingModel createEmbeddingModel(Environment env) {
+        return LocalOnnxEmbeddingModel.create(env);
+    }
+
+    @Override
+    public EmbeddingStore<TextSegment> createTableStore(Environment env) {
+        HnswEmbeddingStore store = newStore(env, tableGraphPath(env));
+        tableGraphLoaded = store.load();
+        return store;
+    }
+
+    @Override
+    public EmbeddingStore<TextSegment> createExampleStore(Environment env) {
+        // SQL 예시는 기동 시마다 전체 재인덱싱하므로 그래프를 저장하지 않는다.
+        return newStore(env, null);
+    }
+
+    @Override
+    public EmbeddingStore<TextSegment> resetTableStore(EmbeddingStore<TextSegment> currentStore, Environment env) {
+        tableGraphLoaded = false;
+        return newStore(env, tableGraphPath(env));
+    }
+
+    @Override
+    public EmbeddingStore<TextSegment> forkTableStore(EmbeddingStore<TextSegment> currentStore, Environment env) {
+        return currentStore instanceof HnswEmbeddingStore hnsw ? hnsw.copy() : newStore(env, tableGraphPath(env));
+    }
+
+    @Override
+    public EmbeddingStore<TextSegment> resetExampleStore(EmbeddingStore<TextSegment> currentStore, Environment env) {
+        return newStore(env, null);
+    }
+
+    @Override
+    public void flushTableStore(EmbeddingStore<TextSegment> store) {
+        if (store instanceof HnswEmbeddingStore hnsw) {
+            hnsw.save();
+        }
+    }
+
+    private HnswEmbeddingStore newStore(Environment env, Path path) {
+        int m = env.getProperty(PREFIX + ".m", Integer.class, 16);
+        int efConstruction = env.getProperty(PREFIX + ".ef-construction", Integer.class, 200);
+        int efSearch = env.getProperty(PREFIX + ".ef-search", Integer.class, 200);
+        return new HnswEmbeddingStore(m, efConstruction, efSearch, path);
+    }
+
+    private Path tableGraphPath(Environment env) {
+        return Path.of(env.getProperty(PREFIX + ".index-dir", "data/hnsw"), TABLE_GRAPH_FILE);
+    }
+}
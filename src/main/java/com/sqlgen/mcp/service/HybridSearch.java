@@ -0,0 +1,31 @@
+package com.sqlgen.mcp.service;
+
+import java.util.List;
+
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.store.embedding.EmbeddingMatch;
+
+/**
+ * 텍스트 색인과 벡터 색인을 한 엔진에 가진 저장소 (lucene).
+ * 하이브리드 검색은 TableTextIndex 매칭과 벡터 검색을 따로 돌리는 대신 키워드마다 질의 한 건으로 둘 다 검색한다.
+ *
+ * 점수는 기존 하이브리드 점수와 같은 척도로 맞춘다: 필드 가중치(테이블명 1.20/1.00, 컬럼 0.85, 코멘트 0.72, remark 0.65)
+ * 이하의 텍스트 점수와 관련도 x vectorWeight 중 큰 값.
+ *
+ * 이 저장소에 넣는 테이블 TextSegment 는 FIELD_* 메타데이터로 필드별 본문을 함께 넘긴다.
+ */
+interface HybridSearch {
+
+    String FIELD_TABLE_NAME = "table_name";
+    String FIELD_COLUMNS = "columns";
+    String FIELD_COMMENT = "comment";
+    String FIELD_REMARKS = "remarks";
+
+    /**
+     * @param vectors keywords 와 같은 순서의 질의 벡터. 원소가 null 이면 그 키워드는 텍스트로만 검색한다.
+     * @return keywords 순서대로 키워드별 결과 (점수 내림차순, 최대 maxResults 개)
+     */
+    List<List<EmbeddingMatch<TextSegment>>> hybridSearchAll(List<String> keywords, List<Embedding> vectors,
+                                                           int maxResults, double vectorWeight);
+}
@@ -0,0 +1,112 @@
+package com.sqlgen.mcp.service;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.springframework.core.env.Environment;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * 테이블/SQL 예시 인덱스 스냅샷 파일 입출력.
+ *
+ * 한 인덱스는 두 파일로 저장한다.
+ *   - {name}.vec : 헤더(magic, 포맷 버전, 차원, 행 수, stamp) + float32 행 (little-endian). 읽을 때는 memory-map 한다.
+ *   - {name}.json: 임베딩 모델, 포맷 버전, vec 의 stamp, 행 순서대로의 메타데이터 (id, 본문, 키워드 등)
+ * 두 파일은 각각 원자적으로 교체되지만 둘을 함께 교체하지는 못한다. vec 를 쓸 때마다 새 stamp 를 만들어 json 에도 기록하고,
+ * 읽을 때 stamp 가 다르면 (vec 교체 후 json 을 쓰기 전에 중단된 경우 등) 행 수가 같더라도 스냅샷을 버린다.
+ */
+final class IndexSnapshot {
+
+    static final int FORMAT_VERSION = 2;
+    private static final int MAGIC = 0x53514C56; // "SQLV"
+    private static final int HEADER_BYTES = 24;
+
+    /** memory-map 된 벡터 행렬 (읽기 전용). stamp 는 같은 시점에 쓴 json 의 값과 같아야 한다. */
+    record Vectors(int dimension, int count, long stamp, FloatBuffer data) {
+        float[] row(int index) {
+            float[] row = new float[dimension];
+            data.get(index * dimension, row, 0, dimension);
+            return row;
+        }
+    }
+
+    private IndexSnapshot() {}
+
+    /** 스냅샷 디렉토리: ai.vector-store.snapshot.dir, 없으면 {db.schema-output-dir}/snapshot */
+    static Path directory(Environment env) {
+        String dir = env.getProperty("ai.vector-store.snapshot.dir");
+        if (dir == null || dir.isBlank()) {
+            dir = env.getProperty("db.schema-output-dir", "docs/schema") + "/snapshot";
+        }
+        return Path.of(dir);
+    }
+
+    static boolean enabled(Environment env) {
+        return env.getProperty("ai.vector-store.snapshot.enabled", Boolean.class, true);
+    }
+
+    /**
+     * 벡터 행렬을 임시 파일에 쓴 뒤 원자적으로 교체한다.
+     * @return 이 파일의 stamp. 짝이 되는 json 에 기록해야 한다.
+     */
+    static long writeVectors(Path file, List<float[]> rows, int dimension) throws IOException {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        long stamp = ThreadLocalRandom.current().nextLong(1, Long.MAX_VALUE);
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (OutputStream raw = Files.newOutputStream(tmp);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(raw, 1 << 16))) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(MAGIC).putInt(FORMAT_VERSION).putInt(dimension).putInt(rows.size()).putLong(stamp);
+            out.write(header.array());
+            ByteBuffer row = ByteBuffer.allocate(dimension * Float.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            for (float[] vector : rows) {
+                row.clear();
+                row.asFloatBuffer().put(vector, 0, dimension);
+                out.write(row.array());
+            }
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return stamp;
+    }
+
+    /** 벡터 파일을 memory-map 한다. 파일이 없거나 형식이 다르거나 stamp 가 expectedStamp 와 다르면 null */
+    static Vectors mapVectors(Path file, long expectedStamp) throws IOException {
+        if (!Files.exists(file)) return null;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            mapped.order(ByteOrder.LITTLE_ENDIAN);
+            if (mapped.remaining() < HEADER_BYTES || mapped.getInt() != MAGIC || mapped.getInt() != FORMAT_VERSION) {
+                return null;
+            }
+            int dimension = mapped.getInt();
+            int count = mapped.getInt();
+            long stamp = mapped.getLong();
+            if (stamp != expectedStamp || (long) dimension * count * Float.BYTES > mapped.remaining()) {
+                return null;
+            }
+            FloatBuffer data = mapped.slice().order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer();
+            return new Vectors(dimension, count, stamp, data);
+        }
+    }
+
+    static void writeJson(ObjectMapper objectMapper, Path file, Object value) throws IOException {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        objectMapper.writeValue(tmp.toFile(), value);
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
@@ -5,9 +5,13 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.*;
 
 /**
@@ -15,6 +19,10 @@ import java.util.*;
  * 최장 일치(longest-match greedy) 방식으로 다단어 구문을 우선 매칭하고,
  * 단일 토큰으로 fallback합니다. 사전 미등록 토큰은 원문 유지.
  *
+ * 사전은 double-array trie 로 컴파일해 두고, 번역은 검색어를 한 번 훑으며 토큰 경계에서 끝나는 가장 긴 키를 고릅니다
+ * (부분 문자열/배열을 만들지 않음). ai.korean-dict.path 를 지정하면 외부 파일을 읽고, reload() 로 실행 중에 교체합니다.
+ * 사전과 trie 는 불변 스냅샷 하나로 묶어 원자적으로 발행하므로 번역 도중 교체돼도 한 스냅샷만 봅니다.
+ *
  * 예) "설비 상태 조회" → "equipment status list search get query"
  */
 @Service
@@ -24,21 +32,73 @@ public class KoreanQueryTranslator {
     private static final String DICT_PATH = "korean-dict.json";
     private static final int MAX_NGRAM = 4;
 
-    private Map<String, String> dictionary = Collections.emptyMap();
+    /** 원본 사전(등록 순서)과 컴파일한 trie, 사전 어휘로 만든 한국어 분석기 */
+    private record Snapshot(Map<String, String> entries, DoubleArrayTrie trie, HangulAnalyzer analyzer) {
+        static final Snapshot EMPTY = new Snapshot(Collections.emptyMap(), null, HangulAnalyzer.empty());
+    }
+
+    private final String externalPath;
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+
+    public KoreanQueryTranslator(@Value("${ai.korean-dict.path:}") String externalPath) {
+        this.externalPath = externalPath == null ? "" : externalPath.trim();
+    }
 
     @PostConstruct
     public void load() {
-        try (InputStream is = KoreanQueryTranslator.class.getClassLoader()
-                .getResourceAsStream(DICT_PATH)) {
-            if (is == null) {
-                logger.warn("[KoreanDict] {} not found. Korean query translation disabled.", DICT_PATH);
-                return;
-            }
-            dictionary = new ObjectMapper().readValue(is, new TypeReference<LinkedHashMap<String, String>>() {});
-            logger.info("[KoreanDict] Loaded {} entries from {}", dictionary.size(), DICT_PATH);
+        try {
+            reload();
         } catch (Exception e) {
-            logger.error("[KoreanDict] Failed to load {}: {}", DICT_PATH, e.getMessage(), e);
+            logger.error("[KoreanDict] Failed to load {}: {}", source(), e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 사전을 다시 읽어 trie 를 새로 만들고 교체합니다. 읽기에 실패하면 기존 사전을 그대로 둡니다.
+     * @return 로드한 항목 수
+     */
+    public int reload() throws IOException {
+        long started = System.nanoTime();
+        Map<String, String> entries;
+        if (!externalPath.isEmpty()) {
+            try (InputStream is = Files.newInputStream(Path.of(externalPath))) {
+                entries = read(is);
+            }
+        } else {
+            try (InputStream is = KoreanQueryTranslator.class.getClassLoader().getResourceAsStream(DICT_PATH)) {
+                if (is == null) {
+                    logger.warn("[KoreanDict] {} not found. Korean query translation disabled.", DICT_PATH);
+                    return 0;
+                }
+                entries = read(is);
+            }
         }
+        Snapshot next = compile(entries);
+        snapshot = next;
+        logger.info("[KoreanDict] Loaded {} entries from {} (trie {} slots, {} ms)", next.entries().size(), source(),
+                next.trie() == null ? 0 : next.trie().capacity(), (System.nanoTime() - started) / 1_000_000);
+        return next.entries().size();
+    }
+
+    private static Map<String, String> read(InputStream is) throws IOException {
+        return new ObjectMapper().readValue(is, new TypeReference<LinkedHashMap<String, String>>() {});
+    }
+
+    /** 키의 공백을 한 칸으로 맞춰 trie 에 넣는다. MAX_NGRAM 단어를 넘는 키는 기존처럼 매칭 대상에서 빠진다. */
+    private static Snapshot compile(Map<String, String> entries) {
+        if (entries.isEmpty()) return Snapshot.EMPTY;
+        Map<String, String> keys = new LinkedHashMap<>();
+        entries.forEach((key, translated) -> {
+            String[] words = key.trim().split("\\s+");
+            if (words[0].isEmpty() || words.length > MAX_NGRAM || translated == null) return;
+            keys.put(String.join(String.valueOf(DoubleArrayTrie.SPACE), words), translated);
+        });
+        return new Snapshot(Collections.unmodifiableMap(new LinkedHashMap<>(entries)), DoubleArrayTrie.build(keys),
+                HangulAnalyzer.of(keys.keySet()));
+    }
+
+    private String source() {
+        return externalPath.isEmpty() ? "classpath:" + DICT_PATH : externalPath;
     }
 
     /**
@@ -46,30 +106,54 @@ public class KoreanQueryTranslator {
      * 한국어가 없으면 원문을 그대로 반환합니다.
      */
     public String translate(String query) {
-        if (dictionary.isEmpty() || query == null || query.isBlank()) return query;
+        Snapshot current = snapshot;
+        DoubleArrayTrie trie = current.trie();
+        if (trie == null || query == null || query.isBlank()) return query;
         if (!containsKorean(query)) return query;
 
-        String[] tokens = query.trim().split("\\s+");
-        StringJoiner result = new StringJoiner(" ");
-
-        int i = 0;
-        while (i < tokens.length) {
-            int maxLen = Math.min(MAX_NGRAM, tokens.length - i);
-            boolean matched = false;
-            for (int len = maxLen; len > 1; len--) {
-                String phrase = String.join(" ", Arrays.copyOfRange(tokens, i, i + len));
-                String translated = dictionary.get(phrase);
-                if (translated != null) {
-                    result.add(translated);
-                    i += len;
-                    matched = true;
-                    break;
+        StringBuilder result = new StringBuilder(query.length() * 3);
+        int length = query.length();
+        int i = skipSpaces(query, 0);
+        while (i < length) {
+            // i 에서 시작해 토큰 경계(공백 또는 끝)에서 끝나는 가장 긴 키를 찾는다. 공백 연속은 전이 한 번으로 본다.
+            int state = trie.root();
+            int words = 1;
+            int matchEnd = -1;
+            String matched = null;
+            int p = i;
+            while (p < length) {
+                char c = query.charAt(p);
+                if (isSpace(c)) {
+                    String value = trie.valueAt(state);
+                    if (value != null) {
+                        matched = value;
+                        matchEnd = p;
+                    }
+                    if (++words > MAX_NGRAM) break;
+                    state = trie.next(state, DoubleArrayTrie.SPACE);
+                    p = skipSpaces(query, p);
+                } else {
+                    state = trie.next(state, c);
+                    p++;
                 }
+                if (state < 0) break;
             }
-            if (!matched) {
-                String translated = dictionary.get(tokens[i]);
-                result.add(translated != null ? translated : tokens[i]);
-                i++;
+            if (state >= 0 && p == length) {
+                String value = trie.valueAt(state);
+                if (value != null) {
+                    matched = value;
+                    matchEnd = p;
+                }
+            }
+
+            if (!result.isEmpty()) result.append(' ');
+            if (matched != null) {
+                result.append(matched);
+                i = skipSpaces(query, matchEnd);
+            } else {
+                int end = tokenEnd(query, i);
+                result.append(query, i, end);
+                i = skipSpaces(query, end);
             }
         }
 
@@ -78,12 +162,35 @@ public class KoreanQueryTranslator {
         return output;
     }
 
-    private boolean containsKorean(String text) {
-        return text.chars().anyMatch(c -> c >= 0xAC00 && c <= 0xD7A3
-                || c >= 0x3130 && c <= 0x318F);
+    private static boolean containsKorean(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c >= 0xAC00 && c <= 0xD7A3 || c >= 0x3130 && c <= 0x318F) return true;
+        }
+        return false;
+    }
+
+    /** 정규식 \s 와 같은 공백 문자 */
+    private static boolean isSpace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+
+    private static int skipSpaces(String text, int from) {
+        while (from < text.length() && isSpace(text.charAt(from))) from++;
+        return from;
+    }
+
+    private static int tokenEnd(String text, int from) {
+        while (from < text.length() && !isSpace(text.charAt(from))) from++;
+        return from;
+    }
+
+    /** 현재 사전 어휘로 만든 분석기 (텍스트 색인을 만들 때 사용) */
+    HangulAnalyzer analyzer() {
+        return snapshot.analyzer();
     }
 
     public Map<String, String> getDictionary() {
-        return Collections.unmodifiableMap(dictionary);
+        return snapshot.entries();
     }
 }
@@ -0,0 +1,207 @@
+package com.sqlgen.mcp.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.env.Environment;
+
+import ai.onnxruntime.OrtEnvironment;
+import ai.onnxruntime.OrtException;
+import ai.onnxruntime.OrtSession;
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.embedding.EmbeddingModel;
+import dev.langchain4j.model.embedding.onnx.AbstractInProcessEmbeddingModel;
+import dev.langchain4j.model.embedding.onnx.OnnxBertBiEncoder;
+import dev.langchain4j.model.embedding.onnx.PoolingMode;
+import dev.langchain4j.model.embedding.onnx.allminilml6v2.AllMiniLmL6V2EmbeddingModel;
+import dev.langchain4j.model.output.Response;
+
+/**
+ * 로컬 파일에서 읽는 ONNX 임베딩 모델 (예: 양자화한 multilingual-e5-small, paraphrase-multilingual-MiniLM).
+ * ONNX Runtime 세션 옵션(intra-op 스레드 수, 그래프 최적화)을 직접 지정하고, 기동 시 한 번 추론해 초기화 비용을 미리 치른다.
+ *
+ * ai.vector-store.onnx.model-path 가 없으면 기존처럼 내장 all-MiniLM-L6-v2 (영어) 를 쓴다.
+ * multilingual 모델은 한국어 질의를 그대로 임베딩하므로 하이브리드 검색에서 번역어 벡터 검색과 영어 모델 보정을 생략한다.
+ *
+ * e5 계열처럼 입력 앞에 "query: " / "passage: " 를 붙여 학습한 모델은 query-prefix / passage-prefix 로 지정한다.
+ * embedAll 은 인덱싱 문서(passage)용이고, 검색어는 QueryEmbeddingCache 가 forQueries() 로 얻은 모델을 거쳐 query 접두어로 임베딩한다.
+ */
+final class LocalOnnxEmbeddingModel extends AbstractInProcessEmbeddingModel {
+
+    private static final Logger logger = LoggerFactory.getLogger(LocalOnnxEmbeddingModel.class);
+    private static final String PREFIX = "ai.vector-store.onnx";
+
+    private final OnnxBertBiEncoder encoder;
+    private final String modelName;
+    private final boolean multilingual;
+    private final String queryPrefix;
+    private final String passagePrefix;
+    /** 검색어용 모델. 접두어가 없으면 this */
+    private final EmbeddingModel queryModel;
+
+    private LocalOnnxEmbeddingModel(ExecutorService executor, OnnxBertBiEncoder encoder, String modelName,
+                                    boolean multilingual, String queryPrefix, String passagePrefix) {
+        super(executor);
+        this.encoder = encoder;
+        this.modelName = modelName;
+        this.multilingual = multilingual;
+        this.queryPrefix = queryPrefix;
+        this.passagePrefix = passagePrefix;
+        this.queryModel = queryPrefix.isEmpty() && passagePrefix.isEmpty() ? this : new QueryModel();
+    }
+
+    /** 설정에 따라 로컬 임베딩 모델을 만든다. local / chroma / hnsw 전략이 공통으로 사용한다. */
+    static EmbeddingModel create(Environment env) {
+        String modelPath = env.getProperty(PREFIX + ".model-path");
+        if (modelPath == null || modelPath.isBlank()) {
+            return new AllMiniLmL6V2EmbeddingModel();
+        }
+        Path model = Path.of(modelPath);
+        Path tokenizer = Path.of(env.getProperty(PREFIX + ".tokenizer-path",
+                model.resolveSibling("tokenizer.json").toString()));
+        PoolingMode pooling = PoolingMode.valueOf(env.getProperty(PREFIX + ".pooling", "mean").trim().toUpperCase());
+        int intraOpThreads = env.getProperty(PREFIX + ".intra-op-threads", Integer.class, 0);
+        int parallelism = env.getProperty(PREFIX + ".parallelism", Integer.class, 0);
+        boolean multilingual = env.getProperty(PREFIX + ".multilingual", Boolean.class, true);
+        String queryPrefix = env.getProperty(PREFIX + ".query-prefix", "");
+        String passagePrefix = env.getProperty(PREFIX + ".passage-prefix", "");
+        try {
+            LocalOnnxEmbeddingModel loaded = load(model, tokenizer, pooling, intraOpThreads, parallelism, multilingual,
+                    queryPrefix, passagePrefix);
+            if (env.getProperty(PREFIX + ".warmup", Boolean.class, true)) {
+                loaded.warmUp();
+            }
+            return loaded;
+        } catch (OrtException | IOException e) {
+            throw new IllegalStateException("Failed to load ONNX embedding model " + model + ": " + e.getMessage(), e);
+        }
+    }
+
+    /** 질의를 원문 그대로 임베딩해도 되는 (다국어) 모델이면 true */
+    static boolean isMultilingual(EmbeddingModel model) {
+        return model instanceof LocalOnnxEmbeddingModel onnx && onnx.multilingual;
+    }
+
+    /** 검색어 임베딩에 쓸 모델. query-prefix 를 붙이는 ONNX 모델이면 그 전용 모델을, 아니면 model 을 그대로 반환한다. */
+    static EmbeddingModel forQueries(EmbeddingModel model) {
+        return model instanceof LocalOnnxEmbeddingModel onnx ? onnx.queryModel : model;
+    }
+
+    static LocalOnnxEmbeddingModel load(Path model, Path tokenizer, PoolingMode pooling,
+                                        int intraOpThreads, int parallelism, boolean multilingual,
+                                        String queryPrefix, String passagePrefix)
+            throws OrtException, IOException {
+        long started = System.nanoTime();
+        OrtEnvironment environment = OrtEnvironment.getEnvironment();
+        OrtSession session;
+        try (OrtSession.SessionOptions options = new OrtSession.SessionOptions()) {
+            options.setOptimizationLevel(OrtSession.SessionOptions.OptLevel.ALL_OPT);
+            if (intraOpThreads > 0) {
+                options.setIntraOpNumThreads(intraOpThreads);
+            }
+            session = environment.createSession(model.toString(), options);
+        }
+        OnnxBertBiEncoder encoder;
+        try (InputStream tokenizerJson = Files.newInputStream(tokenizer)) {
+            encoder = new OnnxBertBiEncoder(environment, session, tokenizerJson, pooling);
+        }
+        // 문장 단위 병렬도. intra-op 스레드와 곱해져 코어를 나눠 쓰므로 둘 중 하나는 작게 두는 것이 좋다.
+        int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        ExecutorService executor = Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "onnx-embedding");
+            thread.setDaemon(true);
+            return thread;
+        });
+        String name = modelId(model, tokenizer, pooling, queryPrefix, passagePrefix);
+        logger.info("[Embedding] Loaded ONNX model {} (pooling={}, intraOpThreads={}, parallelism={}, multilingual={}, "
+                        + "queryPrefix='{}', passagePrefix='{}') in {} ms",
+                model, pooling, intraOpThreads > 0 ? intraOpThreads : "default", threads, multilingual,
+                queryPrefix, passagePrefix, (System.nanoTime() - started) / 1_000_000);
+        return new LocalOnnxEmbeddingModel(executor, encoder, name, multilingual, queryPrefix, passagePrefix);
+    }
+
+    /**
+     * 매니페스트/스냅샷 호환성 확인에 쓰는 모델 식별자.
+     * 같은 파일명이라도 경로·크기·수정 시각이 다르거나 pooling·접두어가 다르면 벡터가 달라지므로 모두 포함한다.
+     */
+    static String modelId(Path model, Path tokenizer, PoolingMode pooling, String queryPrefix, String passagePrefix)
+            throws IOException {
+        StringBuilder id = new StringBuilder()
+                .append(fileId(model))
+                .append(";tokenizer=").append(fileId(tokenizer))
+                .append(";pooling=").append(pooling.name().toLowerCase(Locale.ROOT));
+        if (!queryPrefix.isEmpty() || !passagePrefix.isEmpty()) {
+            id.append(";query-prefix=").append(queryPrefix).append(";passage-prefix=").append(passagePrefix);
+        }
+        return id.toString();
+    }
+
+    private static String fileId(Path file) throws IOException {
+        return file.toAbsolutePath().normalize() + "@" + Files.size(file) + ":" + Files.getLastModifiedTime(file).toMillis();
+    }
+
+    /** 첫 추론의 세션 초기화/메모리 할당을 기동 시점에 치른다. */
+    void warmUp() {
+        long started = System.nanoTime();
+        embed("고객 주문 내역 customer order history");
+        logger.info("[Embedding] Warm-up inference took {} ms (dimension={})",
+                (System.nanoTime() - started) / 1_000_000, dimension());
+    }
+
+    @Override
+    protected OnnxBertBiEncoder model() {
+        return encoder;
+    }
+
+    /** 인덱싱 문서 임베딩. passage-prefix 를 붙여 추론한다. */
+    @Override
+    public Response<List<Embedding>> embedAll(List<TextSegment> segments) {
+        return super.embedAll(prefixed(segments, passagePrefix));
+    }
+
+    private Response<List<Embedding>> embedQueries(List<TextSegment> segments) {
+        return super.embedAll(prefixed(segments, queryPrefix));
+    }
+
+    private static List<TextSegment> prefixed(List<TextSegment> segments, String prefix) {
+        if (prefix.isEmpty()) return segments;
+        List<TextSegment> out = new ArrayList<>(segments.size());
+        for (TextSegment segment : segments) {
+            out.add(TextSegment.from(prefix + segment.text(), segment.metadata()));
+        }
+        return out;
+    }
+
+    @Override
+    public String modelName() {
+        return modelName;
+    }
+
+    /** 검색어 임베딩. query-prefix 를 붙여 같은 인코더로 추론한다. */
+    private final class QueryModel implements EmbeddingModel {
+        @Override
+        public Response<List<Embedding>> embedAll(List<TextSegment> segments) {
+            return embedQueries(segments);
+        }
+
+        @Override
+        public int dimension() {
+            return LocalOnnxEmbeddingModel.this.dimension();
+        }
+
+        @Override
+        public String modelName() {
+            return modelName;
+        }
+    }
+}
@@ -1,11 +1,12 @@
 package com.sqlgen.mcp.service;
 
+import java.util.List;
+
 import org.springframework.core.env.Environment;
 import org.springframework.stereotype.Component;
 
 import dev.langchain4j.data.segment.TextSegment;
 import dev.langchain4j.model.embedding.EmbeddingModel;
-import dev.langchain4j.model.embedding.onnx.allminilml6v2.AllMiniLmL6V2EmbeddingModel;
 import dev.langchain4j.store.embedding.EmbeddingStore;
 import dev.langchain4j.store.embedding.inmemory.InMemoryEmbeddingStore;
 
@@ -13,6 +14,8 @@ import dev.langchain4j.store.embedding.inmemory.InMemoryEmbeddingStore;
 public class LocalVectorStoreModeStrategy implements VectorStoreModeStrategy {
     // local 모드는 로컬 ONNX 임베딩과 JVM 인메모리 저장소만 사용한다.
 
+    private static final String PREFIX = "ai.vector-store.local";
+
     @Override
     public String provider() {
         return "local";
@@ -23,28 +26,69 @@ public class LocalVectorStoreModeStrategy implements VectorStoreModeStrategy {
         return "inmemory";
     }
 
+    @Override
+    public boolean persistentStore() {
+        return false;
+    }
+
     @Override
     public EmbeddingModel createEmbeddingModel(Environment env) {
-        return new AllMiniLmL6V2EmbeddingModel();
+        return LocalOnnxEmbeddingModel.create(env);
     }
 
     @Override
     public EmbeddingStore<TextSegment> createTableStore(Environment env) {
-        return new InMemoryEmbeddingStore<>();
+        return newStore(env);
     }
 
     @Override
     public EmbeddingStore<TextSegment> createExampleStore(Environment env) {
-        return new InMemoryEmbeddingStore<>();
+        return newStore(env);
     }
 
     @Override
     public EmbeddingStore<TextSegment> resetTableStore(EmbeddingStore<TextSegment> currentStore, Environment env) {
-        return new InMemoryEmbeddingStore<>();
+        return newStore(env);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public EmbeddingStore<TextSegment> forkTableStore(EmbeddingStore<TextSegment> currentStore, Environment env) {
+        if (currentStore instanceof FlatVectorEmbeddingStore flat) {
+            return flat.copy();
+        }
+        if (currentStore instanceof InMemoryEmbeddingStore<?> inMemory) {
+            return InMemoryEmbeddingStore.merge(List.of((InMemoryEmbeddingStore<TextSegment>) inMemory));
+        }
+        return newStore(env);
     }
 
     @Override
     public EmbeddingStore<TextSegment> resetExampleStore(EmbeddingStore<TextSegment> currentStore, Environment env) {
-        return new InMemoryEmbeddingStore<>();
+        return newStore(env);
+    }
+
+    private EmbeddingStore<TextSegment> newStore(Environment env) {
+        // flat: 연속 float 행렬 + SIMD 내적 (기본), inmemory: langchain4j InMemoryEmbeddingStore
+        String indexType = env.getProperty(PREFIX + ".index-type", "flat").trim().toLowerCase();
+        return switch (indexType) {
+            case "flat" -> new FlatVectorEmbeddingStore(quantization(env),
+                    env.getProperty(PREFIX + ".rescore-factor", Integer.class, 0));
+            case "inmemory" -> new InMemoryEmbeddingStore<>();
+            default -> throw new IllegalArgumentException(
+                    "Unsupported " + PREFIX + ".index-type: " + indexType + " (allowed: flat, inmemory)");
+        };
+    }
+
+    private FlatVectorEmbeddingStore.Quantization quantization(Environment env) {
+        // none: float32 행렬, int8/binary: 양자화 코드로 1차 스캔 후 off-heap 원본 벡터로 재계산
+        String value = env.getProperty(PREFIX + ".quantization", "none").trim().toLowerCase();
+        return switch (value) {
+            case "none" -> FlatVectorEmbeddingStore.Quantization.NONE;
+            case "int8" -> FlatVectorEmbeddingStore.Quantization.INT8;
+            case "binary" -> FlatVectorEmbeddingStore.Quantization.BINARY;
+            default -> throw new IllegalArgumentException(
+                    "Unsupported " + PREFIX + ".quantization: " + value + " (allowed: none, int8, binary)");
+        };
     }
 }
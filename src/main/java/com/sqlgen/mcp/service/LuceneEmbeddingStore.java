@@ -0,0 +1,405 @@
+package com.sqlgen.mcp.service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.LowerCaseFilter;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.Tokenizer;
+import org.apache.lucene.analysis.core.FlattenGraphFilter;
+import org.apache.lucene.analysis.ko.KoreanAnalyzer;
+import org.apache.lucene.analysis.miscellaneous.PerFieldAnalyzerWrapper;
+import org.apache.lucene.analysis.miscellaneous.WordDelimiterGraphFilter;
+import org.apache.lucene.analysis.standard.StandardTokenizer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.KnnFloatVectorField;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.StoredFields;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.index.VectorSimilarityFunction;
+import org.apache.lucene.queries.function.FunctionScoreQuery;
+import org.apache.lucene.search.BoostQuery;
+import org.apache.lucene.search.ConstantScoreQuery;
+import org.apache.lucene.search.DisjunctionMaxQuery;
+import org.apache.lucene.search.DoubleValues;
+import org.apache.lucene.search.DoubleValuesSource;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.KnnFloatVectorQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.util.QueryBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.store.embedding.EmbeddingMatch;
+import dev.langchain4j.store.embedding.EmbeddingSearchRequest;
+import dev.langchain4j.store.embedding.EmbeddingSearchResult;
+import dev.langchain4j.store.embedding.EmbeddingStore;
+
+/**
+ * Lucene 디스크 색인 저장소 (lucene provider). 테이블 하나를 문서 하나로 두고
+ * 테이블명/컬럼명/코멘트/remark 필드(BM25)와 kNN 벡터 필드(HNSW, 코사인)를 같은 색인에 저장한다.
+ *
+ *   - 분석기: 코멘트/remark 는 Nori 형태소 분석(복합명사는 원형과 분해형 모두 색인), 테이블명/컬럼명은 '_'·대소문자 경계로 나눈 식별자 토큰
+ *   - 점수: 필드에 일치하면 필드 가중치의 80% 를 주고, 나머지 20% 를 BM25 포화값 s / (s + 1) 로 채운다.
+ *           (기존 텍스트 매칭처럼 필드 일치 자체가 점수를 정하고, 같은 필드 안의 순서만 BM25 가 정한다.) 테이블명 정확 일치는 1.20 고정.
+ *           벡터는 Lucene COSINE 점수 (1 + cos) / 2 (= RelevanceScore.fromCosineSimilarity) 에 vectorWeight 를 곱한다.
+ *           모두 DisjunctionMaxQuery 로 묶어 기존 하이브리드 검색처럼 가장 큰 점수를 쓴다.
+ *   - 쓰기: id 로 updateDocument / deleteDocuments 하고 commit() 때 검색에 보인다. reload 중에는 이전 세대를 그대로 검색한다.
+ *           검색기는 커밋된 색인만 읽으며, reload 가 실패하면 rollback() 으로 커밋하지 않은 쓰기를 버린다.
+ *
+ * 색인은 재시작 후에도 남으므로 매니페스트를 이어서 써 변경된 테이블만 다시 임베딩한다.
+ */
+public class LuceneEmbeddingStore implements EmbeddingStore<TextSegment>, MultiQuerySearch, HybridSearch {
+    private static final Logger logger = LoggerFactory.getLogger(LuceneEmbeddingStore.class);
+
+    private static final String ID = "id";
+    private static final String TEXT = "text";
+    private static final String VECTOR = "vector";
+    private static final String NAME = "name";
+    private static final String NAME_EXACT = "name_exact";
+
+    /** 필드 가중치 (TableTextIndex 와 같은 값) */
+    private static final float NAME_EXACT_WEIGHT = (float) TableTextIndex.NAME_EXACT_SCORE;
+    private static final float NAME_WEIGHT = (float) TableTextIndex.NAME_CONTAINS_SCORE;
+    private static final float COLUMN_WEIGHT = (float) TableTextIndex.COLUMN_SCORE;
+    private static final float COMMENT_WEIGHT = (float) TableTextIndex.COMMENT_SCORE;
+    private static final float REMARK_WEIGHT = (float) TableTextIndex.REMARK_SCORE;
+    /** 필드 일치 시 최소 점수 비율. 말뭉치가 작아 BM25 가 낮아도 필드 일치가 벡터 점수에 묻히지 않게 한다. */
+    private static final double MATCH_FLOOR = 0.8;
+    /** BM25 포화 상수. 희귀어 일치(s ~ 3) 는 0.75, 흔한 단어(s ~ 0.5) 는 0.33 을 남은 20% 에 곱한다. */
+    private static final double BM25_SATURATION = 1.0;
+
+    private final Path path;
+    private final Analyzer analyzer;
+    private final QueryBuilder queryBuilder;
+    private final Directory directory;
+    /** reload 스레드만 쓴다. rollback() 때 새 writer 로 바뀐다. */
+    private volatile IndexWriter writer;
+    private final SearcherManager searchers;
+    private final boolean loaded;
+
+    public LuceneEmbeddingStore(Path path) {
+        this.path = path;
+        this.analyzer = new PerFieldAnalyzerWrapper(new KoreanAnalyzer(), Map.of(
+                NAME, new IdentifierAnalyzer(),
+                FIELD_COLUMNS, new IdentifierAnalyzer()));
+        this.queryBuilder = new QueryBuilder(analyzer);
+        try {
+            Files.createDirectories(path);
+            this.directory = FSDirectory.open(path);
+            this.loaded = DirectoryReader.indexExists(directory);
+            this.writer = openWriter();
+            if (!loaded) {
+                // 검색기는 커밋된 색인만 열 수 있으므로 빈 색인을 먼저 커밋한다.
+                writer.commit();
+            }
+            this.searchers = new SearcherManager(directory, null);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open Lucene index at " + path, e);
+        }
+        if (loaded) {
+            logger.info("[Lucene] Opened index {} ({} documents)", path, size());
+        }
+    }
+
+    /** 기동 시 이미 커밋된 색인이 있었으면 true */
+    public boolean loaded() {
+        return loaded;
+    }
+
+    public int size() {
+        try {
+            IndexSearcher searcher = searchers.acquire();
+            try {
+                return searcher.getIndexReader().numDocs();
+            } finally {
+                searchers.release(searcher);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /** 쌓인 쓰기를 디스크에 커밋하고 검색에 반영한다. */
+    public void commit() {
+        try {
+            long started = System.nanoTime();
+            writer.commit();
+            searchers.maybeRefreshBlocking();
+            logger.info("[Lucene] Committed {} documents to {} in {} ms",
+                    size(), path, (System.nanoTime() - started) / 1_000_000);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to commit Lucene index at " + path, e);
+        }
+    }
+
+    /**
+     * 커밋하지 않은 쓰기를 모두 버리고 마지막 커밋 상태로 writer 를 다시 연다.
+     * reload 가 도중에 실패했을 때 호출해, 남은 추가/삭제가 다음 reload 의 commit() 에 섞여 기록되지 않게 한다.
+     */
+    public synchronized void rollback() {
+        try {
+            writer.rollback();
+            writer = openWriter();
+            logger.info("[Lucene] Discarded uncommitted changes in {} ({} documents)", path, size());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to roll back Lucene index at " + path, e);
+        }
+    }
+
+    private IndexWriter openWriter() throws IOException {
+        return new IndexWriter(directory, new IndexWriterConfig(analyzer)
+                .setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND));
+    }
+
+    @Override
+    public String add(Embedding embedding) {
+        String id = generateIds(1).get(0);
+        addAll(List.of(id), List.of(embedding), null);
+        return id;
+    }
+
+    @Override
+    public void add(String id, Embedding embedding) {
+        addAll(List.of(id), List.of(embedding), null);
+    }
+
+    @Override
+    public String add(Embedding embedding, TextSegment segment) {
+        String id = generateIds(1).get(0);
+        addAll(List.of(id), List.of(embedding), segment == null ? null : List.of(segment));
+        return id;
+    }
+
+    @Override
+    public List<String> addAll(List<Embedding> embeddings) {
+        List<String> ids = generateIds(embeddings.size());
+        addAll(ids, embeddings, null);
+        return ids;
+    }
+
+    @Override
+    public List<String> addAll(List<Embedding> embeddings, List<TextSegment> embedded) {
+        List<String> ids = generateIds(embeddings.size());
+        addAll(ids, embeddings, embedded);
+        return ids;
+    }
+
+    @Override
+    public void addAll(List<String> ids, List<Embedding> embeddings, List<TextSegment> embedded) {
+        try {
+            for (int i = 0; i < ids.size(); i++) {
+                String id = ids.get(i);
+                writer.updateDocument(new Term(ID, id),
+                        document(id, embeddings.get(i), embedded == null ? null : embedded.get(i)));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void removeAll(Collection<String> ids) {
+        try {
+            writer.deleteDocuments(ids.stream().map(id -> new Term(ID, id)).toArray(Term[]::new));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void removeAll() {
+        try {
+            writer.deleteAll();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public EmbeddingSearchResult<TextSegment> search(EmbeddingSearchRequest request) {
+        return new EmbeddingSearchResult<>(searchAll(List.of(request.queryEmbedding()),
+                request.maxResults(), request.minScore()).get(0));
+    }
+
+    @Override
+    public List<List<EmbeddingMatch<TextSegment>>> searchAll(List<Embedding> queries, int maxResults, double minScore) {
+        List<Query> knn = new ArrayList<>(queries.size());
+        for (Embedding query : queries) {
+            knn.add(new KnnFloatVectorQuery(VECTOR, query.vector(), maxResults));
+        }
+        return run(knn, maxResults, minScore);
+    }
+
+    @Override
+    public List<List<EmbeddingMatch<TextSegment>>> hybridSearchAll(List<String> keywords, List<Embedding> vectors,
+                                                                  int maxResults, double vectorWeight) {
+        List<Query> queries = new ArrayList<>(keywords.size());
+        for (int i = 0; i < keywords.size(); i++) {
+            List<Query> clauses = new ArrayList<>(6);
+            String keyword = keywords.get(i).trim().toLowerCase();
+            clauses.add(new BoostQuery(new ConstantScoreQuery(new TermQuery(new Term(NAME_EXACT, keyword))), NAME_EXACT_WEIGHT));
+            addField(clauses, NAME, keyword, NAME_WEIGHT);
+            addField(clauses, FIELD_COLUMNS, keyword, COLUMN_WEIGHT);
+            addField(clauses, FIELD_COMMENT, keyword, COMMENT_WEIGHT);
+            addField(clauses, FIELD_REMARKS, keyword, REMARK_WEIGHT);
+            Embedding vector = vectors.get(i);
+            if (vector != null) {
+                clauses.add(new BoostQuery(new KnnFloatVectorQuery(VECTOR, vector.vector(), maxResults), (float) vectorWeight));
+            }
+            queries.add(new DisjunctionMaxQuery(clauses, 0f));
+        }
+        return run(queries, maxResults, 0);
+    }
+
+    /** 필드 분석 결과로 BM25 질의를 만들고 [0.8 weight, weight) 로 포화시켜 추가한다. 분석 후 토큰이 없으면 추가하지 않는다. */
+    private void addField(List<Query> clauses, String field, String keyword, float weight) {
+        Query query = queryBuilder.createBooleanQuery(field, keyword);
+        if (query != null) {
+            clauses.add(new FunctionScoreQuery(query, new SaturatedScore(weight)));
+        }
+    }
+
+    /** 같은 검색기 시점으로 질의 전부를 실행한다. 결과는 queries 순서. */
+    private List<List<EmbeddingMatch<TextSegment>>> run(List<Query> queries, int maxResults, double minScore) {
+        try {
+            IndexSearcher searcher = searchers.acquire();
+            try {
+                StoredFields stored = searcher.storedFields();
+                List<List<EmbeddingMatch<TextSegment>>> results = new ArrayList<>(queries.size());
+                for (Query query : queries) {
+                    TopDocs top = searcher.search(query, Math.max(1, maxResults));
+                    List<EmbeddingMatch<TextSegment>> matches = new ArrayList<>(top.scoreDocs.length);
+                    for (ScoreDoc hit : top.scoreDocs) {
+                        if (hit.score < minScore) continue;
+                        Document doc = stored.document(hit.doc);
+                        String text = doc.get(TEXT);
+                        matches.add(new EmbeddingMatch<>((double) hit.score, doc.get(ID), null,
+                                text == null ? null : TextSegment.from(text)));
+                    }
+                    results.add(matches);
+                }
+                return results;
+            } finally {
+                searchers.release(searcher);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Document document(String id, Embedding embedding, TextSegment segment) {
+        Document doc = new Document();
+        doc.add(new StringField(ID, id, Field.Store.YES));
+        doc.add(new KnnFloatVectorField(VECTOR, embedding.vector(), VectorSimilarityFunction.COSINE));
+        if (segment == null) return doc;
+        doc.add(new StoredField(TEXT, segment.text()));
+        String tableName = Objects.requireNonNullElse(segment.metadata().getString(FIELD_TABLE_NAME), id);
+        doc.add(new StringField(NAME_EXACT, tableName.toLowerCase(), Field.Store.NO));
+        doc.add(new TextField(NAME, tableName, Field.Store.NO));
+        addText(doc, FIELD_COLUMNS, segment.metadata().getString(FIELD_COLUMNS));
+        addText(doc, FIELD_COMMENT, segment.metadata().getString(FIELD_COMMENT));
+        addText(doc, FIELD_REMARKS, segment.metadata().getString(FIELD_REMARKS));
+        return doc;
+    }
+
+    private static void addText(Document doc, String field, String value) {
+        if (value != null && !value.isBlank()) {
+            doc.add(new TextField(field, value, Field.Store.NO));
+        }
+    }
+
+    /** 테이블명/컬럼명 분석기: "TB_EQP_MST", "eqpStatus" 를 원형과 조각(tb, eqp, mst / eqp, status)으로 색인한다. */
+    private static final class IdentifierAnalyzer extends Analyzer {
+        private static final int FLAGS = WordDelimiterGraphFilter.GENERATE_WORD_PARTS
+                | WordDelimiterGraphFilter.GENERATE_NUMBER_PARTS
+                | WordDelimiterGraphFilter.SPLIT_ON_CASE_CHANGE
+                | WordDelimiterGraphFilter.PRESERVE_ORIGINAL;
+
+        @Override
+        protected TokenStreamComponents createComponents(String fieldName) {
+            Tokenizer tokenizer = new StandardTokenizer();
+            TokenStream stream = new WordDelimiterGraphFilter(tokenizer, FLAGS, null);
+            stream = new FlattenGraphFilter(stream);
+            return new TokenStreamComponents(tokenizer, new LowerCaseFilter(stream));
+        }
+    }
+
+    /** BM25 점수 s 를 weight * (MATCH_FLOOR + (1 - MATCH_FLOOR) * s / (s + BM25_SATURATION)) 로 바꾼다. */
+    private static final class SaturatedScore extends DoubleValuesSource {
+        private final double weight;
+
+        SaturatedScore(double weight) {
+            this.weight = weight;
+        }
+
+        @Override
+        public DoubleValues getValues(LeafReaderContext ctx, DoubleValues scores) {
+            return new DoubleValues() {
+                @Override
+                public double doubleValue() throws IOException {
+                    double s = scores.doubleValue();
+                    return weight * (MATCH_FLOOR + (1 - MATCH_FLOOR) * s / (s + BM25_SATURATION));
+                }
+
+                @Override
+                public boolean advanceExact(int doc) throws IOException {
+                    return scores.advanceExact(doc);
+                }
+            };
+        }
+
+        @Override
+        public boolean needsScores() {
+            return true;
+        }
+
+        @Override
+        public DoubleValuesSource rewrite(IndexSearcher searcher) {
+            return this;
+        }
+
+        @Override
+        public boolean isCacheable(LeafReaderContext ctx) {
+            return true;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof SaturatedScore other && other.weight == weight;
+        }
+
+        @Override
+        public int hashCode() {
+            return Double.hashCode(weight);
+        }
+
+        @Override
+        public String toString() {
+            return "saturated(score, " + weight + ")";
+        }
+    }
+}
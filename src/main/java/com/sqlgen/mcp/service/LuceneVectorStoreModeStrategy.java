@@ -0,0 +1,105 @@
+package com.sqlgen.mcp.service;
+
+import java.nio.file.Path;
+
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.embedding.EmbeddingModel;
+import dev.langchain4j.store.embedding.EmbeddingStore;
+
+@Component
+public class LuceneVectorStoreModeStrategy implements VectorStoreModeStrategy {
+    // lucene 모드는 local 과 같은 ONNX 임베딩을 쓰고, 테이블 필드 텍스트(BM25)와 벡터(kNN)를 같은 디스크 색인에 둔다.
+    // 하이브리드 검색은 키워드마다 Lucene 질의 한 건으로 텍스트와 벡터를 함께 검색한다 (HybridSearch).
+
+    private static final String PREFIX = "ai.vector-store.lucene";
+
+    // 기동 시 커밋된 색인이 있었을 때만 매니페스트를 이어서 쓴다 (없으면 전체 재인덱싱)
+    private volatile boolean tableIndexLoaded;
+
+    @Override
+    public String provider() {
+        return "lucene";
+    }
+
+    @Override
+    public String storeType() {
+        return "lucene";
+    }
+
+    @Override
+    public boolean persistentStore() {
+        return tableIndexLoaded;
+    }
+
+    @Override
+    public String storeIdentity(Environment env) {
+        return indexDir(env).toAbsolutePath().normalize().toString();
+    }
+
+    @Override
+    public long storedCount(EmbeddingStore<TextSegment> store) {
+        return store instanceof LuceneEmbeddingStore lucene ? lucene.size() : -1;
+    }
+
+    @Override
+    public EmbeddingModel createEmbeddingModel(Environment env) {
+        return LocalOnnxEmbeddingModel.create(env);
+    }
+
+    @Override
+    public EmbeddingStore<TextSegment> createTableStore(Environment env) {
+        LuceneEmbeddingStore store = new LuceneEmbeddingStore(indexDir(env));
+        tableIndexLoaded = store.loaded();
+        return store;
+    }
+
+    @Override
+    public EmbeddingStore<TextSegment> createExampleStore(Environment env) {
+        // SQL 예시는 벡터 검색만 하므로 인메모리 flat 저장소를 쓴다.
+        return new FlatVectorEmbeddingStore();
+    }
+
+    @Override
+    public EmbeddingStore<TextSegment> resetTableStore(EmbeddingStore<TextSegment> currentStore, Environment env) {
+        // 색인 디렉터리는 프로세스당 writer 하나만 열 수 있으므로 같은 저장소를 비워 쓴다 (commit 전까지 검색은 이전 내용).
+        tableIndexLoaded = false;
+        if (currentStore instanceof LuceneEmbeddingStore lucene) {
+            lucene.removeAll();
+            return lucene;
+        }
+        return createTableStore(env);
+    }
+
+    @Override
+    public EmbeddingStore<TextSegment> forkTableStore(EmbeddingStore<TextSegment> currentStore, Environment env) {
+        // 쓰기는 commit 전까지 검색에 보이지 않으므로 같은 인스턴스에 변경분을 반영해도 현재 세대가 바뀌지 않는다.
+        return currentStore instanceof LuceneEmbeddingStore ? currentStore : createTableStore(env);
+    }
+
+    @Override
+    public EmbeddingStore<TextSegment> resetExampleStore(EmbeddingStore<TextSegment> currentStore, Environment env) {
+        return new FlatVectorEmbeddingStore();
+    }
+
+    @Override
+    public void flushTableStore(EmbeddingStore<TextSegment> store) {
+        if (store instanceof LuceneEmbeddingStore lucene) {
+            lucene.commit();
+        }
+    }
+
+    @Override
+    public void discardTableStore(EmbeddingStore<TextSegment> store) {
+        // 같은 writer 를 다음 reload 도 쓰므로, 남은 쓰기가 다음 commit() 에 기록되지 않게 버린다.
+        if (store instanceof LuceneEmbeddingStore lucene) {
+            lucene.rollback();
+        }
+    }
+
+    private Path indexDir(Environment env) {
+        return Path.of(env.getProperty(PREFIX + ".index-dir", "data/lucene"));
+    }
+}
@@ -0,0 +1,20 @@
+package com.sqlgen.mcp.service;
+
+import java.util.List;
+
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.store.embedding.EmbeddingMatch;
+
+/**
+ * 질의 벡터 여러 개를 한 번에 검색할 수 있는 저장소.
+ * 인메모리 저장소는 행렬을 한 번 훑으며 모든 질의를 채점하고, 원격 저장소는 요청 한 건에 모든 질의를 담는다.
+ */
+interface MultiQuerySearch {
+
+    /**
+     * @param minScore EmbeddingSearchRequest.minScore 와 같은 [0, 1] 관련도
+     * @return queries 순서대로 질의별 결과 (점수 내림차순, 최대 maxResults 개)
+     */
+    List<List<EmbeddingMatch<TextSegment>>> searchAll(List<Embedding> queries, int maxResults, double minScore);
+}
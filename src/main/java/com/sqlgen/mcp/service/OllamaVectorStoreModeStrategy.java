@@ -0,0 +1,34 @@
+package com.sqlgen.mcp.service;
+
+import java.time.Duration;
+
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import dev.langchain4j.model.embedding.EmbeddingModel;
+import dev.langchain4j.model.ollama.OllamaEmbeddingModel;
+
+@Component
+public class OllamaVectorStoreModeStrategy extends RemoteEmbeddingVectorStoreModeStrategy {
+    // ollama 모드는 Ollama /api/embed 로 임베딩하고 저장소는 local 과 같은 인메모리 저장소를 쓴다.
+
+    @Override
+    public String provider() {
+        return "ollama";
+    }
+
+    @Override
+    protected String defaultModelName() {
+        return "nomic-embed-text";
+    }
+
+    @Override
+    protected EmbeddingModel createRemoteModel(Environment env, Duration timeout, int maxRetries) {
+        return OllamaEmbeddingModel.builder()
+                .baseUrl(env.getProperty(prefix() + ".base-url", "http://localhost:11434"))
+                .modelName(modelName(env))
+                .timeout(timeout)
+                .maxRetries(maxRetries)
+                .build();
+    }
+}
@@ -0,0 +1,222 @@
+package com.sqlgen.mcp.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.embedding.EmbeddingModel;
+
+/**
+ * 검색어 → 임베딩 LRU 캐시.
+ * 테이블 하이브리드 검색과 SQL 예시 검색이 같은 인스턴스를 공유하며, 크기(LRU)와 TTL 두 기준으로 만료한다.
+ * 에이전트가 반복해서 보내는 짧은 키워드("설비", "lot", "status" 등)의 ONNX 추론 비용을 줄이기 위한 것이다.
+ *
+ * 캐시 미스는 EmbeddingCoalescer 로 보내 동시에 들어온 다른 검색의 미스와 함께 embedAll 한 번으로 계산한다.
+ * 인덱싱과 사전 예열은 이미 큰 묶음이므로 모델을 직접 호출한다.
+ */
+@Component
+public class QueryEmbeddingCache {
+    private static final Logger logger = LoggerFactory.getLogger(QueryEmbeddingCache.class);
+
+    private record Entry(Embedding embedding, long createdAt) {}
+
+    private final KoreanQueryTranslator koreanTranslator;
+    private final int maxSize;
+    private final long ttlMillis;
+    private final boolean prewarmEnabled;
+    private final boolean coalesceEnabled;
+    private final long coalesceWindowMillis;
+    private final int coalesceMaxBatch;
+    private final int coalesceMaxInFlight;
+
+    /** access-order LinkedHashMap: 가장 오래 쓰이지 않은 항목부터 제거된다. */
+    private final LinkedHashMap<String, Entry> entries;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private volatile EmbeddingModel embeddingModel;
+    /** 캐시 미스 묶음 처리기. 비활성화 시 null */
+    private volatile EmbeddingCoalescer coalescer;
+
+    public QueryEmbeddingCache(KoreanQueryTranslator koreanTranslator,
+                               @Value("${ai.vector-store.query-cache.max-size:2000}") int maxSize,
+                               @Value("${ai.vector-store.query-cache.ttl-minutes:60}") long ttlMinutes,
+                               @Value("${ai.vector-store.query-cache.prewarm:true}") boolean prewarmEnabled,
+                               @Value("${ai.vector-store.query-cache.coalesce.enabled:true}") boolean coalesceEnabled,
+                               @Value("${ai.vector-store.query-cache.coalesce.window-ms:2}") long coalesceWindowMillis,
+                               @Value("${ai.vector-store.query-cache.coalesce.max-batch:32}") int coalesceMaxBatch,
+                               @Value("${ai.vector-store.query-cache.coalesce.max-in-flight:2}") int coalesceMaxInFlight) {
+        this.koreanTranslator = koreanTranslator;
+        this.coalesceEnabled = coalesceEnabled;
+        this.coalesceWindowMillis = coalesceWindowMillis;
+        this.coalesceMaxBatch = coalesceMaxBatch;
+        this.coalesceMaxInFlight = coalesceMaxInFlight;
+        this.maxSize = Math.max(1, maxSize);
+        this.ttlMillis = ttlMinutes <= 0 ? Long.MAX_VALUE : ttlMinutes * 60_000L;
+        this.prewarmEnabled = prewarmEnabled;
+        this.entries = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > QueryEmbeddingCache.this.maxSize;
+            }
+        };
+    }
+
+    /**
+     * 캐시가 사용할 임베딩 모델을 연결한다. 모델이 바뀌면 이전 벡터는 호환되지 않으므로 비운다.
+     * 사전 예열이 켜져 있으면 korean-dict.json 번역어를 백그라운드에서 미리 임베딩한다.
+     * 검색어 접두어(e5 의 "query: ")를 쓰는 로컬 모델이면 검색어 전용 모델로 임베딩한다.
+     */
+    public void bind(EmbeddingModel model) {
+        if (model == null) return;
+        EmbeddingModel queryModel = LocalOnnxEmbeddingModel.forQueries(model);
+        if (queryModel == this.embeddingModel) return;
+        synchronized (entries) {
+            entries.clear();
+        }
+        this.embeddingModel = queryModel;
+        EmbeddingCoalescer previous = coalescer;
+        coalescer = coalesceEnabled ? new EmbeddingCoalescer(queryModel, coalesceWindowMillis, coalesceMaxBatch, coalesceMaxInFlight) : null;
+        if (previous != null) previous.close();
+        if (prewarmEnabled) {
+            Thread.ofVirtual().name("query-embedding-prewarm").start(this::prewarm);
+        }
+    }
+
+    /** 캐시를 거쳐 검색어 임베딩을 반환한다. */
+    public Embedding embed(String query) {
+        long now = System.currentTimeMillis();
+        synchronized (entries) {
+            Entry cached = entries.get(query);
+            if (cached != null) {
+                if (now - cached.createdAt() < ttlMillis) {
+                    hits.increment();
+                    return cached.embedding();
+                }
+                entries.remove(query);
+            }
+        }
+        misses.increment();
+        // 추론은 락 밖에서 수행한다. 같은 키가 동시에 미스나면 중복 계산되지만 결과는 동일하다.
+        EmbeddingCoalescer batcher = coalescer;
+        Embedding embedding = batcher != null ? await(batcher.submit(query)) : embeddingModel.embed(query).content();
+        synchronized (entries) {
+            entries.put(query, new Entry(embedding, now));
+        }
+        return embedding;
+    }
+
+    /** 여러 검색어를 한 번에 임베딩한다. 캐시에 없는 검색어만 embedAll 한 번으로 계산한다. 결과는 queries 순서. */
+    public List<Embedding> embedAll(List<String> queries) {
+        long now = System.currentTimeMillis();
+        Embedding[] result = new Embedding[queries.size()];
+        List<Integer> missing = new ArrayList<>();
+        synchronized (entries) {
+            for (int i = 0; i < queries.size(); i++) {
+                Entry cached = entries.get(queries.get(i));
+                if (cached != null && now - cached.createdAt() < ttlMillis) {
+                    result[i] = cached.embedding();
+                } else {
+                    missing.add(i);
+                }
+            }
+        }
+        hits.add(queries.size() - missing.size());
+        misses.add(missing.size());
+        if (!missing.isEmpty()) {
+            List<Embedding> embeddings = computeAll(missing.stream().map(queries::get).toList());
+            synchronized (entries) {
+                for (int j = 0; j < missing.size(); j++) {
+                    int i = missing.get(j);
+                    result[i] = embeddings.get(j);
+                    entries.put(queries.get(i), new Entry(result[i], now));
+                }
+            }
+        }
+        return Arrays.asList(result);
+    }
+
+    /** 캐시 미스 검색어들을 임베딩한다. 묶음 처리기가 있으면 다른 요청의 미스와 합쳐 계산한다. */
+    private List<Embedding> computeAll(List<String> texts) {
+        EmbeddingCoalescer batcher = coalescer;
+        if (batcher == null) {
+            List<TextSegment> segments = new ArrayList<>(texts.size());
+            texts.forEach(t -> segments.add(TextSegment.from(t)));
+            return embeddingModel.embedAll(segments).content();
+        }
+        List<CompletableFuture<Embedding>> futures = texts.stream().map(batcher::submit).toList();
+        List<Embedding> embeddings = new ArrayList<>(futures.size());
+        for (CompletableFuture<Embedding> future : futures) {
+            embeddings.add(await(future));
+        }
+        return embeddings;
+    }
+
+    private static Embedding await(CompletableFuture<Embedding> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException re ? re : new IllegalStateException(e.getCause());
+        }
+    }
+
+    public Map<String, Object> stats() {
+        long h = hits.sum();
+        long m = misses.sum();
+        int size;
+        synchronized (entries) {
+            size = entries.size();
+        }
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("size", size);
+        stats.put("maxSize", maxSize);
+        stats.put("hits", h);
+        stats.put("misses", m);
+        stats.put("hitRate", h + m == 0 ? 0.0 : (double) h / (h + m));
+        EmbeddingCoalescer batcher = coalescer;
+        if (batcher != null) {
+            long batchCount = batcher.batchCount();
+            stats.put("coalescedBatches", batchCount);
+            stats.put("avgBatchSize", batchCount == 0 ? 0.0 : (double) batcher.itemCount() / batchCount);
+        }
+        return stats;
+    }
+
+    private void prewarm() {
+        EmbeddingModel model = this.embeddingModel;
+        List<String> terms = koreanTranslator.getDictionary().values().stream()
+                .map(String::trim)
+                .filter(v -> !v.isEmpty())
+                .distinct()
+                .limit(maxSize)
+                .toList();
+        if (terms.isEmpty()) return;
+        long started = System.currentTimeMillis();
+        try {
+            List<TextSegment> segments = new ArrayList<>(terms.size());
+            terms.forEach(t -> segments.add(TextSegment.from(t)));
+            List<Embedding> embeddings = model.embedAll(segments).content();
+            long now = System.currentTimeMillis();
+            synchronized (entries) {
+                for (int i = 0; i < terms.size(); i++) {
+                    entries.putIfAbsent(terms.get(i), new Entry(embeddings.get(i), now));
+                }
+            }
+            logger.info("[QueryCache] Pre-warmed {} dictionary terms in {} ms",
+                    terms.size(), System.currentTimeMillis() - started);
+        } catch (Exception e) {
+            logger.warn("[QueryCache] Pre-warm failed: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.sqlgen.mcp.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 하이브리드 검색 앞단의 질의 계획 단계.
+ *
+ *   1. 쉼표로 나눈 조각을 정규화(소문자, 따옴표 제거, 공백 압축)하고, 단어 집합이 같은 조각("customer order" / "order customer")은 하나로 합친다.
+ *   2. 한국어 조각은 조사를 떼고 복합명사를 나눈 정규형("설비상태를" → "설비 상태")으로 사전을 찾아 번역어를 텍스트 키워드로 추가하되, 벡터 질의는 원문과 번역어를 한 문장으로 합쳐 한 번만 만든다
+ *      (다국어 모델은 원문만 임베딩한다).
+ *   3. 테이블명과 정확히 일치하는 조각은 텍스트 점수(1.20)로 충분하므로 벡터 질의를 만들지 않는다.
+ *   4. 벡터 질의는 요청당 maxEmbeddings 개까지만 만든다. 나머지는 텍스트로만 찾는다.
+ *
+ * 조각은 입력 순서가 아니라 정규화한 문자열의 정렬 순서로 처리한다. SearchResultCache 키가 키워드를 정렬·중복 제거하므로,
+ * 같은 키가 되는 질의("a, b" / "b, a")는 예산을 넘더라도 같은 벡터 질의를 골라 같은 결과를 내야 한다.
+ */
+final class QueryPlanner {
+
+    private static final Logger logger = LoggerFactory.getLogger(QueryPlanner.class);
+    private static final Pattern QUOTES = Pattern.compile("[\"'`]");
+    private static final Pattern SPACES = Pattern.compile("\\s+");
+
+    /**
+     * @param textKeywords  텍스트 매칭/부스트 규칙에 쓰는 키워드 (원문 + 번역어, 중복 제거)
+     * @param vectorQueries 임베딩해 벡터 검색할 질의
+     */
+    record Plan(List<String> textKeywords, List<VectorQuery> vectorQueries) {
+
+        String[] keywords() {
+            return textKeywords.toArray(String[]::new);
+        }
+
+        List<String> vectorTexts() {
+            return vectorQueries.stream().map(VectorQuery::text).toList();
+        }
+    }
+
+    /**
+     * @param keyword 이 벡터 질의가 대표하는 텍스트 키워드 (원문 조각)
+     * @param text    임베딩할 문자열 (원문 + 번역어)
+     */
+    record VectorQuery(String keyword, String text) {}
+
+    private final KoreanQueryTranslator translator;
+    private final boolean multilingual;
+    private final int maxEmbeddings;
+
+    QueryPlanner(KoreanQueryTranslator translator, boolean multilingual, int maxEmbeddings) {
+        this.translator = translator;
+        this.multilingual = multilingual;
+        this.maxEmbeddings = maxEmbeddings;
+    }
+
+    Plan plan(String query, TableTextIndex index) {
+        Set<String> textKeywords = new LinkedHashSet<>();
+        Set<String> seenTerms = new HashSet<>();
+        Set<String> seenVectors = new HashSet<>();
+        List<VectorQuery> vectorQueries = new ArrayList<>();
+        List<String> exactTables = new ArrayList<>();
+        List<String> overBudget = new ArrayList<>();
+        for (String keyword : sortedKeywords(query)) {
+            if (!seenTerms.add(termKey(keyword))) continue;
+            textKeywords.add(keyword);
+
+            String translated = normalize(translator.translate(analyzed(index, keyword)));
+            boolean hasTranslation = !translated.isEmpty() && !translated.equals(keyword);
+            if (hasTranslation) {
+                textKeywords.add(translated);
+            }
+            if (index.containsTable(keyword)) {
+                exactTables.add(keyword);
+                continue;
+            }
+            String text = hasTranslation && !multilingual ? keyword + " " + translated : keyword;
+            if (!seenVectors.add(termKey(text))) continue;
+            if (maxEmbeddings > 0 && vectorQueries.size() >= maxEmbeddings) {
+                overBudget.add(keyword);
+                continue;
+            }
+            vectorQueries.add(new VectorQuery(keyword, text));
+        }
+        Plan plan = new Plan(List.copyOf(textKeywords), List.copyOf(vectorQueries));
+        if (!overBudget.isEmpty()) {
+            logger.info("[Planner] Embedding budget {} reached. Text-only keywords: {}", maxEmbeddings, overBudget);
+        }
+        if (logger.isDebugEnabled()) {
+            logger.debug("[Planner] '{}' → text={}, vector={}, exactTables={}, overBudget={}",
+                    query, plan.textKeywords(), plan.vectorTexts(), exactTables, overBudget);
+        }
+        return plan;
+    }
+
+    /** 쉼표로 나눈 조각을 정규화해 정렬·중복 제거한 집합 (빈 조각 제외) */
+    private static Set<String> sortedKeywords(String query) {
+        Set<String> keywords = new TreeSet<>();
+        for (String raw : query.split(",")) {
+            String keyword = normalize(raw);
+            if (!keyword.isEmpty()) keywords.add(keyword);
+        }
+        return keywords;
+    }
+
+    /** 한글 조각은 색인 분석기로 정규화한다. 한글이 없거나 분석 결과가 없으면 원문 그대로 */
+    private static String analyzed(TableTextIndex index, String keyword) {
+        if (!HangulAnalyzer.containsHangul(keyword)) return keyword;
+        String normalized = index.analyzer().normalize(keyword);
+        return normalized.isEmpty() ? keyword : normalized;
+    }
+
+    static String normalize(String keyword) {
+        if (keyword == null) return "";
+        String stripped = QUOTES.matcher(keyword).replaceAll(" ");
+        return SPACES.matcher(stripped.trim()).replaceAll(" ").toLowerCase();
+    }
+
+    /** 단어 순서와 중복을 무시한 비교 키 */
+    private static String termKey(String keyword) {
+        String[] terms = keyword.split(" ");
+        Arrays.sort(terms);
+        return String.join(" ", new LinkedHashSet<>(Arrays.asList(terms)));
+    }
+}
@@ -0,0 +1,53 @@
+package com.sqlgen.mcp.service;
+
+import java.time.Duration;
+
+import org.springframework.core.env.Environment;
+
+import dev.langchain4j.model.embedding.EmbeddingModel;
+import dev.langchain4j.model.embedding.onnx.allminilml6v2.AllMiniLmL6V2EmbeddingModel;
+
+/**
+ * 임베딩은 원격 HTTP 서버(ai.vector-store.providers.{provider})로 하고 저장소는 local 과 같은 인메모리 저장소를 쓰는 전략.
+ * 원격 호출은 ResilientEmbeddingModel 로 감싸 배치/동시성 제한/타임아웃/서킷 브레이커/로컬 대체를 적용한다.
+ * 연결은 모델 인스턴스의 HTTP 클라이언트 하나를 재사용한다 (keep-alive).
+ */
+abstract class RemoteEmbeddingVectorStoreModeStrategy extends LocalVectorStoreModeStrategy {
+
+    protected String prefix() {
+        return "ai.vector-store.providers." + provider();
+    }
+
+    /** model-name 을 설정하지 않았을 때 쓸 모델. null 이면 설정이 필수다. */
+    protected abstract String defaultModelName();
+
+    /**
+     * 원격 요청과 ResilientEmbeddingModel 이름(매니페스트/스냅샷 모델 id, 로컬 대체 호환 판단)에 같이 쓰는 모델명.
+     */
+    protected String modelName(Environment env) {
+        String modelName = env.getProperty(prefix() + ".model-name", defaultModelName() == null ? "" : defaultModelName());
+        if (modelName.isBlank()) {
+            throw new IllegalStateException(prefix() + ".model-name is required for provider " + provider());
+        }
+        return modelName;
+    }
+
+    /** langchain4j 원격 임베딩 모델 생성. 재시도는 서킷 브레이커가 판단하므로 maxRetries 는 설정값을 그대로 넘긴다. */
+    protected abstract EmbeddingModel createRemoteModel(Environment env, Duration timeout, int maxRetries);
+
+    @Override
+    public EmbeddingModel createEmbeddingModel(Environment env) {
+        String prefix = prefix();
+        Duration timeout = Duration.ofSeconds(env.getProperty(prefix + ".timeout-seconds", Long.class, 30L));
+        EmbeddingModel remote = createRemoteModel(env, timeout, env.getProperty(prefix + ".max-retries", Integer.class, 0));
+        boolean fallbackToLocal = env.getProperty(prefix + ".fallback-to-local", Boolean.class, true);
+        return new ResilientEmbeddingModel(
+                provider() + ":" + modelName(env),
+                remote,
+                fallbackToLocal ? AllMiniLmL6V2EmbeddingModel::new : null,
+                env.getProperty(prefix + ".batch-size", Integer.class, 32),
+                env.getProperty(prefix + ".max-concurrency", Integer.class, 4),
+                env.getProperty(prefix + ".circuit-breaker.failure-threshold", Integer.class, 3),
+                env.getProperty(prefix + ".circuit-breaker.open-seconds", Long.class, 30L) * 1000);
+    }
+}
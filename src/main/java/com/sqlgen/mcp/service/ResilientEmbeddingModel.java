@@ -0,0 +1,187 @@
+package com.sqlgen.mcp.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.embedding.EmbeddingModel;
+import dev.langchain4j.model.output.Response;
+
+/**
+ * 원격 임베딩 서버(Ollama / vLLM) 호출 래퍼.
+ *
+ *   - 배치: embedAll 을 batchSize 단위 요청으로 나누고, 동시에 maxConcurrency 개까지만 보낸다.
+ *   - 서킷 브레이커: 연속 failureThreshold 회 실패하면 openMillis 동안 원격 호출을 멈추고 즉시 실패(또는 대체)한다.
+ *     열림 시간이 지나면 (half-open) 요청 하나만 원격으로 보내 확인하고, 성공하면 닫고 실패하면 다시 연다.
+ *     확인 요청이 끝날 때까지 다른 요청은 열린 상태처럼 처리한다.
+ *   - 대체: 기동 시 원격에 닿지 못하면 프로세스 동안 로컬 ONNX 모델(all-MiniLM-L6-v2)을 쓴다.
+ *     기동 후 장애 시에는 원격이 같은 all-MiniLM 모델(이름에 all-minilm 포함, 384차원)일 때만 로컬로 대체한다.
+ *     다른 모델 벡터는 이미 만든 인덱스와 비교할 수 없으므로 대체하지 않고 실패를 돌려준다 (하이브리드 검색은 텍스트 점수로 진행).
+ *
+ * 로컬로 시작한 경우 modelName 이 달라지므로 다음 기동에서 원격이 살아 있으면 매니페스트가 전체를 다시 임베딩한다.
+ */
+final class ResilientEmbeddingModel implements EmbeddingModel {
+
+    private static final Logger logger = LoggerFactory.getLogger(ResilientEmbeddingModel.class);
+
+    /** all-MiniLM-L6-v2 출력 차원 */
+    static final int LOCAL_DIMENSION = 384;
+
+    private final String name;
+    private final EmbeddingModel remote;
+    private final Supplier<EmbeddingModel> fallbackFactory;
+    private final int batchSize;
+    private final Semaphore permits;
+    private final int failureThreshold;
+    private final long openMillis;
+
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    /** 서킷이 열린 시각 + openMillis. 0 이면 닫힘 */
+    private volatile long openUntil;
+    /** half-open 확인 요청을 보낸 호출이 있으면 true */
+    private final AtomicBoolean halfOpenProbe = new AtomicBoolean();
+    private volatile EmbeddingModel fallback;
+    /** 기동 시 원격 확인에 실패해 로컬 모델만 쓰는 상태 */
+    private final boolean localOnly;
+    private final int dimension;
+
+    /**
+     * @param fallbackFactory 로컬 모델 생성 (필요할 때 한 번만 호출). null 이면 대체하지 않는다.
+     */
+    ResilientEmbeddingModel(String name, EmbeddingModel remote, Supplier<EmbeddingModel> fallbackFactory,
+                            int batchSize, int maxConcurrency, int failureThreshold, long openMillis) {
+        this.name = name;
+        this.remote = remote;
+        this.fallbackFactory = fallbackFactory;
+        this.batchSize = Math.max(1, batchSize);
+        this.permits = new Semaphore(Math.max(1, maxConcurrency));
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.openMillis = openMillis;
+
+        int probed = probe();
+        this.localOnly = probed < 0 && fallbackFactory != null;
+        this.dimension = localOnly ? LOCAL_DIMENSION : probed;
+        if (localOnly) {
+            logger.warn("[Embedding] {} is unreachable. Using local ONNX model for this process.", name);
+        } else if (probed < 0) {
+            logger.warn("[Embedding] {} is unreachable and local fallback is disabled.", name);
+        } else {
+            logger.info("[Embedding] {} ready (dimension={}, batchSize={}, maxConcurrency={}, fallback={})",
+                    name, probed, this.batchSize, maxConcurrency, fallbackCompatible() ? "local" : "none");
+        }
+    }
+
+    @Override
+    public Response<List<Embedding>> embedAll(List<TextSegment> segments) {
+        if (localOnly) {
+            return fallback().embedAll(segments);
+        }
+        if (segments.size() <= batchSize) {
+            return Response.from(embedBatch(segments));
+        }
+        List<Embedding> embeddings = new ArrayList<>(segments.size());
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<List<Embedding>>> batches = new ArrayList<>();
+            for (int from = 0; from < segments.size(); from += batchSize) {
+                List<TextSegment> batch = segments.subList(from, Math.min(from + batchSize, segments.size()));
+                batches.add(executor.submit(() -> embedBatch(batch)));
+            }
+            for (Future<List<Embedding>> batch : batches) {
+                embeddings.addAll(batch.get());
+            }
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException re ? re : new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while embedding", e);
+        }
+        return Response.from(embeddings);
+    }
+
+    @Override
+    public int dimension() {
+        return dimension > 0 ? dimension : remote.dimension();
+    }
+
+    @Override
+    public String modelName() {
+        return localOnly ? "local-fallback:all-minilm-l6-v2" : name;
+    }
+
+    /** 서킷이 열려 있으면 (half-open 포함) true. 다음 성공 요청이 닫는다. */
+    boolean circuitOpen() {
+        return openUntil != 0;
+    }
+
+    private List<Embedding> embedBatch(List<TextSegment> batch) {
+        boolean probe = false;
+        long until = openUntil;
+        if (until != 0) {
+            // 열림 시간이 지났으면 CAS 에 성공한 호출 하나만 원격으로 보내고, 나머지는 열린 상태처럼 처리한다.
+            if (System.currentTimeMillis() < until || !halfOpenProbe.compareAndSet(false, true)) {
+                if (fallbackCompatible()) return fallback().embedAll(batch).content();
+                throw new IllegalStateException("Embedding endpoint " + name + " circuit is open");
+            }
+            probe = true;
+        }
+        permits.acquireUninterruptibly();
+        try {
+            List<Embedding> embeddings = remote.embedAll(batch).content();
+            consecutiveFailures.set(0);
+            if (probe) {
+                openUntil = 0;
+                logger.info("[Embedding] {} recovered. Circuit closed.", name);
+            }
+            return embeddings;
+        } catch (RuntimeException e) {
+            if (consecutiveFailures.incrementAndGet() >= failureThreshold || probe) {
+                openUntil = System.currentTimeMillis() + openMillis;
+                logger.warn("[Embedding] {} failed {} times in a row ({}). Circuit open for {} ms.",
+                        name, consecutiveFailures.get(), e.getMessage(), openMillis);
+            }
+            if (fallbackCompatible()) return fallback().embedAll(batch).content();
+            throw e;
+        } finally {
+            permits.release();
+            if (probe) halfOpenProbe.set(false);
+        }
+    }
+
+    /** 원격 모델로 한 건 임베딩해 차원을 확인한다. 실패하면 -1 */
+    private int probe() {
+        try {
+            return remote.embed("ping").content().vector().length;
+        } catch (RuntimeException e) {
+            logger.debug("[Embedding] {} probe failed: {}", name, e.getMessage());
+            return -1;
+        }
+    }
+
+    private boolean fallbackCompatible() {
+        return fallbackFactory != null && dimension == LOCAL_DIMENSION
+                && name.toLowerCase().replace('_', '-').contains("all-minilm");
+    }
+
+    private EmbeddingModel fallback() {
+        EmbeddingModel model = fallback;
+        if (model == null) {
+            synchronized (this) {
+                if (fallback == null) fallback = fallbackFactory.get();
+                model = fallback;
+            }
+        }
+        return model;
+    }
+}
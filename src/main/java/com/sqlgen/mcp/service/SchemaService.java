@@ -19,6 +19,7 @@ import java.nio.charset.StandardCharsets;
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -31,6 +32,10 @@ public class SchemaService {
     @Value("${db.schema-output-dir:docs/schema}")
     private String defaultOutputDir;
 
+    /** 전체 컬럼 일괄 조회의 JDBC fetch size (드라이버 기본값은 Oracle 10행 등으로 작아 왕복이 많다) */
+    @Value("${db.column-fetch-size:5000}")
+    private int columnFetchSize;
+
     public SchemaService(DataSource dataSource, VectorStoreService vectorStoreService) {
         this.dataSource = dataSource;
         this.vectorStoreService = vectorStoreService;
@@ -78,8 +83,10 @@ public class SchemaService {
 
     private boolean doExtractAndSave(DataSource ds, String outputDir, boolean reloadAfter) {
         try (Connection conn = ds.getConnection()) {
+            long started = System.nanoTime();
             String dbType = getDbType(conn);
             List<TableInfo> tables = new ArrayList<>();
+            Map<String, TableInfo> tablesByName = new LinkedHashMap<>();
             List<Map<String, String>> tableMaps = fetchTables(conn, dbType);
 
             for (Map<String, String> tableMap : tableMaps) {
@@ -89,21 +96,22 @@ public class SchemaService {
                 tableInfo.comment = tableMap.get("REMARK");
                 tableInfo.module = getModulePrefix(tableName);
                 tableInfo.fileName = tableInfo.module + "_SCHEMA.md";
-
-                List<Map<String, String>> columnMaps = fetchColumns(conn, dbType, tableName);
-                for (Map<String, String> colMap : columnMaps) {
-                    ColumnInfo col = new ColumnInfo();
-                    col.pos = colMap.get("POS");
-                    col.name = colMap.get("NAME");
-                    col.type = colMap.get("TYPE");
-                    col.len = colMap.get("LEN");
-                    col.pk = colMap.get("PK");
-                    col.nullable = colMap.get("NULLABLE");
-                    col.remark = colMap.get("REMARK");
-                    tableInfo.columns.add(col);
-                }
                 tables.add(tableInfo);
+                tablesByName.putIfAbsent(tableName, tableInfo);
             }
+            long tablesFetched = System.nanoTime();
+
+            // 전체 컬럼을 쿼리 한 번으로 읽는다. 일괄 SQL 이 없거나 실패하면 테이블별 조회로 대신한다.
+            int columnCount = fetchAllColumns(conn, dbType, tablesByName);
+            String mode = "bulk";
+            if (columnCount < 0) {
+                mode = "per-table";
+                columnCount = fetchColumnsPerTable(conn, dbType, tables);
+            }
+            long columnsFetched = System.nanoTime();
+            logger.info("[Schema] Extracted {} tables / {} columns in {} ms (tables {} ms, columns {} ms, {})",
+                    tables.size(), columnCount, (columnsFetched - started) / 1_000_000,
+                    (tablesFetched - started) / 1_000_000, (columnsFetched - tablesFetched) / 1_000_000, mode);
             save(tables, outputDir);
             if (reloadAfter) {
                 vectorStoreService.reload();
@@ -220,7 +228,65 @@ public class SchemaService {
         return list;
     }
 
-    private List<Map<String, String>> fetchColumns(Connection conn, String dbType, String tableName) throws SQLException {
+    /**
+     * 전체 테이블의 컬럼/PK/remark 를 쿼리 한 번으로 스트리밍하며 테이블별로 나눠 담는다.
+     * 목록에 없는 테이블(뷰 등)의 행은 건너뛴다.
+     * @return 담은 컬럼 수. 일괄 SQL 이 없거나 실행에 실패하면 -1 (테이블별 조회로 대신함)
+     */
+    private int fetchAllColumns(Connection conn, String dbType, Map<String, TableInfo> tablesByName) {
+        String fileName = switch (dbType) {
+            case "POSTGRES" -> "postgres_all_columns.sql";
+            case "ORACLE" -> "oracle_all_columns.sql";
+            case "MSSQL" -> "mssql_all_columns.sql";
+            default -> "";
+        };
+        if (fileName.isEmpty()) return -1;
+        String sql = loadSql(fileName);
+        if (sql.isEmpty()) return -1;
+
+        boolean autoCommit = true;
+        try {
+            // PostgreSQL 드라이버는 자동 커밋을 끈 상태에서만 fetch size 단위로 커서를 스트리밍한다.
+            autoCommit = conn.getAutoCommit();
+            if (autoCommit) conn.setAutoCommit(false);
+            int count = 0;
+            try (Statement stmt = conn.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                stmt.setFetchSize(columnFetchSize);
+                try (ResultSet rs = stmt.executeQuery(sql)) {
+                    // 테이블명 순으로 정렬돼 오므로 직전 테이블이면 조회를 생략한다.
+                    String currentName = null;
+                    TableInfo current = null;
+                    while (rs.next()) {
+                        String tableName = rs.getString("TABLE_NAME");
+                        if (currentName == null || !currentName.equals(tableName)) {
+                            currentName = tableName;
+                            current = tablesByName.get(tableName);
+                        }
+                        if (current == null) continue;
+                        current.columns.add(readColumn(rs));
+                        count++;
+                    }
+                }
+            }
+            return count;
+        } catch (SQLException e) {
+            logger.warn("[Schema] Bulk column query {} failed ({}). Falling back to per-table queries.", fileName, e.getMessage());
+            tablesByName.values().forEach(t -> t.columns.clear());
+            return -1;
+        } finally {
+            try {
+                if (autoCommit && !conn.getAutoCommit()) {
+                    conn.rollback();
+                    conn.setAutoCommit(true);
+                }
+            } catch (SQLException e) {
+                logger.warn("[Schema] Failed to restore auto-commit: {}", e.getMessage());
+            }
+        }
+    }
+
+    /** 테이블마다 컬럼을 조회한다. SQL 은 한 번 읽고 PreparedStatement 도 한 번만 준비해 재사용한다. */
+    private int fetchColumnsPerTable(Connection conn, String dbType, List<TableInfo> tables) throws SQLException {
         String fileName = switch (dbType) {
             case "POSTGRES" -> "postgres_columns.sql";
             case "ORACLE" -> "oracle_columns.sql";
@@ -228,26 +294,35 @@ public class SchemaService {
             default -> "";
         };
 
-        if (fileName.isEmpty()) return new ArrayList<>();
+        if (fileName.isEmpty()) return 0;
         String sql = loadSql(fileName);
 
-        List<Map<String, String>> list = new ArrayList<>();
+        int count = 0;
         try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setString(1, tableName);
-            try (ResultSet rs = pstmt.executeQuery()) {
-                while (rs.next()) {
-                    Map<String, String> map = new HashMap<>();
-                    map.put("POS", rs.getString("POS"));
-                    map.put("NAME", rs.getString("NAME"));
-                    map.put("TYPE", rs.getString("TYPE"));
-                    map.put("LEN", rs.getString("LEN") != null ? rs.getString("LEN") : "0");
-                    map.put("PK", rs.getString("PK"));
-                    map.put("NULLABLE", rs.getString("NULLABLE"));
-                    map.put("REMARK", rs.getString("REMARK") != null ? rs.getString("REMARK") : "");
-                    list.add(map);
+            for (TableInfo table : tables) {
+                pstmt.setString(1, table.tableName);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        table.columns.add(readColumn(rs));
+                        count++;
+                    }
                 }
             }
         }
-        return list;
+        return count;
+    }
+
+    private static ColumnInfo readColumn(ResultSet rs) throws SQLException {
+        ColumnInfo col = new ColumnInfo();
+        col.pos = rs.getString("POS");
+        col.name = rs.getString("NAME");
+        col.type = rs.getString("TYPE");
+        String len = rs.getString("LEN");
+        col.len = len != null ? len : "0";
+        col.pk = rs.getString("PK");
+        col.nullable = rs.getString("NULLABLE");
+        String remark = rs.getString("REMARK");
+        col.remark = remark != null ? remark : "";
+        return col;
     }
 }
@@ -0,0 +1,60 @@
+package com.sqlgen.mcp.service;
+
+import java.util.Arrays;
+
+/**
+ * 하이브리드 검색 한 건의 테이블 순번별 점수판.
+ * 순번 → 점수를 double[] 에, 점수가 기록된 순번을 비트셋과 목록에 둔다. 스레드마다 하나를 재사용하고,
+ * reset 은 직전 검색에서 기록된 칸만 지우므로 카탈로그 크기와 무관하게 비용이 후보 수에 비례한다.
+ */
+final class ScoreBoard {
+
+    private double[] scores = new double[0];
+    private long[] seen = new long[0];
+    private int[] touched = new int[0];
+    private int touchedCount;
+
+    /** 순번 범위 [0, capacity) 로 비운다. */
+    void reset(int capacity) {
+        if (scores.length < capacity) {
+            int size = Math.max(capacity, scores.length * 2);
+            scores = new double[size];
+            seen = new long[(size + 63) >>> 6];
+            touched = new int[Math.max(16, Math.min(size, 1024))];
+        } else {
+            for (int i = 0; i < touchedCount; i++) {
+                seen[touched[i] >>> 6] = 0L;
+            }
+        }
+        touchedCount = 0;
+    }
+
+    /** 기존 점수보다 높을 때만 기록한다 (같은 테이블의 여러 근거 중 최대값 사용). */
+    void max(int ordinal, double score) {
+        long bit = 1L << ordinal;
+        int word = ordinal >>> 6;
+        if ((seen[word] & bit) == 0) {
+            seen[word] |= bit;
+            scores[ordinal] = score;
+            if (touchedCount == touched.length) {
+                touched = Arrays.copyOf(touched, touchedCount * 2);
+            }
+            touched[touchedCount++] = ordinal;
+        } else if (score > scores[ordinal]) {
+            scores[ordinal] = score;
+        }
+    }
+
+    int touchedCount() {
+        return touchedCount;
+    }
+
+    /** i 번째로 기록된 순번 */
+    int touched(int i) {
+        return touched[i];
+    }
+
+    double score(int ordinal) {
+        return scores[ordinal];
+    }
+}
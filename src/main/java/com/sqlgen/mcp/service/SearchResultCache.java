@@ -0,0 +1,113 @@
+package com.sqlgen.mcp.service;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * search_tables / search_knowledge_base 결과 캐시.
+ * 키는 정규화한 키워드 집합(공백 제거·소문자·중복 제거·정렬) + maxResults + 인덱스 세대 + 메타데이터 버전이므로,
+ * reload 로 세대가 바뀌거나 tool-metadata 가 바뀌면 이전 항목은 더 이상 조회되지 않는다 (reload 시에는 바로 비운다).
+ * 크기(LRU)와 TTL 두 기준으로 만료하며, 적중 시 원래 검색에 걸렸던 시간을 절약 시간으로 누적한다.
+ */
+@Component
+public class SearchResultCache {
+
+    record Key(String keywords, int maxResults, long generation, long metadataVersion) {}
+
+    private record Entry(List<String> results, long createdAt, long computeNanos) {}
+
+    private final boolean enabled;
+    private final int maxSize;
+    private final long ttlMillis;
+
+    /** access-order LinkedHashMap: 가장 오래 쓰이지 않은 항목부터 제거된다. */
+    private final LinkedHashMap<Key, Entry> entries;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder savedNanos = new LongAdder();
+
+    public SearchResultCache(@Value("${ai.vector-store.result-cache.enabled:true}") boolean enabled,
+                             @Value("${ai.vector-store.result-cache.max-size:500}") int maxSize,
+                             @Value("${ai.vector-store.result-cache.ttl-minutes:10}") long ttlMinutes) {
+        this.enabled = enabled;
+        this.maxSize = Math.max(1, maxSize);
+        this.ttlMillis = ttlMinutes <= 0 ? Long.MAX_VALUE : ttlMinutes * 60_000L;
+        this.entries = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                return size() > SearchResultCache.this.maxSize;
+            }
+        };
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /** 쉼표로 나눈 키워드를 정규화해 캐시 키를 만든다. 순서와 대소문자, 중복이 달라도 같은 키가 된다. */
+    Key key(String query, int maxResults, long generation, long metadataVersion) {
+        TreeSet<String> keywords = new TreeSet<>();
+        Arrays.stream(query.split(","))
+                .map(k -> k.trim().toLowerCase())
+                .filter(k -> !k.isEmpty())
+                .forEach(keywords::add);
+        return new Key(String.join(",", keywords), maxResults, generation, metadataVersion);
+    }
+
+    /** 캐시된 결과. 없거나 만료됐으면 null */
+    List<String> get(Key key) {
+        if (!enabled) return null;
+        long now = System.currentTimeMillis();
+        synchronized (entries) {
+            Entry cached = entries.get(key);
+            if (cached != null) {
+                if (now - cached.createdAt() < ttlMillis) {
+                    hits.increment();
+                    savedNanos.add(cached.computeNanos());
+                    return cached.results();
+                }
+                entries.remove(key);
+            }
+        }
+        misses.increment();
+        return null;
+    }
+
+    void put(Key key, List<String> results, long computeNanos) {
+        if (!enabled) return;
+        synchronized (entries) {
+            entries.put(key, new Entry(List.copyOf(results), System.currentTimeMillis(), computeNanos));
+        }
+    }
+
+    void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    public Map<String, Object> stats() {
+        long h = hits.sum();
+        long m = misses.sum();
+        int size;
+        synchronized (entries) {
+            size = entries.size();
+        }
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("size", size);
+        stats.put("maxSize", maxSize);
+        stats.put("hits", h);
+        stats.put("misses", m);
+        stats.put("hitRate", h + m == 0 ? 0.0 : (double) h / (h + m));
+        stats.put("savedMs", savedNanos.sum() / 1_000_000);
+        return stats;
+    }
+}
@@ -0,0 +1,52 @@
+package com.sqlgen.mcp.service;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * jdk.incubator.vector 기반 내적 계산. VectorOps 에서 모듈이 있을 때만 로드된다.
+ */
+final class SimdVectorOps {
+
+    private static final VectorSpecies<Float> SPECIES = FloatVector.SPECIES_PREFERRED;
+    // int8 → float 변환은 바이트 8개를 float 8개로 넓히므로 크기를 고정한다.
+    private static final VectorSpecies<Byte> BYTE_SPECIES = ByteVector.SPECIES_64;
+    private static final VectorSpecies<Float> WIDENED_SPECIES = FloatVector.SPECIES_256;
+
+    private SimdVectorOps() {}
+
+    static float dot(float[] a, int aOffset, float[] b, int bOffset, int length) {
+        FloatVector acc = FloatVector.zero(SPECIES);
+        int i = 0;
+        int upper = SPECIES.loopBound(length);
+        for (; i < upper; i += SPECIES.length()) {
+            FloatVector va = FloatVector.fromArray(SPECIES, a, aOffset + i);
+            FloatVector vb = FloatVector.fromArray(SPECIES, b, bOffset + i);
+            acc = va.fma(vb, acc);
+        }
+        float sum = acc.reduceLanes(VectorOperators.ADD);
+        for (; i < length; i++) {
+            sum += a[aOffset + i] * b[bOffset + i];
+        }
+        return sum;
+    }
+
+    static float dotInt8(float[] q, byte[] codes, int offset, int length) {
+        FloatVector acc = FloatVector.zero(WIDENED_SPECIES);
+        int i = 0;
+        int upper = WIDENED_SPECIES.loopBound(length);
+        for (; i < upper; i += WIDENED_SPECIES.length()) {
+            FloatVector vq = FloatVector.fromArray(WIDENED_SPECIES, q, i);
+            FloatVector vc = (FloatVector) ByteVector.fromArray(BYTE_SPECIES, codes, offset + i)
+                    .convertShape(VectorOperators.B2F, WIDENED_SPECIES, 0);
+            acc = vq.fma(vc, acc);
+        }
+        float sum = acc.reduceLanes(VectorOperators.ADD);
+        for (; i < length; i++) {
+            sum += q[i] * codes[offset + i];
+        }
+        return sum;
+    }
+}
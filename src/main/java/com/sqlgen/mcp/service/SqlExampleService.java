@@ -1,6 +1,8 @@
 package com.sqlgen.mcp.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.sqlgen.mcp.model.SqlExample;
+import dev.langchain4j.data.embedding.Embedding;
 import dev.langchain4j.data.segment.TextSegment;
 import dev.langchain4j.model.embedding.EmbeddingModel;
 import dev.langchain4j.store.embedding.EmbeddingMatch;
@@ -9,8 +11,12 @@ import dev.langchain4j.store.embedding.EmbeddingStore;
 import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.core.env.Environment;
 import org.springframework.stereotype.Service;
 
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.Instant;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
@@ -21,22 +27,41 @@ public class SqlExampleService {
     private static final Logger logger = LoggerFactory.getLogger(SqlExampleService.class);
 
     private static final String ID_PREFIX = "[SQLEXAMPLE_ID:";
+    private static final String EXAMPLE_SNAPSHOT = "examples";
+    /** 저장소에 있지만 본문 해시를 모르는 예시 (매니페스트 없이 기동). 다음 재인덱싱에서 교체된다. */
+    private static final String UNKNOWN_HASH = "";
+
+    /** 예시 임베딩 스냅샷 메타데이터 (examples.json). hashes 순서대로 벡터가 같은 vectorStamp 의 examples.vec 에 있다. */
+    private record ExampleSnapshot(int formatVersion, String model, long vectorStamp, List<String> hashes) {}
 
     private final SqlExampleStore exampleStore;
     private final VectorStoreService vectorStoreService;
     private final VectorStoreModeResolver modeResolver;
+    private final QueryEmbeddingCache queryEmbeddingCache;
+    private final ObjectMapper objectMapper;
 
     private EmbeddingStore<TextSegment> embeddingStore;
     private EmbeddingModel embeddingModel;
     private VectorStoreModeStrategy modeStrategy;
+    /** 예시 저장소별 id → 본문 해시 기록. 인메모리 저장소면 디스크에 쓰지 않는다. */
+    private TableIndexManifest manifest;
+    /** 기동 후 저장소의 기존 내용을 indexedHashes 로 가져왔으면 true */
+    private boolean storeSynced;
 
     private final Map<String, SqlExample> indexedExamples = new ConcurrentHashMap<>();
+    /** 저장소에 반영된 예시 id → 임베딩 본문 해시. 예시 id 를 저장소 id 로 쓰므로 바뀐 예시만 교체한다. */
+    private final Map<String, String> indexedHashes = new HashMap<>();
+    /** 임베딩 본문 해시 → 벡터. 본문이 같은 예시는 재기동/재인덱싱 시 다시 임베딩하지 않는다. */
+    private final Map<String, float[]> vectorsByTextHash = new ConcurrentHashMap<>();
 
     public SqlExampleService(SqlExampleStore exampleStore, VectorStoreService vectorStoreService,
-                             VectorStoreModeResolver modeResolver) {
+                             VectorStoreModeResolver modeResolver, QueryEmbeddingCache queryEmbeddingCache,
+                             ObjectMapper objectMapper) {
         this.exampleStore = exampleStore;
         this.vectorStoreService = vectorStoreService;
         this.modeResolver = modeResolver;
+        this.queryEmbeddingCache = queryEmbeddingCache;
+        this.objectMapper = objectMapper;
     }
 
     @PostConstruct
@@ -46,31 +71,154 @@ public class SqlExampleService {
         this.embeddingModel = vectorStoreService.getEmbeddingModel();
         logger.info("[SqlExamples] Using provider={} via strategy={}",
                 modeStrategy.provider(), modeStrategy.getClass().getSimpleName());
-        this.embeddingStore = modeStrategy.createExampleStore(vectorStoreService.getEnvironment());
+        Environment env = vectorStoreService.getEnvironment();
+        this.embeddingStore = modeStrategy.createExampleStore(env);
+        this.manifest = new TableIndexManifest(objectMapper, new File(env.getProperty("db.schema-output-dir", "docs/schema")),
+                modeStrategy.provider() + "-examples", modeStrategy.exampleStoreIdentity(env));
+        loadSnapshot();
         reindexAll();
     }
 
-    private void reindexAll() {
+    /**
+     * 전체 예시를 저장소와 맞춘다. 본문이 바뀐 예시만 id 로 교체하고 사라진 예시는 id 로 지운다.
+     * 기동 후 첫 호출은 syncWithStore 로 저장소의 기존 내용에서 시작하므로, 재기동해도 저장소를 비우지 않는다.
+     */
+    private synchronized void reindexAll() {
         if (embeddingModel == null) {
             logger.warn("[SqlExamples] EmbeddingModel not ready, skipping reindex");
             return;
         }
-        indexedExamples.clear();
-
-        embeddingStore = modeStrategy.resetExampleStore(embeddingStore, vectorStoreService.getEnvironment());
+        if (!storeSynced) {
+            syncWithStore();
+            storeSynced = true;
+        }
 
         List<SqlExample> all = exampleStore.getAll();
-        for (SqlExample ex : all) {
-            embedAndIndex(ex);
+        Set<String> liveIds = all.stream().map(SqlExample::getId).collect(Collectors.toSet());
+        List<String> removed = indexedHashes.keySet().stream().filter(id -> !liveIds.contains(id)).toList();
+        if (!removed.isEmpty()) {
+            embeddingStore.removeAll(removed);
+            removed.forEach(indexedHashes::remove);
         }
-        logger.info("[SqlExamples] Indexed {} examples", all.size());
+        indexedExamples.keySet().retainAll(liveIds);
+
+        int[] counts = upsert(all);
+        vectorsByTextHash.keySet().retainAll(new HashSet<>(indexedHashes.values()));
+        logger.info("[SqlExamples] Indexed {} examples ({} updated, {} reused from snapshot, {} removed)",
+                all.size(), counts[0], counts[1], removed.size());
+        manifest.replace(indexedHashes);
+        saveSnapshot();
     }
 
-    private void embedAndIndex(SqlExample ex) {
-        String text = buildEmbedText(ex);
-        TextSegment segment = TextSegment.from(text);
-        embeddingStore.add(embeddingModel.embed(segment).content(), segment);
-        indexedExamples.put(ex.getId(), ex);
+    /**
+     * 영구 예시 저장소(chroma)의 기존 내용을 indexedHashes 로 가져온다. 인메모리 저장소는 기동마다 비어 있으므로 할 일이 없다.
+     *
+     * 매니페스트가 모델/저장소/행 수와 맞으면 그 id → 해시로 시작해 바뀐 예시만 교체한다.
+     * 맞지 않으면 (첫 기동, 모델 변경, id 없이 들어간 이전 데이터) 저장소의 id 를 해시 미상으로 등록해,
+     * 살아 있는 예시는 다시 넣고 나머지는 id 로 지운다. 컬렉션을 통째로 비우지 않으므로 다른 인스턴스가 빈 컬렉션을 보지 않는다.
+     */
+    private void syncWithStore() {
+        Environment env = vectorStoreService.getEnvironment();
+        if (modeStrategy.exampleStoreIdentity(env) == null) return;
+        manifest.load(vectorStoreService.embeddingModelId(), modeStrategy.storedCount(embeddingStore));
+        if (!manifest.isEmpty()) {
+            indexedHashes.putAll(manifest.hashes());
+            return;
+        }
+        Collection<String> storedIds = modeStrategy.storedIds(embeddingStore);
+        if (storedIds == null) {
+            logger.warn("[SqlExamples] Stored example ids unavailable. Clearing the example store before indexing.");
+            embeddingStore = modeStrategy.resetExampleStore(embeddingStore, env);
+            return;
+        }
+        storedIds.forEach(id -> indexedHashes.put(id, UNKNOWN_HASH));
+        logger.info("[SqlExamples] No usable example manifest. Reconciling {} stored rows by id", storedIds.size());
+    }
+
+    /**
+     * 본문이 바뀐 예시만 embedAll 로 임베딩해 예시 id 로 교체한다. 스냅샷에 같은 본문의 벡터가 있으면 재사용한다.
+     * @return {교체한 예시 수, 그중 스냅샷 벡터를 재사용한 수}
+     */
+    private int[] upsert(List<SqlExample> examples) {
+        List<String> ids = new ArrayList<>();
+        List<String> hashes = new ArrayList<>();
+        List<TextSegment> segments = new ArrayList<>();
+        for (SqlExample ex : examples) {
+            indexedExamples.put(ex.getId(), ex);
+            String text = buildEmbedText(ex);
+            String hash = TableIndexManifest.hash(text);
+            if (hash.equals(indexedHashes.get(ex.getId()))) continue;
+            ids.add(ex.getId());
+            hashes.add(hash);
+            segments.add(TextSegment.from(text));
+        }
+        if (ids.isEmpty()) return new int[] {0, 0};
+
+        List<TextSegment> toEmbed = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i++) {
+            if (!vectorsByTextHash.containsKey(hashes.get(i))) toEmbed.add(segments.get(i));
+        }
+        Iterator<Embedding> fresh = toEmbed.isEmpty()
+                ? Collections.emptyIterator()
+                : embeddingModel.embedAll(toEmbed).content().iterator();
+        List<Embedding> embeddings = new ArrayList<>(ids.size());
+        for (String hash : hashes) {
+            float[] cached = vectorsByTextHash.get(hash);
+            Embedding embedding = cached != null ? new Embedding(cached) : fresh.next();
+            vectorsByTextHash.put(hash, embedding.vector());
+            embeddings.add(embedding);
+        }
+        // 이미 들어 있던 id 는 먼저 지우고 같은 id 로 다시 넣는다 (chroma 는 묶음 요청으로 나뉜다).
+        List<String> replaced = ids.stream().filter(indexedHashes::containsKey).toList();
+        if (!replaced.isEmpty()) {
+            embeddingStore.removeAll(replaced);
+        }
+        embeddingStore.addAll(ids, embeddings, segments);
+        for (int i = 0; i < ids.size(); i++) {
+            indexedHashes.put(ids.get(i), hashes.get(i));
+        }
+        return new int[] {ids.size(), ids.size() - toEmbed.size()};
+    }
+
+    private void loadSnapshot() {
+        Path dir = IndexSnapshot.directory(vectorStoreService.getEnvironment());
+        Path json = dir.resolve(EXAMPLE_SNAPSHOT + ".json");
+        if (embeddingModel == null || !IndexSnapshot.enabled(vectorStoreService.getEnvironment()) || !Files.exists(json)) {
+            return;
+        }
+        try {
+            ExampleSnapshot snapshot = objectMapper.readValue(json.toFile(), ExampleSnapshot.class);
+            if (snapshot.formatVersion() != IndexSnapshot.FORMAT_VERSION
+                    || !vectorStoreService.embeddingModelId().equals(snapshot.model())) {
+                return;
+            }
+            IndexSnapshot.Vectors vectors = IndexSnapshot.mapVectors(dir.resolve(EXAMPLE_SNAPSHOT + ".vec"), snapshot.vectorStamp());
+            if (vectors == null || vectors.count() != snapshot.hashes().size()) return;
+            for (int i = 0; i < vectors.count(); i++) {
+                vectorsByTextHash.put(snapshot.hashes().get(i), vectors.row(i));
+            }
+            logger.info("[SqlExamples] Loaded {} example vectors from snapshot", vectors.count());
+        } catch (Exception e) {
+            logger.warn("[SqlExamples] Snapshot load failed: {}", e.getMessage());
+        }
+    }
+
+    private void saveSnapshot() {
+        if (!IndexSnapshot.enabled(vectorStoreService.getEnvironment()) || vectorsByTextHash.isEmpty()) return;
+        Path dir = IndexSnapshot.directory(vectorStoreService.getEnvironment());
+        try {
+            List<String> hashes = new ArrayList<>();
+            List<float[]> rows = new ArrayList<>();
+            vectorsByTextHash.forEach((hash, vector) -> {
+                hashes.add(hash);
+                rows.add(vector);
+            });
+            long vectorStamp = IndexSnapshot.writeVectors(dir.resolve(EXAMPLE_SNAPSHOT + ".vec"), rows, rows.get(0).length);
+            IndexSnapshot.writeJson(objectMapper, dir.resolve(EXAMPLE_SNAPSHOT + ".json"),
+                    new ExampleSnapshot(IndexSnapshot.FORMAT_VERSION, vectorStoreService.embeddingModelId(), vectorStamp, hashes));
+        } catch (Exception e) {
+            logger.warn("[SqlExamples] Snapshot save failed: {}", e.getMessage());
+        }
     }
 
     private String buildEmbedText(SqlExample ex) {
@@ -104,7 +252,11 @@ public class SqlExampleService {
         SqlExample ex = SqlExample.create(title, description, sql, category, tags);
         exampleStore.save(ex);
         if (embeddingModel != null) {
-            embedAndIndex(ex);
+            synchronized (this) {
+                upsert(List.of(ex));
+                manifest.replace(indexedHashes);
+                saveSnapshot();
+            }
         }
         return ex;
     }
@@ -141,7 +293,7 @@ public class SqlExampleService {
         }
 
         EmbeddingSearchRequest req = EmbeddingSearchRequest.builder()
-            .queryEmbedding(embeddingModel.embed(query).content())
+            .queryEmbedding(queryEmbeddingCache.embed(query))
             .maxResults(Math.min(maxResults, 20))
             .minScore(0.25)
             .build();
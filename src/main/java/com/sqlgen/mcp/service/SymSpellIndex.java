@@ -0,0 +1,171 @@
+package com.sqlgen.mcp.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 테이블명/컬럼명 오타 허용 조회용 symmetric-delete (SymSpell) 색인.
+ *
+ * reload 시점에 각 이름의 앞 PREFIX_LENGTH 글자에서 maxDistance 글자까지 지운 문자열을 모두 만들어 이름 번호에 연결해 둔다.
+ * 검색어도 같은 방식으로 지운 문자열만 조회하므로, 이름 수와 상관없이 검색어 하나당 조회 수가 일정하다
+ * (7글자, 거리 2 기준 최대 29회). 후보는 전체 문자열의 편집 거리(인접 전치 포함)로 확인한다.
+ *
+ * 예) "eqp_staus" → eqp_status (거리 1), "eqp_stauts" → eqp_status (전치, 거리 1)
+ */
+final class SymSpellIndex {
+
+    /** 삭제 문자열을 만드는 접두사 길이. 길수록 후보가 정확해지고 색인이 커진다. */
+    static final int PREFIX_LENGTH = 7;
+    /** 이보다 짧은 검색어는 오타 조회를 하지 않는다 (짧은 이름끼리는 거리 1 도 다른 단어인 경우가 많다). */
+    private static final int MIN_LENGTH = 4;
+    /** 이 길이 이하 검색어는 거리 1 까지만 허용한다. */
+    private static final int SHORT_LENGTH = 5;
+
+    @FunctionalInterface
+    interface TermConsumer {
+        /**
+         * @param tables   이 이름을 테이블명으로 가진 테이블 순번 (없으면 null)
+         * @param columns  이 이름을 컬럼명으로 가진 테이블 순번 (없으면 null)
+         * @param distance 검색어와의 편집 거리 (1 이상)
+         */
+        void accept(int[] tables, int[] columns, int distance);
+    }
+
+    private final int maxDistance;
+    private final String[] terms;
+    private final int[][] tableOrdinals;
+    private final int[][] columnOrdinals;
+    private final Map<String, int[]> deletes;
+
+    private SymSpellIndex(int maxDistance, String[] terms, int[][] tableOrdinals, int[][] columnOrdinals,
+                          Map<String, int[]> deletes) {
+        this.maxDistance = maxDistance;
+        this.terms = terms;
+        this.tableOrdinals = tableOrdinals;
+        this.columnOrdinals = columnOrdinals;
+        this.deletes = deletes;
+    }
+
+    /**
+     * @param names   테이블 순번별 테이블명 (소문자)
+     * @param columns 테이블 순번별 컬럼명 목록 (소문자, 공백 구분)
+     */
+    static SymSpellIndex build(String[] names, String[] columns, int maxDistance) {
+        Map<String, TableTextIndex.IntList[]> postings = new LinkedHashMap<>();
+        for (int ord = 0; ord < names.length; ord++) {
+            add(postings, names[ord], 0, ord);
+            for (String column : columns[ord].split(" ")) {
+                if (!column.isEmpty()) add(postings, column, 1, ord);
+            }
+        }
+        int n = postings.size();
+        String[] terms = new String[n];
+        int[][] tableOrdinals = new int[n][];
+        int[][] columnOrdinals = new int[n][];
+        Map<String, TableTextIndex.IntList> deleteLists = new HashMap<>();
+        int id = 0;
+        for (Map.Entry<String, TableTextIndex.IntList[]> e : postings.entrySet()) {
+            String term = e.getKey();
+            terms[id] = term;
+            tableOrdinals[id] = e.getValue()[0] == null ? null : e.getValue()[0].toArray();
+            columnOrdinals[id] = e.getValue()[1] == null ? null : e.getValue()[1].toArray();
+            for (String delete : deletesOf(prefix(term), maxDistance)) {
+                deleteLists.computeIfAbsent(delete, k -> new TableTextIndex.IntList()).addDistinct(id);
+            }
+            id++;
+        }
+        Map<String, int[]> deletes = new HashMap<>(deleteLists.size() * 2);
+        deleteLists.forEach((k, v) -> deletes.put(k, v.toArray()));
+        return new SymSpellIndex(maxDistance, terms, tableOrdinals, columnOrdinals, deletes);
+    }
+
+    private static void add(Map<String, TableTextIndex.IntList[]> postings, String term, int kind, int ord) {
+        TableTextIndex.IntList[] lists = postings.computeIfAbsent(term, k -> new TableTextIndex.IntList[2]);
+        if (lists[kind] == null) lists[kind] = new TableTextIndex.IntList();
+        lists[kind].addDistinct(ord);
+    }
+
+    /** 삭제 문자열 수 (메모리 사용량 확인용) */
+    int deleteCount() {
+        return deletes.size();
+    }
+
+    /** 편집 거리 1 ~ maxDistance 인 이름마다 consumer 를 한 번 호출한다. 정확히 같은 이름은 제외한다. */
+    void lookup(String keyword, TermConsumer consumer) {
+        int length = keyword.length();
+        if (length < MIN_LENGTH || keyword.indexOf(' ') >= 0) return;
+        int limit = length <= SHORT_LENGTH ? Math.min(1, maxDistance) : maxDistance;
+        if (limit <= 0) return;
+        Set<Integer> checked = new HashSet<>();
+        for (String delete : deletesOf(prefix(keyword), limit)) {
+            int[] ids = deletes.get(delete);
+            if (ids == null) continue;
+            for (int id : ids) {
+                if (!checked.add(id)) continue;
+                String term = terms[id];
+                if (Math.abs(term.length() - length) > limit) continue;
+                int distance = distance(keyword, term, limit);
+                if (distance > 0 && distance <= limit) {
+                    consumer.accept(tableOrdinals[id], columnOrdinals[id], distance);
+                }
+            }
+        }
+    }
+
+    private static String prefix(String term) {
+        return term.length() > PREFIX_LENGTH ? term.substring(0, PREFIX_LENGTH) : term;
+    }
+
+    /** term 과 term 에서 1 ~ distance 글자를 지운 문자열 */
+    private static Set<String> deletesOf(String term, int distance) {
+        Set<String> out = new HashSet<>();
+        out.add(term);
+        List<String> frontier = List.of(term);
+        for (int d = 0; d < distance; d++) {
+            List<String> next = new ArrayList<>();
+            for (String s : frontier) {
+                for (int i = 0; i < s.length(); i++) {
+                    String deleted = s.substring(0, i) + s.substring(i + 1);
+                    if (out.add(deleted)) next.add(deleted);
+                }
+            }
+            frontier = next;
+        }
+        return out;
+    }
+
+    /**
+     * 인접 전치를 포함한 편집 거리 (optimal string alignment).
+     * @return limit 을 넘으면 limit + 1
+     */
+    static int distance(String a, String b, int limit) {
+        int n = a.length(), m = b.length();
+        int[] prev2 = new int[m + 1];
+        int[] prev = new int[m + 1];
+        int[] cur = new int[m + 1];
+        for (int j = 0; j <= m; j++) prev[j] = j;
+        for (int i = 1; i <= n; i++) {
+            cur[0] = i;
+            int rowMin = cur[0];
+            char ca = a.charAt(i - 1);
+            for (int j = 1; j <= m; j++) {
+                char cb = b.charAt(j - 1);
+                int cost = ca == cb ? 0 : 1;
+                int v = Math.min(Math.min(prev[j] + 1, cur[j - 1] + 1), prev[j - 1] + cost);
+                if (i > 1 && j > 1 && ca == b.charAt(j - 2) && a.charAt(i - 2) == cb) {
+                    v = Math.min(v, prev2[j - 2] + 1);
+                }
+                cur[j] = v;
+                rowMin = Math.min(rowMin, v);
+            }
+            if (rowMin > limit) return limit + 1;
+            int[] t = prev2; prev2 = prev; prev = cur; cur = t;
+        }
+        return Math.min(prev[m], limit + 1);
+    }
+}
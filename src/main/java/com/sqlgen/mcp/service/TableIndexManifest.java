@@ -0,0 +1,175 @@
+package com.sqlgen.mcp.service;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * 테이블별 임베딩 본문 해시를 관리하는 매니페스트.
+ * reload 시 변경/추가/삭제된 테이블만 재임베딩하는 데 사용한다.
+ *
+ * 매니페스트는 저장소 하나의 상태를 기록하므로 provider 와 저장소 식별자(Chroma url/tenant/database/collection,
+ * hnsw/lucene 색인 경로)별로 docs/schema/index_manifest-{provider}-{식별자 해시}.json 에 따로 둔다.
+ * 식별자가 없는 인메모리 저장소는 디스크에 기록하지 않는다.
+ * SQL 예시 저장소(chroma)도 같은 형식으로 예시 id → 본문 해시를 기록한다 (provider 이름에 "-examples" 를 붙인다).
+ *
+ * 임베딩 모델이 바뀌면 기존 벡터와 호환되지 않으므로 model 값이 다르면 매니페스트 전체를 무효로 본다.
+ * 저장소의 실제 행 수가 매니페스트 테이블 수와 다를 때도 (다른 곳에서 비웠거나 색인 파일이 더 오래된 경우) 무효로 본다.
+ */
+class TableIndexManifest {
+    private static final Logger logger = LoggerFactory.getLogger(TableIndexManifest.class);
+
+    private static final String FILE_PREFIX = "index_manifest-";
+
+    /** 변경 분석 결과 */
+    record Diff(Map<String, String> upserts, Set<String> removals, int unchanged) {
+        boolean isEmpty() { return upserts.isEmpty() && removals.isEmpty(); }
+    }
+
+    private final ObjectMapper objectMapper;
+    /** 매니페스트 파일. 인메모리 저장소면 null */
+    private final Path path;
+    private final String store;
+    private String model = "";
+    /** 테이블명 → 저장소에 반영된 본문 해시 */
+    private Map<String, String> hashes = new HashMap<>();
+
+    /**
+     * @param provider 저장소 provider (파일 이름용)
+     * @param store    저장소 식별자. null 이면 인메모리 저장소로 보고 디스크에 읽고 쓰지 않는다.
+     */
+    TableIndexManifest(ObjectMapper objectMapper, File schemaDir, String provider, String store) {
+        this.objectMapper = objectMapper;
+        this.store = store;
+        this.path = store == null ? null
+                : new File(schemaDir, FILE_PREFIX + provider + "-" + hash(store).substring(0, 12) + ".json").toPath();
+    }
+
+    /**
+     * 디스크의 매니페스트를 읽는다. 모델/저장소가 다르거나 파일이 없으면 빈 상태로 시작한다.
+     * @param storedRows 저장소의 현재 행 수 (모르면 -1). 매니페스트 테이블 수와 다르면 빈 상태로 시작한다.
+     */
+    void load(String expectedModel, long storedRows) {
+        hashes = new HashMap<>();
+        model = expectedModel;
+        if (path == null || !Files.exists(path)) return;
+        try {
+            Map<String, Object> raw = objectMapper.readValue(path.toFile(), new TypeReference<Map<String, Object>>() {});
+            String savedModel = String.valueOf(raw.getOrDefault("model", ""));
+            if (!savedModel.equals(expectedModel)) {
+                logger.info("[Manifest] Embedding model changed ({} → {}). Full re-index required.", savedModel, expectedModel);
+                return;
+            }
+            String savedStore = String.valueOf(raw.getOrDefault("store", ""));
+            if (!savedStore.equals(store)) {
+                logger.info("[Manifest] {} belongs to another store ({}). Full re-index required.", path, savedStore);
+                return;
+            }
+            @SuppressWarnings("unchecked")
+            Map<String, String> saved = (Map<String, String>) raw.getOrDefault("tables", Map.of());
+            if (storedRows >= 0 && storedRows != saved.size()) {
+                logger.warn("[Manifest] Store {} has {} rows but {} lists {} tables. Full re-index required.",
+                        store, storedRows, path, saved.size());
+                return;
+            }
+            hashes = new HashMap<>(saved);
+            logger.info("[Manifest] Loaded {} table hashes from {}", hashes.size(), path);
+        } catch (Exception e) {
+            logger.warn("[Manifest] Failed to read {}: {}. Full re-index required.", path, e.getMessage());
+        }
+    }
+
+    /** 디스크 내용을 무시하고 빈 매니페스트로 시작한다 (비영구 저장소용). */
+    void reset(String expectedModel) {
+        hashes = new HashMap<>();
+        model = expectedModel;
+    }
+
+    /** 스냅샷으로 저장소를 복원했을 때 그 시점의 해시로 시작한다 (인메모리 저장소용, 디스크에 기록하지 않는다). */
+    void restore(String expectedModel, Map<String, String> restoredHashes) {
+        hashes = new HashMap<>(restoredHashes);
+        model = expectedModel;
+    }
+
+    /** 저장소에 반영된 키 → 본문 해시 */
+    Map<String, String> hashes() {
+        return Map.copyOf(hashes);
+    }
+
+    /** diff 없이 저장소 상태를 직접 관리하는 쪽(SQL 예시)에서 반영 결과 전체로 바꾸고, 영구 저장소면 디스크에 기록한다. */
+    void replace(Map<String, String> current) {
+        hashes = new HashMap<>(current);
+        save();
+    }
+
+    /** 매니페스트가 비어 있으면 true (최초 전체 인덱싱 대상) */
+    boolean isEmpty() {
+        return hashes.isEmpty();
+    }
+
+    /** 현재 테이블 본문 해시와 매니페스트를 비교한다. */
+    Diff diff(Map<String, String> currentHashes) {
+        Map<String, String> upserts = new LinkedHashMap<>();
+        int unchanged = 0;
+        for (Map.Entry<String, String> e : currentHashes.entrySet()) {
+            if (e.getValue().equals(hashes.get(e.getKey()))) {
+                unchanged++;
+            } else {
+                upserts.put(e.getKey(), e.getValue());
+            }
+        }
+        Set<String> removals = new HashSet<>(hashes.keySet());
+        removals.removeAll(currentHashes.keySet());
+        return new Diff(upserts, removals, unchanged);
+    }
+
+    /** 저장소 반영이 끝난 뒤 호출해 매니페스트를 갱신하고, 영구 저장소면 디스크에 기록한다. */
+    void apply(Diff diff) {
+        diff.removals().forEach(hashes::remove);
+        hashes.putAll(diff.upserts());
+        save();
+    }
+
+    private void save() {
+        if (path == null) return;
+        try {
+            Files.createDirectories(path.getParent());
+            Map<String, Object> out = new LinkedHashMap<>();
+            out.put("model", model);
+            out.put("store", store);
+            out.put("tables", new TreeMap<>(hashes));
+            // 쓰는 도중 중단되어도 이전 매니페스트가 깨지지 않도록 임시 파일 후 교체한다.
+            Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+            objectMapper.writerWithDefaultPrettyPrinter().writeValue(tmp.toFile(), out);
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (Exception e) {
+            logger.error("[Manifest] Save failed: {}", e.getMessage(), e);
+        }
+    }
+
+    static String hash(String content) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(content.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,306 @@
+package com.sqlgen.mcp.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 하이브리드 검색 텍스트 매칭 단계용 n-gram 역색인.
+ *
+ * 필드(테이블명/컬럼명/코멘트/remark)마다 문자 bigram → 테이블 순번 posting list 를 reload 시점에 만들어 둔다.
+ * 검색 시에는 키워드의 bigram posting 을 교집합해 후보를 좁힌 뒤 후보에 대해서만 contains 로 확인하므로,
+ * 모든 테이블 × 모든 필드를 훑던 부분 문자열 검사를 후보 수 만큼으로 줄인다.
+ * 문자(char) 단위로 자르므로 한글 음절과 ASCII 를 같은 방식으로 처리한다. 한 글자 키워드는 unigram posting 을 쓴다.
+ *
+ * 코멘트/remark 는 HangulAnalyzer 토큰(조사 제거, 복합명사 분할) → 순번 posting 도 만든다. 한글 키워드는 같은 분석기로
+ * 나눈 단어가 모두 들어 있는 테이블을 토큰 조회로 먼저 찾으므로 "설비상태를 조회", "로트이력은" 처럼
+ * 붙여 쓰거나 조사가 붙은 키워드도 "설비 상태", "로트 이력" 코멘트에 매칭된다.
+ *
+ * 테이블명/컬럼명은 SymSpellIndex 로 편집 거리 2 이내 오타도 찾는다 (matchFuzzy).
+ */
+final class TableTextIndex {
+
+    /** 필드별 가중치. 테이블명 > 컬럼명 > 코멘트 > remark 순으로 신뢰도를 다르게 본다. */
+    static final double NAME_EXACT_SCORE = 1.20;
+    static final double NAME_CONTAINS_SCORE = 1.00;
+    static final double COLUMN_SCORE = 0.85;
+    static final double COMMENT_SCORE = 0.72;
+    static final double REMARK_SCORE = 0.65;
+    /** 편집 거리 2 오타 일치에 추가로 곱하는 값 */
+    static final double FUZZY_DISTANCE2_FACTOR = 0.85;
+
+    @FunctionalInterface
+    interface MatchConsumer {
+        void accept(int ordinal, double score);
+    }
+
+    /** 한 필드의 원문(소문자)과 gram posting, 분석기 토큰 posting (분석하지 않는 필드는 null) */
+    private static final class Field {
+        final String[] texts;
+        final double score;
+        final Map<Integer, int[]> unigrams;
+        final Map<Integer, int[]> bigrams;
+        final Map<String, int[]> tokens;
+
+        Field(String[] texts, double score, HangulAnalyzer analyzer) {
+            this.texts = texts;
+            this.score = score;
+            Map<Integer, IntList> uni = new HashMap<>();
+            Map<Integer, IntList> bi = new HashMap<>();
+            Map<String, IntList> tok = analyzer == null ? null : new HashMap<>();
+            for (int ord = 0; ord < texts.length; ord++) {
+                String text = texts[ord];
+                if (tok != null) {
+                    for (String token : analyzer.tokens(text)) {
+                        tok.computeIfAbsent(token, k -> new IntList()).addDistinct(ord);
+                    }
+                }
+                for (int i = 0; i < text.length(); i++) {
+                    char c = text.charAt(i);
+                    uni.computeIfAbsent((int) c, k -> new IntList()).addDistinct(ord);
+                    if (i + 1 < text.length()) {
+                        bi.computeIfAbsent(bigram(c, text.charAt(i + 1)), k -> new IntList()).addDistinct(ord);
+                    }
+                }
+            }
+            this.unigrams = freeze(uni);
+            this.bigrams = freeze(bi);
+            this.tokens = tok == null ? null : freeze(tok);
+        }
+
+        /**
+         * 모든 단어가 들어 있는 테이블 순번 (정렬됨). 단어는 어간 토큰이 있거나 분할한 단어가 모두 있으면 들어 있는 것으로 본다.
+         * null 이면 후보 없음.
+         */
+        int[] tokenMatches(List<HangulAnalyzer.Term> terms) {
+            int[] result = null;
+            for (HangulAnalyzer.Term term : terms) {
+                int[] posting = tokens.get(term.stem());
+                if (term.parts().length > 0) {
+                    int[] parts = null;
+                    for (String part : term.parts()) {
+                        int[] p = tokens.get(part);
+                        if (p == null) { parts = null; break; }
+                        parts = parts == null ? p : intersect(parts, p);
+                    }
+                    if (parts != null) posting = posting == null ? parts : union(posting, parts);
+                }
+                if (posting == null) return null;
+                result = result == null ? posting : intersect(result, posting);
+                if (result.length == 0) return null;
+            }
+            return result;
+        }
+
+        /** 키워드를 포함할 수 있는 후보 순번 (정렬됨). null 이면 후보 없음. */
+        int[] candidates(String keyword) {
+            if (keyword.length() == 1) {
+                return unigrams.get((int) keyword.charAt(0));
+            }
+            // posting 이 짧은 bigram 부터 교집합해 중간 결과를 작게 유지한다.
+            List<int[]> postings = new ArrayList<>(keyword.length() - 1);
+            for (int i = 0; i + 1 < keyword.length(); i++) {
+                int[] posting = bigrams.get(bigram(keyword.charAt(i), keyword.charAt(i + 1)));
+                if (posting == null) return null;
+                postings.add(posting);
+            }
+            postings.sort((a, b) -> Integer.compare(a.length, b.length));
+            int[] result = postings.get(0);
+            for (int i = 1; i < postings.size() && result.length > 0; i++) {
+                result = intersect(result, postings.get(i));
+            }
+            return result;
+        }
+    }
+
+    private final String[] tableNames;
+    private final Map<String, Integer> ordinalByName;
+    /** 점수 내림차순으로 정렬된 필드 (테이블명은 정확 일치를 별도로 처리) */
+    private final Field name;
+    private final Field[] others;
+    private final HangulAnalyzer analyzer;
+    /** 오타 허용 이름 색인 (사용하지 않으면 null) */
+    private final SymSpellIndex fuzzy;
+
+    /**
+     * @param analyzer      사전 어휘로 만든 분석기. 코멘트/remark 의 단어를 어휘에 더해 색인과 검색에 같이 쓴다.
+     * @param fuzzyDistance 테이블명/컬럼명 오타 허용 편집 거리 (0 이면 오타 색인을 만들지 않음)
+     */
+    TableTextIndex(String[] tableNames, String[] names, String[] columns, String[] comments, String[] remarks,
+                   HangulAnalyzer analyzer, int fuzzyDistance) {
+        this.tableNames = tableNames;
+        this.ordinalByName = new HashMap<>(tableNames.length * 2);
+        for (int i = 0; i < names.length; i++) {
+            ordinalByName.putIfAbsent(names[i], i);
+        }
+        this.analyzer = analyzer.withWordsFrom(comments).withWordsFrom(remarks);
+        this.name = new Field(names, NAME_CONTAINS_SCORE, null);
+        this.others = new Field[] {
+                new Field(columns, COLUMN_SCORE, null),
+                new Field(comments, COMMENT_SCORE, this.analyzer),
+                new Field(remarks, REMARK_SCORE, this.analyzer)
+        };
+        this.fuzzy = fuzzyDistance > 0 ? SymSpellIndex.build(names, columns, fuzzyDistance) : null;
+    }
+
+    /** 같은 테이블의 코멘트/remark 토큰 posting 만 새 사전 분석기로 다시 만든 색인. 이름/컬럼 색인과 오타 색인은 공유한다. */
+    TableTextIndex withAnalyzer(HangulAnalyzer dictionaryAnalyzer) {
+        return new TableTextIndex(this, dictionaryAnalyzer);
+    }
+
+    private TableTextIndex(TableTextIndex source, HangulAnalyzer dictionaryAnalyzer) {
+        String[] comments = source.others[1].texts;
+        String[] remarks = source.others[2].texts;
+        this.tableNames = source.tableNames;
+        this.ordinalByName = source.ordinalByName;
+        this.analyzer = dictionaryAnalyzer.withWordsFrom(comments).withWordsFrom(remarks);
+        this.name = source.name;
+        this.others = new Field[] {
+                source.others[0],
+                new Field(comments, COMMENT_SCORE, this.analyzer),
+                new Field(remarks, REMARK_SCORE, this.analyzer)
+        };
+        this.fuzzy = source.fuzzy;
+    }
+
+    static TableTextIndex empty() {
+        String[] none = new String[0];
+        return new TableTextIndex(none, none, none, none, none, HangulAnalyzer.empty(), 0);
+    }
+
+    int size() {
+        return tableNames.length;
+    }
+
+    String tableName(int ordinal) {
+        return tableNames[ordinal];
+    }
+
+    /** 이 색인을 만든 분석기 (사전 어휘 + 코멘트/remark 단어) */
+    HangulAnalyzer analyzer() {
+        return analyzer;
+    }
+
+    /** 소문자 키워드가 테이블명과 정확히 일치하면 true */
+    boolean containsTable(String keywordLower) {
+        return ordinalByName.containsKey(keywordLower);
+    }
+
+    /**
+     * 소문자 키워드에 매칭되는 테이블의 필드 점수를 전달한다.
+     * 필드는 점수가 높은 순(테이블명 정확 → 테이블명 → 컬럼 → 코멘트 → remark)으로 보며, 한 테이블이 여러 필드에서
+     * 맞으면 여러 번 전달되므로 소비자가 최대값을 취한다 (ScoreBoard.max). 검색마다 테이블 수만큼 배열을 만들지 않기 위함이다.
+     */
+    void match(String keywordLower, MatchConsumer consumer) {
+        if (keywordLower.isEmpty() || tableNames.length == 0) return;
+
+        Integer exact = ordinalByName.get(keywordLower);
+        if (exact != null) {
+            consumer.accept(exact, NAME_EXACT_SCORE);
+        }
+        collect(name, keywordLower, null, consumer);
+        List<HangulAnalyzer.Term> terms = HangulAnalyzer.containsHangul(keywordLower) ? queryTerms(keywordLower) : List.of();
+        for (Field field : others) {
+            collect(field, keywordLower, terms, consumer);
+        }
+    }
+
+    /**
+     * 테이블명/컬럼명과 편집 거리 1 ~ 2 인 소문자 키워드의 테이블마다 점수를 전달한다 (정확/부분 일치는 match 가 담당).
+     * 점수는 weight x 필드 점수(테이블명 1.00, 컬럼 0.85) 이고, 거리 2 는 0.85 배를 더 곱한다.
+     */
+    void matchFuzzy(String keywordLower, double weight, MatchConsumer consumer) {
+        if (fuzzy == null || weight <= 0 || keywordLower.isEmpty()) return;
+        fuzzy.lookup(keywordLower, (tables, columns, distance) -> {
+            double factor = weight * (distance == 1 ? 1.0 : FUZZY_DISTANCE2_FACTOR);
+            if (tables != null) {
+                for (int ord : tables) consumer.accept(ord, NAME_CONTAINS_SCORE * factor);
+            }
+            if (columns != null) {
+                for (int ord : columns) consumer.accept(ord, COLUMN_SCORE * factor);
+            }
+        });
+    }
+
+    /** 오타 색인의 삭제 문자열 수 (0 이면 오타 색인 없음) */
+    int fuzzyDeleteCount() {
+        return fuzzy == null ? 0 : fuzzy.deleteCount();
+    }
+
+    /** 키워드 분석 결과. "조회" 같은 요청 동사는 다른 단어가 있으면 조건에서 뺀다. */
+    private List<HangulAnalyzer.Term> queryTerms(String keyword) {
+        List<HangulAnalyzer.Term> terms = analyzer.terms(keyword);
+        List<HangulAnalyzer.Term> content = terms.stream().filter(t -> !t.isRequestWord()).toList();
+        return content.isEmpty() ? terms : content;
+    }
+
+    private void collect(Field field, String keyword, List<HangulAnalyzer.Term> terms, MatchConsumer consumer) {
+        // 분석 토큰 조회가 먼저: 정확 일치라 확인이 필요 없다.
+        int[] tokenMatches = field.tokens != null && terms != null && !terms.isEmpty() ? field.tokenMatches(terms) : null;
+        if (tokenMatches != null) {
+            for (int ord : tokenMatches) {
+                consumer.accept(ord, field.score);
+            }
+        }
+        int[] candidates = field.candidates(keyword);
+        if (candidates == null) return;
+        for (int ord : candidates) {
+            // 토큰으로 이미 맞은 테이블은 같은 점수이므로 건너뛴다 (둘 다 정렬된 순번).
+            if (tokenMatches != null && Arrays.binarySearch(tokenMatches, ord) >= 0) continue;
+            // bigram 교집합은 상위집합이므로 실제 포함 여부를 확인한다.
+            if (field.texts[ord].contains(keyword)) {
+                consumer.accept(ord, field.score);
+            }
+        }
+    }
+
+    private static int bigram(char a, char b) {
+        return (a << 16) | b;
+    }
+
+    private static int[] intersect(int[] a, int[] b) {
+        int[] out = new int[Math.min(a.length, b.length)];
+        int i = 0, j = 0, n = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) i++;
+            else if (a[i] > b[j]) j++;
+            else { out[n++] = a[i]; i++; j++; }
+        }
+        return n == out.length ? out : Arrays.copyOf(out, n);
+    }
+
+    private static int[] union(int[] a, int[] b) {
+        int[] out = new int[a.length + b.length];
+        int i = 0, j = 0, n = 0;
+        while (i < a.length || j < b.length) {
+            if (j == b.length || i < a.length && a[i] < b[j]) out[n++] = a[i++];
+            else if (i == a.length || a[i] > b[j]) out[n++] = b[j++];
+            else { out[n++] = a[i]; i++; j++; }
+        }
+        return n == out.length ? out : Arrays.copyOf(out, n);
+    }
+
+    private static <K> Map<K, int[]> freeze(Map<K, IntList> lists) {
+        Map<K, int[]> frozen = new HashMap<>(lists.size() * 2);
+        lists.forEach((k, v) -> frozen.put(k, v.toArray()));
+        return frozen;
+    }
+
+    /** 순번을 오름차순으로 추가하는 int 가변 배열 (같은 테이블의 중복 gram 은 한 번만 기록) */
+    static final class IntList {
+        private int[] values = new int[4];
+        private int size;
+
+        void addDistinct(int value) {
+            if (size > 0 && values[size - 1] == value) return;
+            if (size == values.length) values = Arrays.copyOf(values, size * 2);
+            values[size++] = value;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
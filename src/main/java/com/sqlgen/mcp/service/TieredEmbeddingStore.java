@@ -0,0 +1,298 @@
+package com.sqlgen.mcp.service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.store.embedding.EmbeddingMatch;
+import dev.langchain4j.store.embedding.EmbeddingSearchRequest;
+import dev.langchain4j.store.embedding.EmbeddingSearchResult;
+import dev.langchain4j.store.embedding.EmbeddingStore;
+import dev.langchain4j.store.embedding.filter.Filter;
+
+/**
+ * ChromaDB 컬렉션 앞에 둔 로컬 복제본 (write-through).
+ * 검색은 프로세스 내 FlatVectorEmbeddingStore 가 처리하고, 쓰기는 원격에 먼저 반영한 뒤 복제본에 반영한다.
+ * ChromaDB 는 영구 저장과 인스턴스 간 공유를 맡는 원본으로 남는다.
+ *
+ * 생성 시 컬렉션 전체를 읽어 복제본을 채우고, 검색 중 reconcileMillis 가 지나면 백그라운드에서 컬렉션
+ * version/count 를 확인해 다른 인스턴스의 변경이 있으면 다시 읽어 교체한다. version 을 주지 않는 구버전 서버는
+ * 항목 수가 같은 변경을 놓치지 않도록 id/본문 digest 를 함께 비교한다 (벡터를 뺀 조회라 전체 읽기보다 가볍다).
+ * 복제본을 아직 채우지 못했으면 (원격 장애 등) 검색을 원격으로 보낸다.
+ *
+ * replicaEnabled 가 false 이면 복제본 없이 원격만 쓰며, searchAll 은 /query 요청 한 건으로 보낸다.
+ */
+final class TieredEmbeddingStore implements EmbeddingStore<TextSegment>, MultiQuerySearch {
+
+    private static final Logger logger = LoggerFactory.getLogger(TieredEmbeddingStore.class);
+
+    private final EmbeddingStore<TextSegment> remote;
+    private final ChromaCollectionReader reader;
+    private final int pageSize;
+    private final long reconcileMillis;
+    private final boolean replicaEnabled;
+    private final AtomicBoolean reconciling = new AtomicBoolean();
+
+    private volatile FlatVectorEmbeddingStore replica;
+    /** 복제본이 반영한 원격 상태. null 이면 다음 확인 때 다시 읽는다. */
+    private volatile ChromaCollectionReader.Fingerprint knownFingerprint;
+    private volatile long lastCheckedAt;
+
+    TieredEmbeddingStore(EmbeddingStore<TextSegment> remote, ChromaCollectionReader reader,
+                         int pageSize, long reconcileMillis, boolean replicaEnabled) {
+        this.remote = remote;
+        this.reader = reader;
+        this.pageSize = Math.max(1, pageSize);
+        this.reconcileMillis = reconcileMillis;
+        this.replicaEnabled = replicaEnabled;
+        if (replicaEnabled) refresh();
+    }
+
+    @Override
+    public String add(Embedding embedding) {
+        String id = generateIds(1).get(0);
+        addAll(List.of(id), List.of(embedding), null);
+        return id;
+    }
+
+    @Override
+    public void add(String id, Embedding embedding) {
+        addAll(List.of(id), List.of(embedding), null);
+    }
+
+    @Override
+    public String add(Embedding embedding, TextSegment segment) {
+        String id = generateIds(1).get(0);
+        addAll(List.of(id), List.of(embedding), segment == null ? null : List.of(segment));
+        return id;
+    }
+
+    @Override
+    public List<String> addAll(List<Embedding> embeddings) {
+        List<String> ids = generateIds(embeddings.size());
+        addAll(ids, embeddings, null);
+        return ids;
+    }
+
+    @Override
+    public List<String> addAll(List<Embedding> embeddings, List<TextSegment> embedded) {
+        List<String> ids = generateIds(embeddings.size());
+        addAll(ids, embeddings, embedded);
+        return ids;
+    }
+
+    @Override
+    public synchronized void addAll(List<String> ids, List<Embedding> embeddings, List<TextSegment> embedded) {
+        ChromaCollectionReader.Fingerprint before = knownFingerprint;
+        remote.addAll(ids, embeddings, embedded);
+        FlatVectorEmbeddingStore local = replica;
+        if (local != null) local.addAll(ids, embeddings, embedded);
+        if (replicaEnabled) afterWrite(before, requests(ids.size()));
+    }
+
+    @Override
+    public synchronized void removeAll(Collection<String> ids) {
+        ChromaCollectionReader.Fingerprint before = knownFingerprint;
+        remote.removeAll(ids);
+        FlatVectorEmbeddingStore local = replica;
+        if (local != null) local.removeAll(ids);
+        if (replicaEnabled) afterWrite(before, requests(ids.size()));
+    }
+
+    @Override
+    public synchronized void removeAll(Filter filter) {
+        ChromaCollectionReader.Fingerprint before = knownFingerprint;
+        remote.removeAll(filter);
+        FlatVectorEmbeddingStore local = replica;
+        if (local != null) local.removeAll(filter);
+        if (replicaEnabled) afterWrite(before, 1);
+    }
+
+    @Override
+    public synchronized void removeAll() {
+        ChromaCollectionReader.Fingerprint before = knownFingerprint;
+        remote.removeAll();
+        FlatVectorEmbeddingStore local = replica;
+        if (local != null) local.removeAll();
+        if (replicaEnabled) afterWrite(before, 1);
+    }
+
+    @Override
+    public EmbeddingSearchResult<TextSegment> search(EmbeddingSearchRequest request) {
+        FlatVectorEmbeddingStore local = localReplica();
+        return local != null ? local.search(request) : remote.search(request);
+    }
+
+    @Override
+    public List<List<EmbeddingMatch<TextSegment>>> searchAll(List<Embedding> queries, int maxResults, double minScore) {
+        FlatVectorEmbeddingStore local = localReplica();
+        if (local != null) {
+            return local.searchAll(queries, maxResults, minScore);
+        }
+        try {
+            return reader.query(queries, maxResults, minScore);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while querying Chroma", e);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /** 원격 컬렉션의 현재 항목 수. 확인에 실패하면 -1. */
+    long remoteCount() {
+        try {
+            return reader.fingerprint().count();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return -1;
+        } catch (Exception e) {
+            logger.warn("[Chroma] Collection count failed: {}", e.getMessage());
+            return -1;
+        }
+    }
+
+    /** 원격 컬렉션의 id 전체. 확인에 실패하면 null. */
+    List<String> remoteIds() {
+        try {
+            reader.fingerprint();
+            List<String> ids = new ArrayList<>();
+            reader.readIds(pageSize, ids::add);
+            return ids;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (Exception e) {
+            logger.warn("[Chroma] Collection id listing failed: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /** 검색에 쓸 복제본. 확인 주기가 지났거나 복제본이 없으면 백그라운드 확인을 띄운다. */
+    private FlatVectorEmbeddingStore localReplica() {
+        if (!replicaEnabled) return null;
+        FlatVectorEmbeddingStore local = replica;
+        if (local == null || System.currentTimeMillis() - lastCheckedAt >= reconcileMillis) {
+            reconcileInBackground();
+        }
+        return local;
+    }
+
+    /** 원격 컬렉션 전체를 새 복제본으로 읽어 교체한다. 실패하면 기존 복제본을 유지한다. */
+    synchronized void refresh() {
+        long started = System.nanoTime();
+        try {
+            ChromaCollectionReader.Fingerprint fingerprint = reader.fingerprint();
+            FlatVectorEmbeddingStore next = new FlatVectorEmbeddingStore();
+            long[] digest = new long[1];
+            List<String> ids = new ArrayList<>(pageSize);
+            List<Embedding> embeddings = new ArrayList<>(pageSize);
+            List<TextSegment> segments = new ArrayList<>(pageSize);
+            reader.readAll(pageSize, (id, embedding, segment) -> {
+                ids.add(id);
+                embeddings.add(embedding);
+                segments.add(segment);
+                digest[0] += ChromaCollectionReader.rowDigest(id, segment == null ? null : segment.text());
+                if (ids.size() == pageSize) {
+                    next.addAll(ids, embeddings, segments);
+                    ids.clear();
+                    embeddings.clear();
+                    segments.clear();
+                }
+            });
+            next.addAll(ids, embeddings, segments);
+            replica = next;
+            // version 이 없으면 읽은 행 자체로 기준값을 만든다 (fingerprint 확인과 읽기 사이의 변경도 반영된다).
+            knownFingerprint = fingerprint.versioned()
+                    ? fingerprint
+                    : new ChromaCollectionReader.Fingerprint(-1, next.size(), digest[0]);
+            logger.info("[Chroma] Local replica loaded: {} rows in {} ms",
+                    next.size(), (System.nanoTime() - started) / 1_000_000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            logger.warn("[Chroma] Local replica load failed ({}). Searching remote until the next check.", e.getMessage());
+        } finally {
+            lastCheckedAt = System.currentTimeMillis();
+        }
+    }
+
+    private void reconcileInBackground() {
+        if (!reconciling.compareAndSet(false, true)) return;
+        Thread.ofVirtual().name("chroma-reconcile").start(() -> {
+            try {
+                reconcile();
+            } finally {
+                reconciling.set(false);
+            }
+        });
+    }
+
+    /** 원격 상태를 기준값과 비교해 다르면 복제본을 다시 읽는다. */
+    void reconcile() {
+        try {
+            ChromaCollectionReader.Fingerprint current = reader.fingerprint(pageSize);
+            if (replica == null || !Objects.equals(current, knownFingerprint)) {
+                logger.info("[Chroma] Collection changed ({} -> {}). Reloading local replica.", knownFingerprint, current);
+                refresh();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            logger.debug("[Chroma] Reconcile check failed: {}", e.getMessage());
+        } finally {
+            lastCheckedAt = System.currentTimeMillis();
+        }
+    }
+
+    /**
+     * 자기 쓰기 직후의 원격 상태가 예상과 정확히 같을 때만 기준값으로 삼는다.
+     * 항목 수가 쓰기를 반영한 복제본과 같고, version 이 그대로이거나 보낸 요청 수만큼만 올랐어야 한다.
+     * version 이 없으면 원격 digest 가 복제본의 digest 와 같아야 한다.
+     * 그 사이 다른 인스턴스가 쓴 흔적이 있거나 확인에 실패하면 기준값을 지워 다음 확인 때 다시 읽는다.
+     */
+    private void afterWrite(ChromaCollectionReader.Fingerprint before, int requests) {
+        FlatVectorEmbeddingStore local = replica;
+        if (before == null || local == null) {
+            knownFingerprint = null;
+            return;
+        }
+        try {
+            ChromaCollectionReader.Fingerprint current = reader.fingerprint(pageSize);
+            boolean expected = current.count() == local.size() && (current.versioned()
+                    ? current.version() == before.version() || current.version() == before.version() + requests
+                    : current.digest() == digest(local));
+            if (!expected) {
+                logger.info("[Chroma] Collection state after write ({}) differs from expected (count {}, version {} + {}). "
+                        + "Reloading local replica on the next check.", current, local.size(), before.version(), requests);
+            }
+            knownFingerprint = expected ? current : null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            knownFingerprint = null;
+        } catch (Exception e) {
+            knownFingerprint = null;
+        }
+    }
+
+    private static long digest(FlatVectorEmbeddingStore local) {
+        long[] digest = new long[1];
+        local.forEachSegment((id, segment) ->
+                digest[0] += ChromaCollectionReader.rowDigest(id, segment == null ? null : segment.text()));
+        return digest[0];
+    }
+
+    /** 원격 쓰기 요청 수 (BatchingEmbeddingStore 가 pageSize 단위로 나눠 보낸다) */
+    private int requests(int rows) {
+        return Math.max(1, (rows + pageSize - 1) / pageSize);
+    }
+}
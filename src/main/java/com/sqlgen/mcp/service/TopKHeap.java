@@ -0,0 +1,98 @@
+package com.sqlgen.mcp.service;
+
+/**
+ * (점수, 정수 id) 쌍을 담는 고정 크기 최소 힙.
+ * 상위 k개만 유지하므로 n개 후보에서 O(n log k) 로 선택하며, 박싱 없이 재사용할 수 있다.
+ */
+final class TopKHeap {
+    private final double[] scores;
+    private final int[] ids;
+    private int size;
+
+    TopKHeap(int capacity) {
+        this.scores = new double[Math.max(1, capacity)];
+        this.ids = new int[Math.max(1, capacity)];
+    }
+
+    int size() {
+        return size;
+    }
+
+    void clear() {
+        size = 0;
+    }
+
+    /** 힙이 가득 찼을 때 새 후보가 들어가려면 넘어야 하는 점수 */
+    double threshold() {
+        return size < scores.length ? Double.NEGATIVE_INFINITY : scores[0];
+    }
+
+    void offer(int id, double score) {
+        if (size < scores.length) {
+            scores[size] = score;
+            ids[size] = id;
+            siftUp(size++);
+        } else if (score > scores[0]) {
+            scores[0] = score;
+            ids[0] = id;
+            siftDown(0);
+        }
+    }
+
+    void addAll(TopKHeap other) {
+        for (int i = 0; i < other.size; i++) {
+            offer(other.ids[i], other.scores[i]);
+        }
+    }
+
+    /**
+     * 점수 내림차순으로 꺼낸다. 호출 후 힙은 비워진다.
+     * @param outIds    길이 size() 이상
+     * @param outScores 길이 size() 이상 (null 가능)
+     * @return 꺼낸 개수
+     */
+    int drainDescending(int[] outIds, double[] outScores) {
+        int n = size;
+        for (int i = n - 1; i >= 0; i--) {
+            outIds[i] = ids[0];
+            if (outScores != null) outScores[i] = scores[0];
+            size--;
+            if (size > 0) {
+                scores[0] = scores[size];
+                ids[0] = ids[size];
+                siftDown(0);
+            }
+        }
+        return n;
+    }
+
+    private void siftUp(int i) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (scores[parent] <= scores[i]) break;
+            swap(i, parent);
+            i = parent;
+        }
+    }
+
+    private void siftDown(int i) {
+        while (true) {
+            int left = 2 * i + 1;
+            if (left >= size) break;
+            int right = left + 1;
+            int smallest = right < size && scores[right] < scores[left] ? right : left;
+            if (scores[i] <= scores[smallest]) break;
+            swap(i, smallest);
+            i = smallest;
+        }
+    }
+
+    private void swap(int a, int b) {
+        double s = scores[a];
+        scores[a] = scores[b];
+        scores[b] = s;
+        int id = ids[a];
+        ids[a] = ids[b];
+        ids[b] = id;
+    }
+}
@@ -0,0 +1,61 @@
+package com.sqlgen.mcp.service;
+
+/**
+ * 벡터 저장소 공용 float 연산.
+ * JVM 이 --add-modules jdk.incubator.vector 로 실행되면 SIMD 구현(SimdVectorOps)을 쓰고,
+ * 모듈이 없으면 스칼라 루프로 동작한다. 분기 조건이 static final 이라 JIT 에서 상수로 접힌다.
+ */
+final class VectorOps {
+
+    static final boolean SIMD_AVAILABLE = ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+
+    private VectorOps() {}
+
+    /** a[aOffset..aOffset+length) · b[bOffset..bOffset+length) */
+    static float dot(float[] a, int aOffset, float[] b, int bOffset, int length) {
+        if (SIMD_AVAILABLE) {
+            return SimdVectorOps.dot(a, aOffset, b, bOffset, length);
+        }
+        float sum = 0f;
+        for (int i = 0; i < length; i++) {
+            sum += a[aOffset + i] * b[bOffset + i];
+        }
+        return sum;
+    }
+
+    /** q[0..length) · codes[offset..offset+length) (int8 코드를 float 로 보고 곱한다. 행 scale 은 호출자가 곱한다) */
+    static float dotInt8(float[] q, byte[] codes, int offset, int length) {
+        if (SIMD_AVAILABLE) {
+            return SimdVectorOps.dotInt8(q, codes, offset, length);
+        }
+        float sum = 0f;
+        for (int i = 0; i < length; i++) {
+            sum += q[i] * codes[offset + i];
+        }
+        return sum;
+    }
+
+    /** 부호 비트 코드 간 일치 비트 수 - 불일치 비트 수 (= 차원 - 2 × 해밍 거리) */
+    static int binarySimilarity(long[] a, int aOffset, long[] b, int bOffset, int words, int dimension) {
+        int hamming = 0;
+        for (int i = 0; i < words; i++) {
+            hamming += Long.bitCount(a[aOffset + i] ^ b[bOffset + i]);
+        }
+        return dimension - 2 * hamming;
+    }
+
+    /** 길이 1로 정규화한 복사본. 영벡터는 그대로 반환한다. */
+    static float[] normalized(float[] vector) {
+        double norm = 0;
+        for (float v : vector) {
+            norm += v * v;
+        }
+        float[] out = vector.clone();
+        if (norm == 0) return out;
+        float inv = (float) (1.0 / Math.sqrt(norm));
+        for (int i = 0; i < out.length; i++) {
+            out[i] *= inv;
+        }
+        return out;
+    }
+}
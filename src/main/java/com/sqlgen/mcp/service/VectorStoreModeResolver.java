@@ -23,21 +23,21 @@ public class VectorStoreModeResolver {
                 .filter(strategy -> strategy.provider().equals(provider))
                 .findFirst()
                 .map(strategy -> {
-                    // 실제 선택된 전략을 로그로 남겨 local/chroma 분기 추적을 쉽게 한다.
+                    // 실제 선택된 전략을 로그로 남겨 local/chroma/hnsw/lucene/ollama/vllm 분기 추적을 쉽게 한다.
                     logger.info("[VectorMode] Selected strategy: provider={}, storeType={}, strategyClass={}",
                             strategy.provider(), strategy.storeType(), strategy.getClass().getSimpleName());
                     return strategy;
                 })
                 .orElseThrow(() -> new IllegalArgumentException(
-                        "Unsupported ai.vector-store.provider: " + provider + " (allowed: local, chroma)"));
+                        "Unsupported ai.vector-store.provider: " + provider + " (allowed: local, chroma, hnsw, lucene, ollama, vllm)"));
     }
 
     public String normalize(String provider) {
         String normalized = provider == null ? "local" : provider.trim().toLowerCase();
         return switch (normalized) {
-            case "local", "chroma" -> normalized;
+            case "local", "chroma", "hnsw", "lucene", "ollama", "vllm" -> normalized;
             default -> throw new IllegalArgumentException(
-                    "Unsupported ai.vector-store.provider: " + provider + " (allowed: local, chroma)");
+                    "Unsupported ai.vector-store.provider: " + provider + " (allowed: local, chroma, hnsw, lucene, ollama, vllm)");
         };
     }
 }
@@ -1,9 +1,16 @@
 package com.sqlgen.mcp.service;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
 import org.springframework.core.env.Environment;
 
+import dev.langchain4j.data.embedding.Embedding;
 import dev.langchain4j.data.segment.TextSegment;
 import dev.langchain4j.model.embedding.EmbeddingModel;
+import dev.langchain4j.store.embedding.EmbeddingMatch;
+import dev.langchain4j.store.embedding.EmbeddingSearchRequest;
 import dev.langchain4j.store.embedding.EmbeddingStore;
 
 public interface VectorStoreModeStrategy {
@@ -13,6 +20,30 @@ public interface VectorStoreModeStrategy {
 
     String storeType();
 
+    // 저장소가 프로세스 재시작 후에도 유지되면 true (증분 재인덱싱 매니페스트를 이어서 사용)
+    boolean persistentStore();
+
+    // 매니페스트를 나눠 둘 테이블 저장소 식별자 (Chroma 연결/컬렉션, 색인 경로 등).
+    // null 이면 프로세스와 함께 사라지는 인메모리 저장소로 보고 매니페스트를 디스크에 기록하지 않는다.
+    default String storeIdentity(Environment env) {
+        return null;
+    }
+
+    // 저장소에 실제로 들어 있는 행 수. 매니페스트와 어긋나는지 확인하는 데 쓰며, 알 수 없으면 -1.
+    default long storedCount(EmbeddingStore<TextSegment> store) {
+        return -1;
+    }
+
+    // SQL 예시 저장소 식별자. 재시작 후에도 내용이 남는 예시 저장소(chroma)만 값을 주며, 예시 매니페스트를 나누는 데 쓴다.
+    default String exampleStoreIdentity(Environment env) {
+        return null;
+    }
+
+    // 저장소에 들어 있는 id 전체. 매니페스트 없이 기동할 때 이전 데이터를 id 단위로 정리하는 데 쓰며, 알 수 없으면 null.
+    default Collection<String> storedIds(EmbeddingStore<TextSegment> store) {
+        return null;
+    }
+
     EmbeddingModel createEmbeddingModel(Environment env);
 
     EmbeddingStore<TextSegment> createTableStore(Environment env);
@@ -21,5 +52,35 @@ public interface VectorStoreModeStrategy {
 
     EmbeddingStore<TextSegment> resetTableStore(EmbeddingStore<TextSegment> currentStore, Environment env);
 
+    // reload 시 다음 인덱스 세대를 만들 저장소. 검색 중인 currentStore 를 바꾸지 않는 사본을 돌려주는 것이 원칙이며,
+    // 사본을 만들 수 없는 원격 저장소(chroma)는 같은 인스턴스를 돌려주고 id 단위로 교체한다.
+    EmbeddingStore<TextSegment> forkTableStore(EmbeddingStore<TextSegment> currentStore, Environment env);
+
     EmbeddingStore<TextSegment> resetExampleStore(EmbeddingStore<TextSegment> currentStore, Environment env);
+
+    // 테이블 인덱싱이 끝난 뒤 호출된다. 저장소를 파일로 남겨야 하는 구현(hnsw)만 재정의한다.
+    default void flushTableStore(EmbeddingStore<TextSegment> store) {
+    }
+
+    // 테이블 인덱싱이 flushTableStore 전에 실패하면 호출된다. 쓰기를 모아 두었다가 한 번에 기록하는 구현(lucene)만 재정의한다.
+    default void discardTableStore(EmbeddingStore<TextSegment> store) {
+    }
+
+    // 질의 벡터 여러 개를 한 번에 검색한다 (결과는 queries 순서). 저장소가 MultiQuerySearch 를 구현하면
+    // 행렬 1회 스캔 / 원격 요청 1건으로 처리하고, 아니면 질의마다 search 를 호출한다.
+    default List<List<EmbeddingMatch<TextSegment>>> searchAll(EmbeddingStore<TextSegment> store,
+                                                             List<Embedding> queries, int maxResults, double minScore) {
+        if (store instanceof MultiQuerySearch multi) {
+            return multi.searchAll(queries, maxResults, minScore);
+        }
+        List<List<EmbeddingMatch<TextSegment>>> results = new ArrayList<>(queries.size());
+        for (Embedding query : queries) {
+            results.add(store.search(EmbeddingSearchRequest.builder()
+                    .queryEmbedding(query)
+                    .maxResults(maxResults)
+                    .minScore(minScore)
+                    .build()).matches());
+        }
+        return results;
+    }
 }
@@ -1,12 +1,25 @@
 package com.sqlgen.mcp.service;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
@@ -17,14 +30,18 @@ import org.springframework.stereotype.Service;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sqlgen.mcp.admin.BoostRules;
 import com.sqlgen.mcp.admin.ToolMetadataStore;
 
+import dev.langchain4j.data.document.Metadata;
+import dev.langchain4j.data.embedding.Embedding;
 import dev.langchain4j.data.segment.TextSegment;
 import dev.langchain4j.model.embedding.EmbeddingModel;
 import dev.langchain4j.store.embedding.EmbeddingMatch;
 import dev.langchain4j.store.embedding.EmbeddingSearchRequest;
 import dev.langchain4j.store.embedding.EmbeddingStore;
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 
 @Service
 public class VectorStoreService {
@@ -35,45 +52,117 @@ public class VectorStoreService {
     private static final double PREFIX_H_BASE_BOOST = 0.03;
     private static final double PREFIX_D_BASE_BOOST = 0.02;
     private static final double MASTER_INTENT_EXTRA_BOOST = 0.08;
+    /** 질의 키워드를 소문자로 바꿔 포함 여부를 보므로 소문자로만 둔다. */
     private static final List<String> MASTER_INTENT_KEYWORDS =
             List.of("마스터", "master", "기준", "기준정보", "코드", "공통", "설정", "기본정보");
 
     public record TableSummary(String tableName, String comment, int columnCount) {}
 
+    /** 테이블 정의 JSON 한 건을 파싱한 결과 (인덱싱 파이프라인 내부용) */
+    private record ParsedTable(String tableName, String comment, String content,
+                               String nameKeyword, String commentKeyword,
+                               String columnKeyword, String remarkKeyword, int columnCount) {}
+
+    /**
+     * 테이블 인덱스 스냅샷 메타데이터 (tables.json). vectorStamp 가 0 이 아니면 같은 순서의 벡터가
+     * 같은 stamp 를 가진 tables.vec 에 있다.
+     */
+    private record TableSnapshot(int formatVersion, String model, long vectorStamp,
+                                 List<ParsedTable> tables, Map<String, String> hashes) {}
+
+    private static final String TABLE_SNAPSHOT = "tables";
+
+    /**
+     * reload 한 번으로 만들어지는 테이블 인덱스 세대 (벡터 저장소 + 텍스트 색인 + 본문 + 요약).
+     * 발행한 뒤에는 바꾸지 않으며, 검색은 시작 시점에 읽은 세대 하나만 사용한다.
+     * reload 는 다음 세대를 따로 만든 뒤 참조 한 번으로 교체하고, 이전 세대는 진행 중인 검색이 끝나 참조가 사라지면 GC 된다.
+     */
+    private record IndexGeneration(long version, EmbeddingStore<TextSegment> store, TableTextIndex textIndex,
+                                   Map<String, String> contentText, List<TableSummary> summaries,
+                                   Map<String, Integer> ordinals, double[] prefixBoosts, boolean[] masterPrefixed) {
+        static IndexGeneration initial(EmbeddingStore<TextSegment> store) {
+            return new IndexGeneration(0, store, TableTextIndex.empty(), Map.of(), List.of(),
+                    Map.of(), new double[0], new boolean[0]);
+        }
+
+        /** reload 시 미리 계산한 테이블 순번별 prefix 가산점 */
+        double prefixBoost(int ord, boolean masterIntent) {
+            return masterIntent && masterPrefixed[ord] ? prefixBoosts[ord] + MASTER_INTENT_EXTRA_BOOST : prefixBoosts[ord];
+        }
+    }
+
     private final ObjectMapper objectMapper;
     private final Environment env;
     private final ToolMetadataStore metadataStore;
     private final KoreanQueryTranslator koreanTranslator;
     private final VectorStoreModeResolver modeResolver;
-    private EmbeddingStore<TextSegment> embeddingStore;
+    private final QueryEmbeddingCache queryEmbeddingCache;
+    private final SearchResultCache resultCache;
     private EmbeddingModel embeddingModel;
+    /** 다국어 모델이면 한국어 원문을 그대로 임베딩한다 (번역어 벡터 검색과 영어 모델 보정 생략). */
+    private boolean multilingualModel;
+    private QueryPlanner queryPlanner;
     private VectorStoreModeStrategy modeStrategy;
+    /** 첫 세대가 발행되면 true. 이후 reload 중에도 이전 세대로 검색하므로 다시 false 가 되지 않는다. */
     private volatile boolean ready = false;
-    private volatile int tableCount = 0;
-    private final List<TableSummary> tableSummaries = new ArrayList<>();
-
-    /** 테이블명 → 임베딩에 사용한 전체 텍스트 (검색 결과 반환용) */
-    private final Map<String, String> tableContentText = new ConcurrentHashMap<>();
-    /** 테이블명 → 이름 자체 매칭용 텍스트 */
-    private final Map<String, String> tableNameKeywordText = new ConcurrentHashMap<>();
-    /** 테이블명 → 코멘트 매칭용 텍스트 */
-    private final Map<String, String> tableCommentKeywordText = new ConcurrentHashMap<>();
-    /** 테이블명 → 컬럼명 매칭용 텍스트 */
-    private final Map<String, String> tableColumnKeywordText = new ConcurrentHashMap<>();
-    /** 테이블명 → remark 매칭용 텍스트 */
-    private final Map<String, String> tableRemarkKeywordText = new ConcurrentHashMap<>();
+    /** 저장소에 반영된 테이블 본문 해시 (최초 reload 시 생성) */
+    private TableIndexManifest manifest;
+    /** 현재 검색에 쓰는 인덱스 세대 */
+    private volatile IndexGeneration generation = IndexGeneration.initial(null);
 
     @Value("${db.schema-output-dir:docs/schema}")
     private String schemaPath;
 
+    /** embedAll 한 번에 넘길 테이블 수 */
+    @Value("${ai.vector-store.indexing.batch-size:64}")
+    private int indexBatchSize;
+
+    /** 저장소에 한 번에 반영할 테이블 수. 임베딩 배치를 모아 removeAll(ids) + addAll 한 쌍으로 보낸다. */
+    @Value("${ai.vector-store.indexing.write-batch-size:1024}")
+    private int writeBatchSize;
+
+    /** 테이블 JSON 파싱 병렬도 (0 이하이면 CPU 코어 수) */
+    @Value("${ai.vector-store.indexing.parallelism:0}")
+    private int indexParallelism;
+
+    /** 하이브리드 검색 1건의 벡터 검색 단계 전체(질의 임베딩 + 저장소 검색)를 기다리는 최대 시간 */
+    @Value("${ai.vector-store.search.deadline-ms:3000}")
+    private long searchDeadlineMs;
+
+    /** 하이브리드 검색 1건에서 만드는 벡터 질의(임베딩) 최대 수. 0 이하이면 제한 없음 */
+    @Value("${ai.vector-store.search.max-embeddings-per-request:8}")
+    private int maxEmbeddingsPerRequest;
+
+    /** 테이블명/컬럼명 오타 허용 편집 거리 (0 이면 사용 안 함). reload 시 symmetric-delete 색인을 만든다. */
+    @Value("${ai.vector-store.search.fuzzy.max-distance:2}")
+    private int fuzzyMaxDistance;
+
+    /** 오타 일치 점수 가중치 (테이블명 1.00 / 컬럼 0.85 에 곱함) */
+    @Value("${ai.vector-store.search.fuzzy.weight:0.9}")
+    private double fuzzyWeight;
+
+    /** 양자화 flat 인덱스의 recall 측정 질의 수 (0 이면 측정 안 함). 인덱싱 후 백그라운드에서 한 번 측정해 로그로 남긴다. */
+    @Value("${ai.vector-store.local.recall-sample-queries:0}")
+    private int recallSampleQueries;
+
+    /** 하이브리드 검색 점수판 (스레드별 재사용) */
+    private static final ThreadLocal<ScoreBoard> SCORE_BOARDS = ThreadLocal.withInitial(ScoreBoard::new);
+
+    /** 키워드별 벡터 검색 fan-out 용 가상 스레드 실행기 */
+    private final ExecutorService searchExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
     public VectorStoreService(ObjectMapper objectMapper, Environment env, ToolMetadataStore metadataStore,
                               KoreanQueryTranslator koreanTranslator,
-                              VectorStoreModeResolver modeResolver) {
+                              VectorStoreModeResolver modeResolver,
+                              QueryEmbeddingCache queryEmbeddingCache,
+                              SearchResultCache resultCache) {
         this.objectMapper = objectMapper;
         this.env = env;
         this.metadataStore = metadataStore;
         this.koreanTranslator = koreanTranslator;
         this.modeResolver = modeResolver;
+        this.queryEmbeddingCache = queryEmbeddingCache;
+        this.resultCache = resultCache;
     }
 
     @PostConstruct
@@ -84,23 +173,28 @@ public class VectorStoreService {
             logger.info("Initializing VectorStore with provider={} using strategy={}",
                     modeStrategy.provider(), modeStrategy.getClass().getSimpleName());
             this.embeddingModel = modeStrategy.createEmbeddingModel(env);
-            this.embeddingStore = modeStrategy.createTableStore(env);
+            this.multilingualModel = LocalOnnxEmbeddingModel.isMultilingual(embeddingModel);
+            this.queryPlanner = new QueryPlanner(koreanTranslator, multilingualModel, maxEmbeddingsPerRequest);
+            this.generation = IndexGeneration.initial(modeStrategy.createTableStore(env));
+            queryEmbeddingCache.bind(embeddingModel);
             // 인덱싱은 스키마 추출 완료 후 reload()에서 수행
         } catch (Exception e) {
             logger.error("Failed to initialize VectorStore: {}", e.getMessage(), e);
         }
     }
 
-    public void reload() {
+    @PreDestroy
+    public void shutdown() {
+        searchExecutor.shutdownNow();
+    }
+
+    /**
+     * 스키마 JSON 으로 다음 인덱스 세대를 만들어 교체한다.
+     * 만드는 동안에도 검색은 현재 세대로 계속 처리되며, 실패하면 현재 세대를 그대로 유지한다.
+     */
+    public synchronized void reload() {
         logger.info("Reloading and re-indexing knowledge base from {}...", schemaPath);
-        ready = false;
         try {
-            this.embeddingStore = modeStrategy.resetTableStore(this.embeddingStore, env);
-            tableContentText.clear();
-            tableNameKeywordText.clear();
-            tableCommentKeywordText.clear();
-            tableColumnKeywordText.clear();
-            tableRemarkKeywordText.clear();
             loadAndIndexDocs();
         } catch (Exception e) {
             logger.error("Failed to reload VectorStore: {}", e.getMessage(), e);
@@ -108,18 +202,21 @@ public class VectorStoreService {
     }
 
     public boolean isReady() { return ready; }
-    public int getTableCount() { return tableCount; }
-    public List<TableSummary> getTableSummaries() { return List.copyOf(tableSummaries); }
+    public int getTableCount() { return generation.summaries().size(); }
+    public List<TableSummary> getTableSummaries() { return generation.summaries(); }
     public EmbeddingModel getEmbeddingModel() { return embeddingModel; }
     public Environment getEnvironment() { return env; }
     public String getConfiguredProvider() { return modeStrategy.provider(); }
     public String getStoreType() { return modeStrategy.storeType(); }
 
+    /** 테이블 정의 JSON 디렉토리. 작업 디렉토리 기준으로 없으면 상위 디렉토리에서 찾는다. */
+    private File tablesDir() {
+        File dir = new File(schemaPath, "tables");
+        return dir.exists() ? dir : new File("../" + schemaPath + "/tables");
+    }
+
     private void loadAndIndexDocs() throws Exception {
-    	File dir = new File(schemaPath, "tables");
-    	if (!dir.exists()) {
-    		dir = new File("../" + schemaPath + "/tables");
-        }
+    	File dir = tablesDir();
         
         if (!dir.exists()) {
             logger.warn("Knowledge directory not found at {}. Skipping indexing.", dir.getAbsolutePath());
@@ -128,19 +225,344 @@ public class VectorStoreService {
         
         File[] listFiles = dir.listFiles((d, name) -> name.endsWith(".json"));
         if (listFiles == null) return;
-        tableCount = 0;
-        tableSummaries.clear();
-        tableContentText.clear();
-        tableNameKeywordText.clear();
-        tableCommentKeywordText.clear();
-        tableColumnKeywordText.clear();
-        tableRemarkKeywordText.clear();
-
-        for (File file : listFiles) {
-            logger.info("Indexing tables from {}...", file.getAbsolutePath());
-            JsonNode root = objectMapper.readTree(file);
 
-            List<TextSegment> segments = new ArrayList<>();
+        long started = System.nanoTime();
+        int parallelism = indexParallelism > 0 ? indexParallelism : Runtime.getRuntime().availableProcessors();
+        int batchSize = Math.max(1, indexBatchSize);
+        logger.info("Indexing {} table files from {} (parallelism={}, batchSize={})...",
+                listFiles.length, dir.getAbsolutePath(), parallelism, batchSize);
+
+        // 1. JSON 파싱과 본문 조립은 파일 단위로 독립적이므로 병렬로 수행한다.
+        List<ParsedTable> parsed;
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            parsed = pool.submit(() -> Arrays.stream(listFiles)
+                    .parallel()
+                    .map(this::parseTableFile)
+                    .filter(Objects::nonNull)
+                    .toList()).get();
+        } finally {
+            pool.shutdown();
+        }
+        // 테이블 순번이 테이블명과 1:1 이 되도록 같은 이름의 정의는 처음 것만 쓴다.
+        Set<String> seenNames = new HashSet<>();
+        List<ParsedTable> unique = new ArrayList<>(parsed.size());
+        for (ParsedTable table : parsed) {
+            if (seenNames.add(table.tableName())) {
+                unique.add(table);
+            } else {
+                logger.warn("Duplicate table definition for {} ignored.", table.tableName());
+            }
+        }
+        parsed = unique;
+
+        // 다음 세대의 텍스트 색인은 새 객체로 만들고, 현재 세대는 건드리지 않는다.
+        Map<String, String> currentHashes = new LinkedHashMap<>();
+        for (ParsedTable table : parsed) {
+            currentHashes.put(table.tableName(), TableIndexManifest.hash(table.content()));
+        }
+        TableTextIndex textIndex = buildTextIndex(parsed);
+        long parsedAt = System.nanoTime();
+
+        // 2. 매니페스트와 비교해 추가/변경된 테이블만 임베딩하고, 삭제된 테이블은 id로 제거한다.
+        TableIndexManifest.Diff diff = prepareManifest(dir.getParentFile()).diff(currentHashes);
+        logger.info("Index diff: {} to embed, {} to remove, {} unchanged",
+                diff.upserts().size(), diff.removals().size(), diff.unchanged());
+
+        // 매니페스트가 비어 있으면 id 없이 들어간 이전 데이터가 남지 않도록 빈 저장소에서 시작하고,
+        // 그렇지 않으면 현재 세대 저장소의 사본(fork)에 변경분만 반영한다.
+        IndexGeneration current = generation;
+        boolean replaceExisting = !manifest.isEmpty();
+        EmbeddingStore<TextSegment> store = replaceExisting
+                ? modeStrategy.forkTableStore(current.store(), env)
+                : modeStrategy.resetTableStore(current.store(), env);
+
+        // 3. 임베딩은 embedAll 배치로, 저장은 addAll로 묶어 호출 횟수를 줄인다.
+        List<ParsedTable> toEmbed = parsed.stream()
+                .filter(t -> diff.upserts().containsKey(t.tableName()))
+                .toList();
+        if (!toEmbed.isEmpty()) {
+            logger.info("Embedding {} table definitions using {}...", toEmbed.size(), embeddingModel.getClass().getSimpleName());
+        }
+        int embedded = 0;
+        int flushSize = Math.max(batchSize, writeBatchSize);
+        List<String> pendingIds = new ArrayList<>();
+        List<TextSegment> pendingSegments = new ArrayList<>();
+        List<Embedding> pendingEmbeddings = new ArrayList<>();
+        try {
+            for (int from = 0; from < toEmbed.size(); from += batchSize) {
+                List<ParsedTable> batch = toEmbed.subList(from, Math.min(from + batchSize, toEmbed.size()));
+                List<TextSegment> segments = batch.stream()
+                        .map(t -> segmentOf(t, store))
+                        .toList();
+                pendingEmbeddings.addAll(embeddingModel.embedAll(segments).content());
+                pendingSegments.addAll(segments);
+                batch.forEach(t -> pendingIds.add(t.tableName()));
+                embedded += batch.size();
+                if (pendingIds.size() >= flushSize || embedded == toEmbed.size()) {
+                    writeBatch(store, replaceExisting, pendingIds, pendingEmbeddings, pendingSegments);
+                    logger.debug("Indexed {}/{} tables", embedded, toEmbed.size());
+                }
+            }
+            if (!diff.removals().isEmpty()) {
+                store.removeAll(diff.removals());
+            }
+            // 저장소를 먼저 기록한 뒤 매니페스트를 갱신해야, 중간에 중단돼도 매니페스트가 저장소보다 앞서지 않는다.
+            modeStrategy.flushTableStore(store);
+        } catch (RuntimeException e) {
+            // 기록하지 못한 쓰기가 저장소에 남아 다음 reload 때 매니페스트와 다른 상태로 기록되지 않게 버린다.
+            try {
+                modeStrategy.discardTableStore(store);
+            } catch (RuntimeException discardFailure) {
+                e.addSuppressed(discardFailure);
+            }
+            throw e;
+        }
+        manifest.apply(diff);
+
+        // 4. 참조 한 번으로 새 세대를 발행한다.
+        publish(parsed, store, textIndex);
+        int tableCount = parsed.size();
+        long finished = System.nanoTime();
+        double seconds = Math.max((finished - started) / 1_000_000_000.0, 0.001);
+        logger.info("Knowledge base indexing complete. Generation {}, total tables: {}, embedded: {} (parse {} ms, embed {} ms, {} tables/s)",
+                generation.version(), tableCount, embedded,
+                (parsedAt - started) / 1_000_000,
+                (finished - parsedAt) / 1_000_000,
+                String.format("%.1f", tableCount / seconds));
+        if (store instanceof FlatVectorEmbeddingStore flat) {
+            logger.info("Flat vector index: {} rows, {} KB vectors, simd={}",
+                    flat.size(), flat.vectorBytes() / 1024, VectorOps.SIMD_AVAILABLE);
+            if (flat.quantization() != FlatVectorEmbeddingStore.Quantization.NONE) {
+                logger.info("Quantized index ({}): {} KB heap codes + {} KB off-heap full-precision = {} KB total",
+                        flat.quantization(), flat.vectorBytes() / 1024, flat.offHeapBytes() / 1024,
+                        (flat.vectorBytes() + flat.offHeapBytes()) / 1024);
+                if (recallSampleQueries > 0) {
+                    sampleRecallInBackground(flat);
+                }
+            }
+        } else if (store instanceof HnswEmbeddingStore hnsw) {
+            logger.info("HNSW vector index: {} live nodes", hnsw.size());
+        } else if (store instanceof LuceneEmbeddingStore lucene) {
+            logger.info("Lucene index: {} documents", lucene.size());
+        }
+        saveSnapshot(parsed, currentHashes, store);
+    }
+
+    /** 질의마다 전수 비교를 하므로 reload 경로를 막지 않도록 가상 스레드에서 측정한다. */
+    private void sampleRecallInBackground(FlatVectorEmbeddingStore flat) {
+        Thread.ofVirtual().name("recall-sample").start(() -> {
+            try {
+                long started = System.nanoTime();
+                double recall = flat.sampleRecall(recallSampleQueries, 15, 0.2);
+                logger.info("Quantized index ({}): recall@15={} vs exact ({} perturbed queries, {} ms)",
+                        flat.quantization(), String.format("%.3f", recall), recallSampleQueries,
+                        (System.nanoTime() - started) / 1_000_000);
+            } catch (Exception e) {
+                logger.warn("Quantized index recall sampling failed: {}", e.getMessage());
+            }
+        });
+    }
+
+    /** 테이블 본문 세그먼트. 텍스트 색인을 함께 가진 저장소(HybridSearch)에는 필드별 본문을 메타데이터로 넘긴다. */
+    private static TextSegment segmentOf(ParsedTable table, EmbeddingStore<TextSegment> store) {
+        if (!(store instanceof HybridSearch)) {
+            return TextSegment.from(table.content());
+        }
+        Metadata fields = new Metadata()
+                .put(HybridSearch.FIELD_TABLE_NAME, table.tableName())
+                .put(HybridSearch.FIELD_COLUMNS, table.columnKeyword())
+                .put(HybridSearch.FIELD_COMMENT, table.commentKeyword())
+                .put(HybridSearch.FIELD_REMARKS, table.remarkKeyword());
+        return TextSegment.from(table.content(), fields);
+    }
+
+    /** 모아 둔 임베딩을 테이블명 id 로 저장소에 반영하고 버퍼를 비운다. */
+    private void writeBatch(EmbeddingStore<TextSegment> store, boolean replaceExisting,
+                            List<String> ids, List<Embedding> embeddings, List<TextSegment> segments) {
+        if (replaceExisting) {
+            // 변경된 테이블은 같은 id로 다시 넣기 전에 이전 벡터를 지운다.
+            // 직전 reload가 중간에 실패해 매니페스트에 없는 id가 남아 있을 수 있으므로 대상 전체를 지운다.
+            // 묶음 직전에 지워야 같은 컬렉션을 공유하는 chroma 에서 벡터가 빠져 있는 구간이 짧다.
+            store.removeAll(ids);
+        }
+        // 테이블명을 고정 id로 사용해야 다음 reload에서 변경분만 교체할 수 있다.
+        store.addAll(ids, embeddings, segments);
+        ids.clear();
+        embeddings.clear();
+        segments.clear();
+    }
+
+    private void publish(List<ParsedTable> parsed, EmbeddingStore<TextSegment> store, TableTextIndex textIndex) {
+        int n = parsed.size();
+        Map<String, String> contentText = new HashMap<>(n * 2);
+        List<TableSummary> summaries = new ArrayList<>(n);
+        Map<String, Integer> ordinals = new HashMap<>(n * 2);
+        double[] prefixBoosts = new double[n];
+        boolean[] masterPrefixed = new boolean[n];
+        for (int ord = 0; ord < n; ord++) {
+            ParsedTable table = parsed.get(ord);
+            String name = table.tableName();
+            contentText.put(name, table.content());
+            summaries.add(new TableSummary(name, table.comment(), table.columnCount()));
+            ordinals.put(name, ord);
+            prefixBoosts[ord] = calculatePrefixBoost(name, false);
+            masterPrefixed[ord] = name.toUpperCase().startsWith("M");
+        }
+        generation = new IndexGeneration(generation.version() + 1, store, textIndex,
+                Map.copyOf(contentText), List.copyOf(summaries),
+                Map.copyOf(ordinals), prefixBoosts, masterPrefixed);
+        // 캐시 키에 세대가 들어 있어 이전 결과는 조회되지 않지만, 메모리를 바로 돌려주기 위해 비운다.
+        resultCache.clear();
+        ready = true;
+    }
+
+    /**
+     * 디스크 스냅샷으로 테이블 인덱스를 복원해 바로 검색 가능한 세대를 발행한다 (기동 시 DB 추출/임베딩 전에 호출).
+     * 인메모리 저장소는 memory-map 한 벡터를 그대로 넣고, 영구 저장소(chroma/hnsw)는 저장소에 남은 벡터를 쓰고 본문/색인만 복원한다.
+     * @return 복원했으면 true. 스냅샷이 없거나 모델/포맷이 다르면 false (평소처럼 전체 인덱싱)
+     */
+    public synchronized boolean restoreSnapshot() {
+        if (!IndexSnapshot.enabled(env) || embeddingModel == null || generation.version() > 0) return false;
+        Path dir = IndexSnapshot.directory(env);
+        Path json = dir.resolve(TABLE_SNAPSHOT + ".json");
+        if (!Files.exists(json)) return false;
+        long started = System.nanoTime();
+        try {
+            TableSnapshot snapshot = objectMapper.readValue(json.toFile(), TableSnapshot.class);
+            if (snapshot.formatVersion() != IndexSnapshot.FORMAT_VERSION || !embeddingModelId().equals(snapshot.model())) {
+                logger.info("[Snapshot] {} was built with another model or format. Ignored.", json);
+                return false;
+            }
+            List<ParsedTable> parsed = snapshot.tables();
+            TableIndexManifest restored = newManifest(tablesDir().getParentFile());
+            EmbeddingStore<TextSegment> store;
+            if (modeStrategy.persistentStore()) {
+                store = generation.store();
+                restored.load(embeddingModelId(), modeStrategy.storedCount(store));
+                if (restored.isEmpty()) {
+                    // 저장소가 이 스냅샷과 맞는지 매니페스트로 확인할 수 없으면 평소처럼 전체 인덱싱한다.
+                    logger.info("[Snapshot] No matching manifest for the {} store. Ignored.", modeStrategy.storeType());
+                    return false;
+                }
+            } else {
+                IndexSnapshot.Vectors vectors = snapshot.vectorStamp() != 0
+                        ? IndexSnapshot.mapVectors(dir.resolve(TABLE_SNAPSHOT + ".vec"), snapshot.vectorStamp())
+                        : null;
+                if (vectors == null || vectors.count() != parsed.size()) {
+                    logger.info("[Snapshot] No usable vectors in {}. Ignored.", dir);
+                    return false;
+                }
+                store = modeStrategy.resetTableStore(generation.store(), env);
+                int batchSize = Math.max(1, indexBatchSize) * 16;
+                for (int from = 0; from < parsed.size(); from += batchSize) {
+                    int to = Math.min(from + batchSize, parsed.size());
+                    List<String> ids = new ArrayList<>(to - from);
+                    List<Embedding> embeddings = new ArrayList<>(to - from);
+                    List<TextSegment> segments = new ArrayList<>(to - from);
+                    for (int i = from; i < to; i++) {
+                        ids.add(parsed.get(i).tableName());
+                        embeddings.add(new Embedding(vectors.row(i)));
+                        segments.add(TextSegment.from(parsed.get(i).content()));
+                    }
+                    store.addAll(ids, embeddings, segments);
+                }
+                restored.restore(embeddingModelId(), snapshot.hashes());
+            }
+            manifest = restored;
+            publish(parsed, store, buildTextIndex(parsed));
+            logger.info("[Snapshot] Restored {} tables from {} in {} ms (vectors from {})",
+                    parsed.size(), dir, (System.nanoTime() - started) / 1_000_000,
+                    modeStrategy.persistentStore() ? modeStrategy.storeType() : "snapshot");
+            return true;
+        } catch (Exception e) {
+            logger.warn("[Snapshot] Restore from {} failed: {}", dir, e.getMessage());
+            return false;
+        }
+    }
+
+    /** 발행한 세대를 스냅샷으로 기록한다. 벡터는 flat 저장소일 때만 기록한다 (그 외 저장소는 자체 영속화). */
+    private void saveSnapshot(List<ParsedTable> parsed, Map<String, String> hashes, EmbeddingStore<TextSegment> store) {
+        if (!IndexSnapshot.enabled(env)) return;
+        long started = System.nanoTime();
+        Path dir = IndexSnapshot.directory(env);
+        try {
+            long vectorStamp = 0;
+            if (store instanceof FlatVectorEmbeddingStore flat && !parsed.isEmpty()) {
+                Map<String, float[]> byId = new HashMap<>(parsed.size() * 2);
+                flat.forEachVector(byId::put);
+                List<float[]> rows = new ArrayList<>(parsed.size());
+                for (ParsedTable table : parsed) {
+                    float[] vector = byId.get(table.tableName());
+                    if (vector == null) break;
+                    rows.add(vector);
+                }
+                if (rows.size() == parsed.size()) {
+                    vectorStamp = IndexSnapshot.writeVectors(dir.resolve(TABLE_SNAPSHOT + ".vec"), rows, rows.get(0).length);
+                }
+            }
+            IndexSnapshot.writeJson(objectMapper, dir.resolve(TABLE_SNAPSHOT + ".json"),
+                    new TableSnapshot(IndexSnapshot.FORMAT_VERSION, embeddingModelId(), vectorStamp, parsed, hashes));
+            logger.info("[Snapshot] Saved {} tables (vectors={}) to {} in {} ms",
+                    parsed.size(), vectorStamp != 0, dir, (System.nanoTime() - started) / 1_000_000);
+        } catch (Exception e) {
+            logger.warn("[Snapshot] Save to {} failed: {}", dir, e.getMessage());
+        }
+    }
+
+    private TableTextIndex buildTextIndex(List<ParsedTable> parsed) {
+        int n = parsed.size();
+        String[] tableNames = new String[n];
+        String[] names = new String[n];
+        String[] columns = new String[n];
+        String[] comments = new String[n];
+        String[] remarks = new String[n];
+        for (int i = 0; i < n; i++) {
+            ParsedTable t = parsed.get(i);
+            tableNames[i] = t.tableName();
+            names[i] = t.nameKeyword();
+            columns[i] = t.columnKeyword();
+            comments[i] = t.commentKeyword();
+            remarks[i] = t.remarkKeyword();
+        }
+        TableTextIndex index = new TableTextIndex(tableNames, names, columns, comments, remarks,
+                koreanTranslator.analyzer(), fuzzyWeight > 0 ? fuzzyMaxDistance : 0);
+        if (index.fuzzyDeleteCount() > 0) {
+            logger.info("[Hybrid] Fuzzy name index: {} deletes (max distance {})", index.fuzzyDeleteCount(), fuzzyMaxDistance);
+        }
+        return index;
+    }
+
+    /**
+     * 최초 reload 시 매니페스트를 준비한다.
+     * 영구 저장소(chroma 등)는 그 저장소의 디스크 매니페스트를 이어서 쓰되, 저장소 행 수가 맞지 않으면 전체 재인덱싱한다.
+     * 인메모리 저장소는 프로세스 시작 시 비어 있으므로 무시한다.
+     */
+    private TableIndexManifest prepareManifest(File schemaDir) {
+        if (manifest == null) {
+            manifest = newManifest(schemaDir);
+            if (modeStrategy.persistentStore()) {
+                manifest.load(embeddingModelId(), modeStrategy.storedCount(generation.store()));
+            } else {
+                manifest.reset(embeddingModelId());
+            }
+        }
+        return manifest;
+    }
+
+    private TableIndexManifest newManifest(File schemaDir) {
+        return new TableIndexManifest(objectMapper, schemaDir, modeStrategy.provider(), modeStrategy.storeIdentity(env));
+    }
+
+    /** 임베딩 모델 식별자 (매니페스트/스냅샷 호환성 확인용) */
+    String embeddingModelId() {
+        String name = embeddingModel.modelName();
+        return embeddingModel.getClass().getName() + (name != null ? ":" + name : "");
+    }
+
+    private ParsedTable parseTableFile(File file) {
+        try {
+            JsonNode root = objectMapper.readTree(file);
 
             String tableName = root.path("tableName").asText();
             String comment   = root.path("comment").asText();
@@ -151,8 +573,6 @@ public class VectorStoreService {
             content.append("Columns:\n");
 
             // 검색 시 이름/코멘트/컬럼/remark에 서로 다른 가중치를 주기 위해 분리 저장한다.
-            String nameKeyword = tableName.toLowerCase();
-            String commentKeyword = comment.toLowerCase();
             StringBuilder columnKeyword = new StringBuilder();
             StringBuilder remarkKeyword = new StringBuilder();
 
@@ -176,165 +596,277 @@ public class VectorStoreService {
                 }
             }
 
-            segments.add(TextSegment.from(content.toString()));
-            tableContentText.put(tableName, content.toString());
-            tableNameKeywordText.put(tableName, nameKeyword);
-            tableCommentKeywordText.put(tableName, commentKeyword);
-            tableColumnKeywordText.put(tableName, columnKeyword.toString());
-            tableRemarkKeywordText.put(tableName, remarkKeyword.toString());
-
             int colCount = columns.isArray() ? columns.size() : 0;
-            tableSummaries.add(new TableSummary(tableName, comment, colCount));
-
-            if (!segments.isEmpty()) {
-                logger.info("Embedding {} table definitions using {}...", segments.size(), embeddingModel.getClass().getSimpleName());
-                for (TextSegment segment : segments) {
-                    embeddingStore.add(embeddingModel.embed(segment).content(), segment);
-                }
-                tableCount++;
-                logger.info("Successfully indexed {} tables.", segments.size());
-            }
-
+            return new ParsedTable(tableName, comment, content.toString(),
+                    tableName.toLowerCase(), comment.toLowerCase(),
+                    columnKeyword.toString(), remarkKeyword.toString(), colCount);
+        } catch (Exception e) {
+            logger.error("Failed to parse table definition {}: {}", file.getAbsolutePath(), e.getMessage());
+            return null;
         }
-        ready = true;
-        logger.info("Knowledge base indexing complete. Total tables: {}", tableCount);
     }
+
     public List<String> search(String query) {
-        return hybridSearch(query, DEFAULT_SEARCH_CNT);
+        return cachedSearch(query, DEFAULT_SEARCH_CNT);
     }
 
     public List<String> search(String query, int maxResults) {
-        return hybridSearch(query, Math.min(maxResults, 30));
+        return cachedSearch(query, Math.min(maxResults, 30));
+    }
+
+    public Map<String, Object> getResultCacheStats() { return resultCache.stats(); }
+
+    /**
+     * 한국어 사전을 다시 읽고, 현재 세대의 텍스트 색인을 새 사전 분석기로 다시 만들어 다음 세대로 발행한다.
+     * 세대 번호가 바뀌므로 진행 중인 검색이 이전 사전으로 만든 결과를 캐시에 넣어도 이후 검색에는 쓰이지 않는다.
+     * @return 로드한 사전 항목 수
+     */
+    public synchronized int reloadKoreanDictionary() throws IOException {
+        int entries = koreanTranslator.reload();
+        IndexGeneration current = generation;
+        if (current.version() > 0) {
+            generation = new IndexGeneration(current.version() + 1, current.store(),
+                    current.textIndex().withAnalyzer(koreanTranslator.analyzer()),
+                    current.contentText(), current.summaries(), current.ordinals(),
+                    current.prefixBoosts(), current.masterPrefixed());
+            resultCache.clear();
+            logger.info("[KoreanDict] Text index rebuilt with {} entries. Generation {}", entries, generation.version());
+        }
+        return entries;
+    }
+
+    /**
+     * 같은 키워드 집합의 반복 검색은 결과 캐시에서 돌려준다.
+     * 벡터 검색이 마감 시간을 넘기거나 실패한 불완전한 결과는 캐시하지 않는다.
+     */
+    private List<String> cachedSearch(String query, int maxResults) {
+        IndexGeneration gen = generation;
+        if (!resultCache.isEnabled() || gen.version() == 0) {
+            return hybridSearch(gen, query, maxResults, new boolean[1]);
+        }
+        SearchResultCache.Key key = resultCache.key(query, maxResults, gen.version(), metadataStore.version());
+        List<String> cached = resultCache.get(key);
+        if (cached != null) {
+            logger.info("[Hybrid] query='{}' → {} results (cached)", query, cached.size());
+            return cached;
+        }
+        long started = System.nanoTime();
+        boolean[] incomplete = new boolean[1];
+        List<String> result = hybridSearch(gen, query, maxResults, incomplete);
+        if (!incomplete[0]) {
+            resultCache.put(key, result, System.nanoTime() - started);
+        }
+        return result;
     }
 
     /**
      * 하이브리드 검색: 텍스트 키워드 매칭 + 벡터 유사도 병합.
      *
-     * 점수 체계 (텍스트 매칭은 한국어에서 특히 유리):
-     *   - 테이블명 정확 일치      : 1.00
-     *   - 테이블명 포함           : 0.90
-     *   - 코멘트/컬럼명/remark 포함: 0.70
-     *   - 벡터 유사도             : cosine * 0.85 (영어 특화 모델 보정)
-     * 같은 테이블에 여러 점수가 있으면 최대값 사용.
+     * 점수 체계 (TableTextIndex 필드 가중치, 텍스트 매칭은 한국어에서 특히 유리):
+     *   - 테이블명 정확 일치      : 1.20
+     *   - 테이블명 포함           : 1.00
+     *   - 컬럼명 포함             : 0.85
+     *   - 코멘트 포함             : 0.72
+     *   - remark 포함             : 0.65
+     *   - 테이블명/컬럼명 오타    : 필드 점수(1.00 / 0.85) × fuzzy.weight (기본 0.9), 편집 거리 2 는 × 0.85
+     *   - 벡터 유사도             : 유사도 점수 × 0.85 (영어 특화 모델 보정, 다국어 모델은 보정 없음)
+     * 같은 테이블에 여러 점수가 있으면 최대값을 쓰고, tool-metadata.json 가중치를 곱한 뒤 prefix / 의도 가산점을 더한다.
+     * lucene 저장소는 같은 가중치로 텍스트와 벡터 점수를 엔진 안에서 계산한다.
      */
-    private List<String> hybridSearch(String query, int maxResults) {
-        if (embeddingStore == null || embeddingModel == null) {
+    private List<String> hybridSearch(IndexGeneration gen, String query, int maxResults, boolean[] incomplete) {
+        // 검색 한 건은 시작 시점의 세대만 읽는다. 도중에 reload 가 새 세대를 발행해도 결과가 섞이지 않는다.
+        if (gen.store() == null || embeddingModel == null) {
             logger.warn("Search failed: VectorStore is not initialized.");
             return List.of();
         }
 
-        // 한국어 키워드를 영어로 번역하여 쉼표로 추가 (원문은 텍스트 매칭, 번역어는 벡터 검색에 기여)
-        StringBuilder expandedQuery = new StringBuilder(query);
-        for (String raw : query.split(",")) {
-            String translated = koreanTranslator.translate(raw.trim());
-            if (!translated.equals(raw.trim()) && !translated.isBlank()) {
-                expandedQuery.append(",").append(translated);
-                logger.info("[Hybrid] Korean expanded: '{}' → appended '{}'", raw.trim(), translated);
-            }
-        }
-        String[] keywords = expandedQuery.toString().split(",");
-        // tableName → 최고 점수
-        Map<String, Double> scoreMap = new LinkedHashMap<>();
+        // 질의 계획: 키워드 정규화/중복 제거, 한국어 번역어 추가(텍스트 매칭용), 원문+번역어를 벡터 질의 하나로 병합,
+        // 테이블명 정확 일치 키워드는 벡터 검색 생략, 요청당 임베딩 수 제한.
+        QueryPlanner.Plan plan = queryPlanner.plan(query, gen.textIndex());
+        String[] keywords = plan.keywords();
+        // 테이블 순번 → 최고 점수. 스레드별 점수판을 재사용해 검색마다 맵/박싱 없이 누적한다.
+        ScoreBoard board = SCORE_BOARDS.get();
+        TableTextIndex index = gen.textIndex();
+        board.reset(index.size());
+        // 세대에 없는 테이블명 (원격 저장소에 남은 이전 데이터 등, 드묾)
+        Map<String, Double> unindexed = null;
         // "마스터/기준/코드" 계열 질의는 M-prefix 테이블에 추가 가산점을 준다.
         boolean masterIntent = hasMasterIntent(keywords);
 
-        for (String raw : keywords) {
-            String kw    = raw.trim();
-            String kwLow = kw.toLowerCase();
-            if (kwLow.isEmpty()) continue;
-
-            // ── 1. 텍스트 키워드 매칭 (한국어 친화적) ──────────────────────
-            for (String tName : tableNameKeywordText.keySet()) {
-                double textScore = calculateTextScore(tName, kwLow);
-                if (textScore > 0) {
-                    scoreMap.merge(tName, textScore, Math::max);
-                }
-            }
-
-            // ── 2. 벡터 유사도 검색 (영어 의미 커버) ──────────────────────
-            logger.info("[Hybrid] Vector search: '{}'", kw);
-            EmbeddingSearchRequest req = EmbeddingSearchRequest.builder()
-                    .queryEmbedding(embeddingModel.embed(kw).content())
-                    .maxResults(maxResults * 2)
-                    .minScore(0.3)
-                    .build();
-            List<EmbeddingMatch<TextSegment>> vectorMatches = embeddingStore.search(req).matches();
-
+        // ── 1. 벡터 유사도 검색 (영어 의미 커버) ──────────────────────
+        // 계획된 벡터 질의 전부를 embedAll 한 번으로 임베딩하고 저장소 다중 질의 검색 한 번으로 찾는다
+        // (인메모리: 행렬 1회 스캔, chroma: /query 1건). 텍스트 매칭은 그동안 호출 스레드에서 진행한다.
+        List<String> vectorTexts = plan.vectorTexts();
+        double vectorWeight = multilingualModel ? 1.0 : 0.85; // 영어 모델 보정
+        // lucene 처럼 텍스트/벡터 색인을 한 엔진에 가진 저장소는 키워드마다 질의 한 건으로 둘 다 검색한다 (점수에 가중치 반영됨).
+        HybridSearch engine = gen.store() instanceof HybridSearch hybrid ? hybrid : null;
+        List<String> searchKeywords = engine != null ? plan.textKeywords() : vectorTexts;
+        Future<List<List<EmbeddingMatch<TextSegment>>>> vectorTask = searchKeywords.isEmpty()
+                ? null
+                : searchExecutor.submit(() -> engine != null
+                        ? engineSearch(engine, plan, maxResults * 2, vectorWeight)
+                        : vectorSearch(gen.store(), vectorTexts, maxResults * 2));
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(searchDeadlineMs);
+
+        // ── 2. 텍스트 키워드 매칭 (한국어 친화적) ──────────────────────
+        // 필드별 n-gram 역색인으로 후보만 확인한다 (테이블명 1.20/1.00, 컬럼 0.85, 코멘트 0.72, remark 0.65).
+        if (engine == null) {
+            matchText(index, keywords, board);
+        }
+        // 오타 허용 테이블명/컬럼명 조회 (symmetric-delete 색인, 키워드당 조회 수 일정). 통합 검색 엔진과 무관하게 메모리 색인으로 한다.
+        matchFuzzy(index, keywords, board);
+
+        // 모든 키워드 결과가 모인 뒤에 한 번에 점수판으로 병합한다.
+        List<List<EmbeddingMatch<TextSegment>>> vectorResults = vectorTask == null
+                ? List.of()
+                : awaitVectorSearch(searchKeywords, vectorTask, deadline);
+        if (vectorResults == null) {
+            incomplete[0] = true;
+            vectorResults = List.of();
+            // 통합 검색이 실패하면 텍스트 점수만이라도 메모리 색인으로 채운다.
+            if (engine != null) matchText(index, keywords, board);
+        }
+        double matchWeight = engine != null ? 1.0 : vectorWeight;
+        for (List<EmbeddingMatch<TextSegment>> vectorMatches : vectorResults) {
             for (EmbeddingMatch<TextSegment> match : vectorMatches) {
-                String text      = match.embedded().text();
-                String firstLine = text.lines().findFirst().orElse("").trim();
-                String tName     = firstLine.startsWith("Table:") ? firstLine.substring(6).trim() : firstLine;
-                double vecScore  = match.score() * 0.85; // 영어 모델 보정
-                scoreMap.merge(tName, vecScore, Math::max);
+                String tName     = tableNameOf(match.embedded().text());
+                double vecScore  = match.score() * matchWeight;
+                Integer ord = gen.ordinals().get(tName);
+                if (ord != null) {
+                    board.max(ord, vecScore);
+                } else {
+                    if (unindexed == null) unindexed = new LinkedHashMap<>();
+                    unindexed.merge(tName, vecScore, Math::max);
+                }
             }
         }
 
-        // ── 3. tool-metadata.json 가중치 적용 ────────────────────────────
+        // ── 3. tool-metadata.json 가중치 + 4. prefix / 의도 기반 가산점 → 상위 maxResults 선택 ──
         // keywords 가 비어 있으면 모든 쿼리에 적용, 있으면 쿼리 키워드 포함 시에만 적용
-        Map<String, ToolMetadataStore.ToolMeta> allMeta = metadataStore.getAll();
-        if (!allMeta.isEmpty()) {
-            final String[] kwArr = keywords;
-            scoreMap.replaceAll((tableName, score) -> {
-                if (!allMeta.containsKey(tableName)) return score;
-                ToolMetadataStore.ToolMeta meta = allMeta.get(tableName);
-                boolean shouldBoost = java.util.Arrays.stream(kwArr)
-                        .anyMatch(k -> meta.matchesQuery(k.trim()));
-                if (shouldBoost) {
-                    double boosted = score * meta.boost();
-                    logger.debug("[Hybrid] boost applied: table={} {}× → score {} → {}",
-                            tableName, meta.boost(), String.format("%.4f", score), String.format("%.4f", boosted));
-                    return boosted;
-                }
-                return score;
-            });
+        // 규칙은 메타데이터 변경 시 컴파일되어 있으므로 질의를 한 번 훑어 발동 규칙만 표시한 뒤 테이블별로 조회한다.
+        // 전체 정렬 대신 크기 maxResults 의 최소 힙으로 O(n log k) 선택한다.
+        BoostRules boostRules = metadataStore.boostRules();
+        boolean[] fired = boostRules.isEmpty() ? null : boostRules.match(keywords);
+        TopKHeap top = new TopKHeap(maxResults);
+        for (int i = 0; i < board.touchedCount(); i++) {
+            int ord = board.touched(i);
+            double score = applyBoost(boostRules, fired, index.tableName(ord), board.score(ord));
+            top.offer(ord, score + gen.prefixBoost(ord, masterIntent));
+        }
+        List<String> unindexedNames = List.of();
+        if (unindexed != null) {
+            // 세대에 없는 테이블은 음수 id(-1, -2, ...)로 같은 힙에 넣는다.
+            unindexedNames = new ArrayList<>(unindexed.keySet());
+            for (int i = 0; i < unindexedNames.size(); i++) {
+                String name = unindexedNames.get(i);
+                double score = applyBoost(boostRules, fired, name, unindexed.get(name));
+                top.offer(-1 - i, score + calculatePrefixBoost(name, masterIntent));
+            }
         }
 
-        // ── 4. prefix / 의도 기반 가산점 적용 ──────────────────────────────
-        scoreMap.replaceAll((tableName, score) -> score + calculatePrefixBoost(tableName, masterIntent));
-
-        // ── 5. 점수 내림차순 정렬 후 반환 ─────────────────────────────────
-        List<String> result = scoreMap.entrySet().stream()
-                .sorted(Map.Entry.<String, Double>comparingByValue().reversed())
-                .limit(maxResults)
-                .map(e -> tableContentText.getOrDefault(e.getKey(), "Table: " + e.getKey()))
-                .filter(t -> !t.isEmpty())
-                .collect(Collectors.toList());
+        // ── 5. 점수 내림차순으로 꺼내 반환 ─────────────────────────────────
+        int[] ids = new int[top.size()];
+        double[] scores = new double[top.size()];
+        int n = top.drainDescending(ids, scores);
+        List<String> result = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            String name = ids[i] >= 0 ? index.tableName(ids[i]) : unindexedNames.get(-1 - ids[i]);
+            String text = gen.contentText().getOrDefault(name, "Table: " + name);
+            if (!text.isEmpty()) result.add(text);
+            if (logger.isDebugEnabled()) {
+                logger.debug("[Hybrid]  score={} table={}", String.format("%.4f", scores[i]), name);
+            }
+        }
 
         logger.info("[Hybrid] query='{}' → {} results", query, result.size());
+        return result;
+    }
+
+    private double applyBoost(BoostRules boostRules, boolean[] fired, String tableName, double score) {
+        if (fired == null) return score;
+        double multiplier = boostRules.multiplier(tableName, fired);
+        if (multiplier == 1.0) return score;
+        double boosted = score * multiplier;
         if (logger.isDebugEnabled()) {
-            scoreMap.entrySet().stream()
-                    .sorted(Map.Entry.<String, Double>comparingByValue().reversed())
-                    .limit(maxResults)
-                    .forEach(e -> logger.debug("[Hybrid]  score={} table={}",
-                            String.format("%.4f", e.getValue()), e.getKey()));
+            logger.debug("[Hybrid] boost applied: table={} {}× → score {} → {}",
+                    tableName, multiplier, String.format("%.4f", score), String.format("%.4f", boosted));
         }
-
-        return result;
+        return boosted;
     }
 
-    private double calculateTextScore(String tableName, String keywordLower) {
-        String nameLow = tableNameKeywordText.getOrDefault(tableName, "");
-        String commentLow = tableCommentKeywordText.getOrDefault(tableName, "");
-        String columnLow = tableColumnKeywordText.getOrDefault(tableName, "");
-        String remarkLow = tableRemarkKeywordText.getOrDefault(tableName, "");
+    /** 임베딩 본문 첫 줄 "Table: 이름" 에서 테이블명을 꺼낸다. */
+    private static String tableNameOf(String text) {
+        int end = text.indexOf('\n');
+        String firstLine = (end < 0 ? text : text.substring(0, end)).trim();
+        return firstLine.startsWith("Table:") ? firstLine.substring(6).trim() : firstLine;
+    }
 
-        // 테이블명 > 컬럼명 > 코멘트 > remark 순으로 신뢰도를 다르게 본다.
-        if (nameLow.equals(keywordLower)) {
-            return 1.20;
-        }
-        if (nameLow.contains(keywordLower)) {
-            return 1.00;
+    private static void matchText(TableTextIndex index, String[] keywords, ScoreBoard board) {
+        for (String raw : keywords) {
+            String kwLow = raw.trim().toLowerCase();
+            if (kwLow.isEmpty()) continue;
+            index.match(kwLow, board::max);
         }
-        if (columnLow.contains(keywordLower)) {
-            return 0.85;
+    }
+
+    private void matchFuzzy(TableTextIndex index, String[] keywords, ScoreBoard board) {
+        if (fuzzyWeight <= 0) return;
+        for (String raw : keywords) {
+            String kwLow = raw.trim().toLowerCase();
+            if (kwLow.isEmpty()) continue;
+            index.matchFuzzy(kwLow, fuzzyWeight, board::max);
         }
-        if (commentLow.contains(keywordLower)) {
-            return 0.72;
+    }
+
+    /**
+     * 텍스트+벡터 통합 검색. 계획의 벡터 질의는 대표 키워드(원문)에 붙이고, 나머지 키워드(번역어, 예산 초과분)는 텍스트로만 찾는다.
+     * 임베딩에 실패하면 텍스트로만 검색한다.
+     */
+    private List<List<EmbeddingMatch<TextSegment>>> engineSearch(HybridSearch engine, QueryPlanner.Plan plan,
+                                                                 int maxResults, double vectorWeight) {
+        logger.info("[Hybrid] Engine search: {} (vector: {})", plan.textKeywords(), plan.vectorTexts());
+        Map<String, Embedding> vectorByKeyword = new HashMap<>();
+        try {
+            if (!plan.vectorQueries().isEmpty()) {
+                List<Embedding> embeddings = queryEmbeddingCache.embedAll(plan.vectorTexts());
+                for (int i = 0; i < embeddings.size(); i++) {
+                    vectorByKeyword.put(plan.vectorQueries().get(i).keyword(), embeddings.get(i));
+                }
+            }
+        } catch (RuntimeException e) {
+            logger.warn("[Hybrid] Query embedding failed ({}). Text-only engine search.", e.getMessage());
         }
-        if (remarkLow.contains(keywordLower)) {
-            return 0.65;
+        List<Embedding> vectors = plan.textKeywords().stream().map(vectorByKeyword::get).toList();
+        return engine.hybridSearchAll(plan.textKeywords(), vectors, maxResults, vectorWeight);
+    }
+
+    /** 키워드 전부를 한 번에 임베딩하고 다중 질의 검색 한 번으로 찾는다. 결과는 keywords 순서. */
+    private List<List<EmbeddingMatch<TextSegment>>> vectorSearch(EmbeddingStore<TextSegment> store,
+                                                                 List<String> keywords, int maxResults) {
+        logger.info("[Hybrid] Vector search: {}", keywords);
+        List<Embedding> queries = queryEmbeddingCache.embedAll(keywords);
+        return modeStrategy.searchAll(store, queries, maxResults, 0.3);
+    }
+
+    /**
+     * 요청 마감 시간까지 벡터 검색을 기다린다. 초과하거나 실패하면 벡터 점수 없이 진행한다.
+     * @return 초과/실패 시 null
+     */
+    private List<List<EmbeddingMatch<TextSegment>>> awaitVectorSearch(List<String> keywords,
+                                                                     Future<List<List<EmbeddingMatch<TextSegment>>>> task,
+                                                                     long deadline) {
+        try {
+            return task.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            task.cancel(true);
+            logger.warn("[Hybrid] Vector search for {} exceeded {} ms deadline. Skipped.", keywords, searchDeadlineMs);
+        } catch (InterruptedException e) {
+            task.cancel(true);
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            logger.warn("[Hybrid] Vector search for {} failed: {}", keywords, e.getCause().getMessage());
         }
-        return 0.0;
+        return null;
     }
 
     private boolean hasMasterIntent(String[] keywords) {
@@ -342,7 +874,7 @@ public class VectorStoreService {
             String lowered = keyword.trim().toLowerCase();
             if (lowered.isEmpty()) continue;
             for (String intent : MASTER_INTENT_KEYWORDS) {
-                if (lowered.contains(intent.toLowerCase())) {
+                if (lowered.contains(intent)) {
                     return true;
                 }
             }
@@ -350,7 +882,7 @@ public class VectorStoreService {
         return false;
     }
 
-    private double calculatePrefixBoost(String tableName, boolean masterIntent) {
+    private static double calculatePrefixBoost(String tableName, boolean masterIntent) {
         String upper = tableName.toUpperCase();
         double boost = 0.0;
         if (upper.startsWith("M")) {
@@ -368,6 +900,7 @@ public class VectorStoreService {
     }
 
     private List<EmbeddingMatch<TextSegment>> searchMatches(String query, int maxResults) {
+        EmbeddingStore<TextSegment> embeddingStore = generation.store();
         if (embeddingStore == null || embeddingModel == null) {
             logger.warn("RAG Search failed: VectorStore is not initialized.");
             return List.of();
@@ -379,7 +912,7 @@ public class VectorStoreService {
                     "==================================================", query);
 
         EmbeddingSearchRequest searchRequest = EmbeddingSearchRequest.builder()
-                .queryEmbedding(embeddingModel.embed(query).content())
+                .queryEmbedding(queryEmbeddingCache.embed(query))
                 .maxResults(maxResults)
                 .build();
 
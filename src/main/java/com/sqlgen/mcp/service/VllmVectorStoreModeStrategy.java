@@ -0,0 +1,38 @@
+package com.sqlgen.mcp.service;
+
+import java.time.Duration;
+
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import dev.langchain4j.model.embedding.EmbeddingModel;
+import dev.langchain4j.model.openai.OpenAiEmbeddingModel;
+
+@Component
+public class VllmVectorStoreModeStrategy extends RemoteEmbeddingVectorStoreModeStrategy {
+    // vllm 모드는 vLLM 의 OpenAI 호환 /v1/embeddings 로 임베딩하고 저장소는 local 과 같은 인메모리 저장소를 쓴다.
+
+    @Override
+    public String provider() {
+        return "vllm";
+    }
+
+    @Override
+    protected String defaultModelName() {
+        // vLLM 은 서버가 띄운 모델 이름을 그대로 보내야 하므로 기본값이 없다.
+        return null;
+    }
+
+    @Override
+    protected EmbeddingModel createRemoteModel(Environment env, Duration timeout, int maxRetries) {
+        // vLLM 은 기본적으로 키를 검사하지 않지만 OpenAI 클라이언트는 값이 필요하다.
+        String apiKey = env.getProperty(prefix() + ".api-key", "");
+        return OpenAiEmbeddingModel.builder()
+                .baseUrl(env.getProperty(prefix() + ".base-url", "http://localhost:8000/v1"))
+                .modelName(modelName(env))
+                .apiKey(apiKey.isBlank() ? "EMPTY" : apiKey)
+                .timeout(timeout)
+                .maxRetries(maxRetries)
+                .build();
+    }
+}
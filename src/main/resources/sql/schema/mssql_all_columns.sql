@@ -0,0 +1,9 @@
+SELECT t.name AS TABLE_NAME, c.column_id as POS, c.name as NAME, TYPE_NAME(c.user_type_id) as TYPE, c.max_length as LEN, 
+(CASE WHEN pk.column_id IS NOT NULL THEN 'Y' ELSE 'N' END) as PK, 
+(CASE WHEN c.is_nullable = 1 THEN 'Y' ELSE 'N' END) as NULLABLE, CAST(p.value AS VARCHAR) as REMARK 
+FROM sys.tables t 
+JOIN sys.columns c ON c.object_id = t.object_id 
+LEFT JOIN (SELECT ic.object_id, ic.column_id FROM sys.index_columns ic JOIN sys.indexes i ON ic.object_id = i.object_id AND ic.index_id = i.index_id WHERE i.is_primary_key = 1) pk ON pk.object_id = c.object_id AND pk.column_id = c.column_id 
+LEFT JOIN sys.extended_properties p ON c.object_id = p.major_id AND c.column_id = p.minor_id AND p.name = 'MS_Description' 
+WHERE t.object_id = OBJECT_ID(t.name) 
+ORDER BY t.name, c.column_id
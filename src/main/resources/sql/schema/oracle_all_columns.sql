@@ -0,0 +1,18 @@
+SELECT 
+    ATC.TABLE_NAME, 
+    ATC.COLUMN_ID as POS, 
+    ATC.COLUMN_NAME as NAME, 
+    ATC.DATA_TYPE as TYPE, 
+    ATC.DATA_LENGTH as LEN, 
+    CASE WHEN PKC.COLUMN_NAME IS NOT NULL THEN 'Y' ELSE 'N' END as PK, 
+    ATC.NULLABLE, 
+    ACC.COMMENTS as REMARK 
+FROM USER_TAB_COLUMNS ATC
+JOIN USER_COL_COMMENTS ACC ON ATC.TABLE_NAME = ACC.TABLE_NAME AND ATC.COLUMN_NAME = ACC.COLUMN_NAME 
+LEFT JOIN (
+    SELECT UCC.TABLE_NAME, UCC.COLUMN_NAME 
+    FROM USER_CONS_COLUMNS UCC
+    JOIN USER_CONSTRAINTS UC ON UCC.CONSTRAINT_NAME = UC.CONSTRAINT_NAME 
+    WHERE UC.CONSTRAINT_TYPE = 'P'
+) PKC ON PKC.TABLE_NAME = ATC.TABLE_NAME AND PKC.COLUMN_NAME = ATC.COLUMN_NAME 
+ORDER BY ATC.TABLE_NAME, ATC.COLUMN_ID
@@ -0,0 +1,197 @@
+package com.sqlgen.mcp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.store.embedding.chroma.ChromaApiVersion;
+import dev.langchain4j.store.embedding.chroma.ChromaEmbeddingStore;
+
+/**
+ * BatchingEmbeddingStore 를 실제 ChromaEmbeddingStore(V2 API) 에 물려, /add · /delete 요청을 기록하는 스텁 서버로 확인한다.
+ */
+class BatchingEmbeddingStoreTest {
+
+    private static final String COLLECTION_PATH = "/api/v2/tenants/t/databases/d/collections/";
+    private static final String COLLECTION_ID = "c-1";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final List<List<String>> addRequests = Collections.synchronizedList(new ArrayList<>());
+    private final List<List<String>> deleteRequests = Collections.synchronizedList(new ArrayList<>());
+    /** 이 id 로 시작하는 묶음은 500 으로 응답한다 */
+    private final Set<String> failingFirstIds = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+    private volatile long writeDelayMillis;
+
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private ChromaEmbeddingStore chroma;
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        serverExecutor = Executors.newCachedThreadPool();
+        server.setExecutor(serverExecutor);
+        server.createContext("/", this::handle);
+        server.start();
+        chroma = ChromaEmbeddingStore.builder()
+                .apiVersion(ChromaApiVersion.V2)
+                .baseUrl("http://localhost:" + server.getAddress().getPort())
+                .tenantName("t")
+                .databaseName("d")
+                .collectionName("tables")
+                .build();
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    @Test
+    void addAllSendsOneRequestPerBatch() {
+        BatchingEmbeddingStore store = new BatchingEmbeddingStore(chroma, 100, 4);
+
+        store.addAll(ids(1050), embeddings(1050), segments(1050));
+
+        assertThat(addRequests).hasSize(11);
+        assertThat(addRequests).allSatisfy(batch -> assertThat(batch.size()).isLessThanOrEqualTo(100));
+        assertThat(addRequests.stream().flatMap(List::stream)).containsExactlyInAnyOrderElementsOf(ids(1050));
+    }
+
+    @Test
+    void singleBatchIsSentDirectly() {
+        BatchingEmbeddingStore store = new BatchingEmbeddingStore(chroma, 100, 4);
+
+        store.addAll(ids(40), embeddings(40), segments(40));
+
+        assertThat(addRequests).containsExactly(ids(40));
+    }
+
+    @Test
+    void concurrentRequestsAreCapped() {
+        writeDelayMillis = 50;
+        BatchingEmbeddingStore store = new BatchingEmbeddingStore(chroma, 10, 3);
+
+        store.addAll(ids(200), embeddings(200), segments(200));
+
+        assertThat(addRequests).hasSize(20);
+        assertThat(maxInFlight.get()).isBetween(2, 3);
+    }
+
+    @Test
+    void removeAllDeletesIdsInChunks() {
+        BatchingEmbeddingStore store = new BatchingEmbeddingStore(chroma, 100, 4);
+
+        store.removeAll(ids(250));
+
+        assertThat(deleteRequests).hasSize(3);
+        assertThat(deleteRequests.stream().map(List::size)).containsExactlyInAnyOrder(100, 100, 50);
+        assertThat(deleteRequests.stream().flatMap(List::stream)).containsExactlyInAnyOrderElementsOf(ids(250));
+    }
+
+    @Test
+    void firstFailureIsRethrownAfterOtherBatchesFinish() {
+        writeDelayMillis = 20;
+        failingFirstIds.add("t20");
+        failingFirstIds.add("t50");
+        BatchingEmbeddingStore store = new BatchingEmbeddingStore(chroma, 10, 2);
+
+        assertThatThrownBy(() -> store.addAll(ids(100), embeddings(100), segments(100)))
+                .hasMessageContaining("batch t20 failed");
+        // 실패한 두 묶음을 포함해 10개 묶음이 모두 전송된 뒤에 예외가 올라온다.
+        assertThat(addRequests).hasSize(10);
+        assertThat(inFlight.get()).isZero();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        String method = exchange.getRequestMethod();
+        try (exchange) {
+            if (method.equals("GET") && path.equals("/api/v2/tenants/t")) {
+                respond(exchange, 200, "{\"name\":\"t\"}");
+            } else if (method.equals("GET") && path.equals("/api/v2/tenants/t/databases/d")) {
+                respond(exchange, 200, "{\"id\":\"d-1\",\"name\":\"d\",\"tenant\":\"t\"}");
+            } else if (method.equals("GET") && path.equals(COLLECTION_PATH + "tables")) {
+                respond(exchange, 200, "{\"id\":\"" + COLLECTION_ID + "\",\"name\":\"tables\"}");
+            } else if (method.equals("POST") && path.equals(COLLECTION_PATH + COLLECTION_ID + "/add")) {
+                write(exchange, addRequests);
+            } else if (method.equals("POST") && path.equals(COLLECTION_PATH + COLLECTION_ID + "/delete")) {
+                write(exchange, deleteRequests);
+            } else {
+                respond(exchange, 404, "{\"error\":\"unexpected " + method + " " + path + "\"}");
+            }
+        }
+    }
+
+    private void write(HttpExchange exchange, List<List<String>> log) throws IOException {
+        int current = inFlight.incrementAndGet();
+        maxInFlight.accumulateAndGet(current, Math::max);
+        try {
+            JsonNode body = objectMapper.readTree(exchange.getRequestBody());
+            List<String> ids = new ArrayList<>();
+            body.get("ids").forEach(id -> ids.add(id.asText()));
+            if (writeDelayMillis > 0) Thread.sleep(writeDelayMillis);
+            log.add(ids);
+            if (!ids.isEmpty() && failingFirstIds.contains(ids.get(0))) {
+                respond(exchange, 500, "{\"error\":\"batch " + ids.get(0) + " failed\"}");
+            } else {
+                respond(exchange, 200, "{}");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            respond(exchange, 500, "{\"error\":\"interrupted\"}");
+        } finally {
+            inFlight.decrementAndGet();
+        }
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        exchange.getResponseBody().write(bytes);
+    }
+
+    private static List<String> ids(int n) {
+        List<String> ids = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) ids.add("t" + i);
+        return ids;
+    }
+
+    private static List<Embedding> embeddings(int n) {
+        List<Embedding> embeddings = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) embeddings.add(new Embedding(new float[] {i, 1f}));
+        return embeddings;
+    }
+
+    private static List<TextSegment> segments(int n) {
+        List<TextSegment> segments = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) segments.add(TextSegment.from("Table: t" + i));
+        return segments;
+    }
+}
@@ -0,0 +1,247 @@
+package com.sqlgen.mcp.service;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * 인메모리 ChromaDB V2 스텁 (tenant "t", database "d").
+ * ChromaEmbeddingStore 와 ChromaCollectionReader 가 쓰는 컬렉션 조회/생성/삭제, count, add, delete, get 을 흉내 낸다.
+ *
+ * 컬렉션은 이름으로 처음 조회할 때 만들어지고, 쓰기 요청마다 version 이 1 오른다. reportVersion 이 false 면
+ * version 을 주지 않는 구버전 서버처럼 응답한다. 다른 인스턴스의 쓰기는 put / remove 로 흉내 낸다.
+ */
+final class ChromaServerStub implements AutoCloseable {
+
+    static final String TENANT = "t";
+    static final String DATABASE = "d";
+    private static final String COLLECTIONS = "/api/v2/tenants/" + TENANT + "/databases/" + DATABASE + "/collections";
+
+    /** 요청 한 건의 기록. ids 는 add/delete 본문의 id 목록, include 는 get 본문의 include */
+    record Request(String method, String collection, String action, List<String> ids, List<String> include) {}
+
+    private record Row(float[] vector, String document) {}
+
+    private static final class Collection {
+        final String id;
+        final Map<String, Row> rows = new LinkedHashMap<>();
+        long version;
+
+        Collection(String id) {
+            this.id = id;
+        }
+    }
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    /** 이름 → 컬렉션 */
+    private final Map<String, Collection> collections = new LinkedHashMap<>();
+    private final List<Request> requests = Collections.synchronizedList(new ArrayList<>());
+    private int created;
+
+    volatile boolean reportVersion = true;
+
+    ChromaServerStub() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+        server.start();
+    }
+
+    String baseUrl() {
+        return "http://localhost:" + server.getAddress().getPort();
+    }
+
+    List<Request> requests() {
+        synchronized (requests) {
+            return List.copyOf(requests);
+        }
+    }
+
+    /** 쓰기/컬렉션 삭제 요청만 (조회 제외) */
+    List<Request> writes() {
+        return requests().stream()
+                .filter(r -> r.action().equals("add") || r.action().equals("delete") || r.method().equals("DELETE"))
+                .toList();
+    }
+
+    /** 벡터까지 읽은 /get 요청 (복제본 전체 읽기) */
+    List<Request> embeddingReads() {
+        return requests().stream()
+                .filter(r -> r.action().equals("get") && r.include().contains("embeddings"))
+                .toList();
+    }
+
+    void resetRequests() {
+        requests.clear();
+    }
+
+    synchronized List<String> ids(String collection) {
+        Collection c = collections.get(collection);
+        return c == null ? List.of() : List.copyOf(c.rows.keySet());
+    }
+
+    synchronized String document(String collection, String id) {
+        Collection c = collections.get(collection);
+        Row row = c == null ? null : c.rows.get(id);
+        return row == null ? null : row.document();
+    }
+
+    /** 다른 인스턴스의 쓰기: 행을 넣거나 바꾸고 version 을 올린다. */
+    synchronized void put(String collection, String id, float[] vector, String document) {
+        Collection c = collection(collection);
+        c.rows.put(id, new Row(vector, document));
+        c.version++;
+    }
+
+    /** 다른 인스턴스의 삭제 */
+    synchronized void remove(String collection, String id) {
+        Collection c = collection(collection);
+        c.rows.remove(id);
+        c.version++;
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private Collection collection(String name) {
+        return collections.computeIfAbsent(name, n -> new Collection("c-" + (++created)));
+    }
+
+    private Map.Entry<String, Collection> byId(String id) {
+        for (Map.Entry<String, Collection> e : collections.entrySet()) {
+            if (e.getValue().id.equals(id)) return e;
+        }
+        return null;
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String path = exchange.getRequestURI().getPath();
+            String method = exchange.getRequestMethod();
+            JsonNode body = method.equals("POST") ? objectMapper.readTree(exchange.getRequestBody()) : null;
+            String response;
+            synchronized (this) {
+                response = route(method, path, body);
+            }
+            if (response == null) {
+                respond(exchange, 404, "{\"error\":\"unexpected " + method + " " + path + "\"}");
+            } else {
+                respond(exchange, 200, response);
+            }
+        }
+    }
+
+    private String route(String method, String path, JsonNode body) throws IOException {
+        if (path.equals("/api/v2/tenants/" + TENANT)) return "{\"name\":\"" + TENANT + "\"}";
+        if (path.equals("/api/v2/tenants/" + TENANT + "/databases/" + DATABASE)) {
+            return "{\"id\":\"db-1\",\"name\":\"" + DATABASE + "\",\"tenant\":\"" + TENANT + "\"}";
+        }
+        if (path.equals(COLLECTIONS) && method.equals("POST")) {
+            String name = body.path("name").asText();
+            requests.add(new Request(method, name, "create", List.of(), List.of()));
+            return describe(name, collection(name));
+        }
+        if (!path.startsWith(COLLECTIONS + "/")) return null;
+        String[] parts = path.substring(COLLECTIONS.length() + 1).split("/");
+        if (parts.length == 1) {
+            String name = parts[0];
+            requests.add(new Request(method, name, "collection", List.of(), List.of()));
+            if (method.equals("DELETE")) {
+                collections.remove(name);
+                return "{}";
+            }
+            return describe(name, collection(name));
+        }
+        Map.Entry<String, Collection> entry = byId(parts[0]);
+        if (entry == null) return null;
+        Collection c = entry.getValue();
+        String action = parts[1];
+        List<String> ids = new ArrayList<>();
+        List<String> include = new ArrayList<>();
+        if (body != null) {
+            body.path("ids").forEach(id -> ids.add(id.asText()));
+            body.path("include").forEach(i -> include.add(i.asText()));
+        }
+        requests.add(new Request(method, entry.getKey(), action, ids, include));
+        switch (action) {
+            case "count":
+                return String.valueOf(c.rows.size());
+            case "add":
+                for (int i = 0; i < ids.size(); i++) {
+                    JsonNode vector = body.path("embeddings").path(i);
+                    float[] values = new float[vector.size()];
+                    for (int d = 0; d < values.length; d++) values[d] = (float) vector.path(d).asDouble();
+                    JsonNode document = body.path("documents").path(i);
+                    c.rows.putIfAbsent(ids.get(i), new Row(values, document.isTextual() ? document.asText() : null));
+                }
+                c.version++;
+                return "{}";
+            case "delete":
+                ids.forEach(c.rows::remove);
+                c.version++;
+                return "{}";
+            case "get":
+                return page(c, body);
+            default:
+                return null;
+        }
+    }
+
+    private String describe(String name, Collection c) throws IOException {
+        ObjectNode out = objectMapper.createObjectNode();
+        out.put("id", c.id);
+        out.put("name", name);
+        if (reportVersion) out.put("version", c.version);
+        return objectMapper.writeValueAsString(out);
+    }
+
+    private String page(Collection c, JsonNode body) throws IOException {
+        int limit = body.path("limit").asInt(Integer.MAX_VALUE);
+        int offset = body.path("offset").asInt(0);
+        List<String> include = new ArrayList<>();
+        body.path("include").forEach(i -> include.add(i.asText()));
+        ObjectNode out = objectMapper.createObjectNode();
+        ArrayNode ids = out.putArray("ids");
+        ArrayNode embeddings = include.contains("embeddings") ? out.putArray("embeddings") : null;
+        ArrayNode documents = include.contains("documents") ? out.putArray("documents") : null;
+        ArrayNode metadatas = include.contains("metadatas") ? out.putArray("metadatas") : null;
+        List<Map.Entry<String, Row>> rows = new ArrayList<>(c.rows.entrySet());
+        for (int i = offset; i < Math.min(rows.size(), offset + limit); i++) {
+            Map.Entry<String, Row> row = rows.get(i);
+            ids.add(row.getKey());
+            if (embeddings != null) {
+                ArrayNode vector = embeddings.addArray();
+                for (float v : row.getValue().vector()) vector.add(v);
+            }
+            if (documents != null) documents.add(row.getValue().document());
+            if (metadatas != null) metadatas.addObject();
+        }
+        return objectMapper.writeValueAsString(out);
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        exchange.getResponseBody().write(bytes);
+    }
+}
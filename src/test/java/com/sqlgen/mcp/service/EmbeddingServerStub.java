@@ -0,0 +1,157 @@
+package com.sqlgen.mcp.service;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * 원격 임베딩 서버 스텁. Ollama POST /api/embed 와 OpenAI 호환(vLLM) POST /v1/embeddings 를 흉내 낸다.
+ *
+ * 입력 "t37" 의 벡터는 [37, 1, 1, ...] 처럼 첫 성분에 입력 번호를 담아 응답 순서를 확인할 수 있게 한다.
+ * failing 이면 500 으로, delayMillis 만큼 늦게 응답한다. 받은 요청과 동시 처리 수를 기록한다.
+ */
+final class EmbeddingServerStub implements AutoCloseable {
+
+    /** 요청 한 건의 기록 */
+    record Request(String path, String model, List<String> inputs) {}
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final int dimension;
+    private final List<Request> requests = Collections.synchronizedList(new ArrayList<>());
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+
+    volatile boolean failing;
+    volatile long delayMillis;
+
+    EmbeddingServerStub(int dimension) throws IOException {
+        this.dimension = dimension;
+        this.server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+        server.start();
+    }
+
+    String baseUrl() {
+        return "http://localhost:" + server.getAddress().getPort();
+    }
+
+    List<Request> requests() {
+        synchronized (requests) {
+            return List.copyOf(requests);
+        }
+    }
+
+    /** 차원 확인용 "ping" 을 뺀 임베딩 요청 */
+    List<Request> embedRequests() {
+        return requests().stream().filter(r -> !r.inputs().equals(List.of("ping"))).toList();
+    }
+
+    int maxInFlight() {
+        return maxInFlight.get();
+    }
+
+    void resetCounters() {
+        requests.clear();
+        maxInFlight.set(0);
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String path = exchange.getRequestURI().getPath();
+            boolean ollama = path.equals("/api/embed");
+            if (!ollama && !path.equals("/v1/embeddings")) {
+                respond(exchange, 404, "{\"error\":\"not found\"}");
+                return;
+            }
+            int current = inFlight.incrementAndGet();
+            maxInFlight.accumulateAndGet(current, Math::max);
+            try {
+                JsonNode body = objectMapper.readTree(exchange.getRequestBody());
+                List<String> inputs = new ArrayList<>();
+                JsonNode input = body.path("input");
+                if (input.isArray()) {
+                    input.forEach(node -> inputs.add(node.asText()));
+                } else {
+                    inputs.add(input.asText());
+                }
+                requests.add(new Request(path, body.path("model").asText(), inputs));
+                if (delayMillis > 0) Thread.sleep(delayMillis);
+                if (failing) {
+                    respond(exchange, 500, "{\"error\":\"stub failure\"}");
+                    return;
+                }
+                respond(exchange, 200, ollama ? ollamaResponse(body, inputs) : openAiResponse(body, inputs));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                respond(exchange, 500, "{\"error\":\"interrupted\"}");
+            } finally {
+                inFlight.decrementAndGet();
+            }
+        }
+    }
+
+    private String ollamaResponse(JsonNode request, List<String> inputs) throws IOException {
+        ObjectNode out = objectMapper.createObjectNode();
+        out.put("model", request.path("model").asText());
+        ArrayNode embeddings = out.putArray("embeddings");
+        for (String input : inputs) {
+            embeddings.add(vector(input));
+        }
+        return objectMapper.writeValueAsString(out);
+    }
+
+    private String openAiResponse(JsonNode request, List<String> inputs) throws IOException {
+        ObjectNode out = objectMapper.createObjectNode();
+        out.put("object", "list");
+        out.put("model", request.path("model").asText());
+        ArrayNode data = out.putArray("data");
+        for (int i = 0; i < inputs.size(); i++) {
+            ObjectNode item = data.addObject();
+            item.put("object", "embedding");
+            item.put("index", i);
+            item.set("embedding", vector(inputs.get(i)));
+        }
+        ObjectNode usage = out.putObject("usage");
+        usage.put("prompt_tokens", inputs.size());
+        usage.put("total_tokens", inputs.size());
+        return objectMapper.writeValueAsString(out);
+    }
+
+    private ArrayNode vector(String input) {
+        ArrayNode vector = objectMapper.createArrayNode();
+        vector.add(input.matches("t\\d+") ? Float.parseFloat(input.substring(1)) : input.length());
+        for (int d = 1; d < dimension; d++) {
+            vector.add(1f);
+        }
+        return vector;
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        exchange.getResponseBody().write(bytes);
+    }
+}
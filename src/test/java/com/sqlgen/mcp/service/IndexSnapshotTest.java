@@ -0,0 +1,41 @@
+package com.sqlgen.mcp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * vec 파일은 json 에 기록된 stamp 와 짝이 맞을 때만 읽히는지 확인한다.
+ */
+class IndexSnapshotTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void vectorsAreMappedOnlyWithMatchingStamp() throws IOException {
+        Path file = dir.resolve("tables.vec");
+        long first = IndexSnapshot.writeVectors(file, List.of(new float[] {1, 2}, new float[] {3, 4}), 2);
+
+        IndexSnapshot.Vectors vectors = IndexSnapshot.mapVectors(file, first);
+        assertThat(vectors).isNotNull();
+        assertThat(vectors.count()).isEqualTo(2);
+        assertThat(vectors.row(1)).containsExactly(3, 4);
+
+        // 행 수가 같은 새 vec 로 교체된 뒤 json 을 쓰기 전에 중단된 경우: 이전 json 의 stamp 로는 읽히지 않는다.
+        long second = IndexSnapshot.writeVectors(file, List.of(new float[] {5, 6}, new float[] {7, 8}), 2);
+        assertThat(second).isNotEqualTo(first);
+        assertThat(IndexSnapshot.mapVectors(file, first)).isNull();
+        assertThat(IndexSnapshot.mapVectors(file, second).row(0)).containsExactly(5, 6);
+    }
+
+    @Test
+    void missingFileIsIgnored() throws IOException {
+        assertThat(IndexSnapshot.mapVectors(dir.resolve("none.vec"), 1)).isNull();
+    }
+}
@@ -0,0 +1,97 @@
+package com.sqlgen.mcp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * trie 기반 translate 가 이전 HashMap 최장 일치 구현(LegacyKoreanQueryTranslator)과 같은 문자열을 내는지 확인한다.
+ */
+class KoreanQueryTranslatorTest {
+
+    private static final String[] SPACES = {" ", " ", " ", "  ", "\t", " \t "};
+    private static final String[] OTHER_WORDS = {"lot", "EQP_STATUS", "status", "없는말", "ㅋㅋ", "設備", "1234"};
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void bundledDictionaryMatchesLegacyTranslation() throws IOException {
+        KoreanQueryTranslator translator = new KoreanQueryTranslator("");
+        translator.reload();
+        LegacyKoreanQueryTranslator legacy = new LegacyKoreanQueryTranslator(translator.getDictionary());
+
+        for (String query : queries(translator.getDictionary().keySet(), 5_000)) {
+            assertThat(translator.translate(query)).as("'%s'", query).isEqualTo(legacy.translate(query));
+        }
+    }
+
+    @Test
+    void overlappingPhrasesMatchLegacyTranslation() throws IOException {
+        Path dict = dir.resolve("dict.json");
+        Files.writeString(dict, """
+                {
+                  "설비": "equipment",
+                  "설비 상태": "equipment status",
+                  "설비 상태 이력 조회": "equipment status history query",
+                  "상태 이력": "status history",
+                  "이력": "history",
+                  "조회": "query",
+                  "설비상태": "equipment_status",
+                  "설": "snow",
+                  "a 설비": "a equipment"
+                }
+                """, StandardCharsets.UTF_8);
+        KoreanQueryTranslator translator = new KoreanQueryTranslator(dict.toString());
+        translator.reload();
+        LegacyKoreanQueryTranslator legacy = new LegacyKoreanQueryTranslator(translator.getDictionary());
+
+        List<String> queries = new ArrayList<>(List.of(
+                "설비 상태 이력 조회", "설비 상태 이력", "설비  상태\t이력 조회 목록", "  설비상태 이력 ", "설비상태이력",
+                "a 설비 상태", "A 설비", "설비 상태 이력 조회 설비 상태", "설", "설비설비", "lot only", "", "   "));
+        queries.addAll(queries(translator.getDictionary().keySet(), 2_000));
+        for (String query : queries) {
+            assertThat(translator.translate(query)).as("'%s'", query).isEqualTo(legacy.translate(query));
+        }
+        assertThat(translator.translate(null)).isNull();
+    }
+
+    /** 사전 키의 단어와 사전에 없는 단어를 1~7개 섞고 공백 종류/개수를 바꾼 검색어 (시드 고정) */
+    private static List<String> queries(Set<String> keys, int count) {
+        Set<String> words = new LinkedHashSet<>();
+        for (String key : keys) {
+            for (String word : key.trim().split("\\s+")) words.add(word);
+        }
+        List<String> vocabulary = new ArrayList<>(words);
+        vocabulary.addAll(List.of(OTHER_WORDS));
+        List<String> phrases = new ArrayList<>(keys);
+
+        Random random = new Random(42);
+        List<String> queries = new ArrayList<>(phrases);
+        for (int q = 0; q < count; q++) {
+            StringBuilder query = new StringBuilder();
+            if (random.nextInt(5) == 0) query.append(SPACES[random.nextInt(SPACES.length)]);
+            int parts = 1 + random.nextInt(7);
+            for (int p = 0; p < parts; p++) {
+                if (p > 0) query.append(SPACES[random.nextInt(SPACES.length)]);
+                query.append(random.nextInt(3) == 0
+                        ? phrases.get(random.nextInt(phrases.size()))
+                        : vocabulary.get(random.nextInt(vocabulary.size())));
+            }
+            if (random.nextInt(5) == 0) query.append(SPACES[random.nextInt(SPACES.length)]);
+            queries.add(query.toString());
+        }
+        return queries;
+    }
+}
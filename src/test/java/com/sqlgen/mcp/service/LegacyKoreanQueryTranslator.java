@@ -0,0 +1,61 @@
+package com.sqlgen.mcp.service;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.StringJoiner;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * double-array trie 도입 전의 KoreanQueryTranslator.translate (HashMap 최장 일치) 를 그대로 옮긴 비교용 구현.
+ * 새 번역기와 출력이 같은지 확인하는 테스트와 벤치마크에서만 쓴다.
+ */
+final class LegacyKoreanQueryTranslator {
+
+    private static final Logger logger = LoggerFactory.getLogger(LegacyKoreanQueryTranslator.class);
+    private static final int MAX_NGRAM = 4;
+
+    private final Map<String, String> dictionary;
+
+    LegacyKoreanQueryTranslator(Map<String, String> dictionary) {
+        this.dictionary = dictionary;
+    }
+
+    String translate(String query) {
+        if (dictionary.isEmpty() || query == null || query.isBlank()) return query;
+        if (!containsKorean(query)) return query;
+
+        String[] tokens = query.trim().split("\\s+");
+        StringJoiner result = new StringJoiner(" ");
+
+        int i = 0;
+        while (i < tokens.length) {
+            int maxLen = Math.min(MAX_NGRAM, tokens.length - i);
+            boolean matched = false;
+            for (int len = maxLen; len > 1; len--) {
+                String phrase = String.join(" ", Arrays.copyOfRange(tokens, i, i + len));
+                String translated = dictionary.get(phrase);
+                if (translated != null) {
+                    result.add(translated);
+                    i += len;
+                    matched = true;
+                    break;
+                }
+            }
+            if (!matched) {
+                String translated = dictionary.get(tokens[i]);
+                result.add(translated != null ? translated : tokens[i]);
+                i++;
+            }
+        }
+        String output = result.toString();
+        logger.debug("[KoreanDict] '{}' → '{}'", query, output);
+        return output;
+    }
+
+    private boolean containsKorean(String text) {
+        return text.chars().anyMatch(c -> c >= 0xAC00 && c <= 0xD7A3
+                || c >= 0x3130 && c <= 0x318F);
+    }
+}
@@ -0,0 +1,88 @@
+package com.sqlgen.mcp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.embedding.EmbeddingModel;
+import dev.langchain4j.model.embedding.onnx.PoolingMode;
+
+/**
+ * 내장 all-MiniLM-L6-v2 ONNX 파일을 임시 폴더에 풀어 모델 식별자와 query/passage 접두어 처리를 확인한다.
+ */
+class LocalOnnxEmbeddingModelTest {
+
+    @TempDir
+    static Path dir;
+    private static Path model;
+    private static Path tokenizer;
+
+    @BeforeAll
+    static void extractModel() throws IOException {
+        model = copy("all-minilm-l6-v2.onnx", dir.resolve("model.onnx"));
+        tokenizer = copy("all-minilm-l6-v2-tokenizer.json", dir.resolve("tokenizer.json"));
+    }
+
+    @Test
+    void modelIdChangesWithFilePoolingAndPrefixes() throws IOException {
+        String id = LocalOnnxEmbeddingModel.modelId(model, tokenizer, PoolingMode.MEAN, "", "");
+
+        assertThat(id).startsWith(model.toAbsolutePath().normalize() + "@" + Files.size(model) + ":")
+                .contains("pooling=mean")
+                .doesNotContain("prefix");
+        assertThat(LocalOnnxEmbeddingModel.modelId(model, tokenizer, PoolingMode.CLS, "", "")).isNotEqualTo(id);
+        assertThat(LocalOnnxEmbeddingModel.modelId(model, tokenizer, PoolingMode.MEAN, "query: ", "passage: "))
+                .isNotEqualTo(id);
+
+        // 같은 파일명이라도 다른 폴더의 파일이나 교체된 파일이면 다른 모델로 본다.
+        Path other = Files.createDirectories(dir.resolve("other")).resolve("model.onnx");
+        Files.copy(model, other);
+        assertThat(LocalOnnxEmbeddingModel.modelId(other, tokenizer, PoolingMode.MEAN, "", "")).isNotEqualTo(id);
+        Files.setLastModifiedTime(other, FileTime.fromMillis(Files.getLastModifiedTime(other).toMillis() + 60_000));
+        String touched = LocalOnnxEmbeddingModel.modelId(other, tokenizer, PoolingMode.MEAN, "", "");
+        Files.setLastModifiedTime(other, FileTime.fromMillis(Files.getLastModifiedTime(other).toMillis() + 60_000));
+        assertThat(LocalOnnxEmbeddingModel.modelId(other, tokenizer, PoolingMode.MEAN, "", "")).isNotEqualTo(touched);
+    }
+
+    @Test
+    void withoutPrefixesQueriesUseTheSameModel() throws Exception {
+        LocalOnnxEmbeddingModel plain = LocalOnnxEmbeddingModel.load(model, tokenizer, PoolingMode.MEAN, 1, 1, false, "", "");
+
+        assertThat(LocalOnnxEmbeddingModel.forQueries(plain)).isSameAs(plain);
+    }
+
+    @Test
+    void prefixesAreAppliedToPassagesAndQueries() throws Exception {
+        LocalOnnxEmbeddingModel plain = LocalOnnxEmbeddingModel.load(model, tokenizer, PoolingMode.MEAN, 1, 1, false, "", "");
+        LocalOnnxEmbeddingModel e5 = LocalOnnxEmbeddingModel.load(model, tokenizer, PoolingMode.MEAN, 1, 1, false,
+                "query: ", "passage: ");
+        EmbeddingModel queries = LocalOnnxEmbeddingModel.forQueries(e5);
+        String text = "equipment status history";
+
+        float[] passage = e5.embedAll(List.of(TextSegment.from(text))).content().get(0).vector();
+        float[] query = queries.embed(text).content().vector();
+
+        assertThat(passage).containsExactly(plain.embed("passage: " + text).content().vector());
+        assertThat(query).containsExactly(plain.embed("query: " + text).content().vector());
+        assertThat(query).isNotEqualTo(passage);
+        assertThat(queries.modelName()).isEqualTo(e5.modelName()).contains("query-prefix=query: ");
+        assertThat(queries.dimension()).isEqualTo(e5.dimension());
+    }
+
+    private static Path copy(String resource, Path target) throws IOException {
+        try (InputStream in = LocalOnnxEmbeddingModelTest.class.getClassLoader().getResourceAsStream(resource)) {
+            Files.copy(in, target);
+        }
+        return target;
+    }
+}
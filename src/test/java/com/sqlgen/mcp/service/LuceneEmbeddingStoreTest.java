@@ -0,0 +1,59 @@
+package com.sqlgen.mcp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.store.embedding.EmbeddingMatch;
+
+/**
+ * 실패한 reload 가 남긴 쓰기는 버려지고, 다음 reload 의 commit 에 섞여 기록되지 않는지 확인한다.
+ */
+class LuceneEmbeddingStoreTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void discardedWritesAreNotPersistedByNextCommit() {
+        LuceneVectorStoreModeStrategy strategy = new LuceneVectorStoreModeStrategy();
+        LuceneEmbeddingStore store = new LuceneEmbeddingStore(dir);
+        add(store, "A", 1, 0);
+        add(store, "B", 0, 1);
+        strategy.flushTableStore(store);
+
+        // 실패한 reload: B 삭제와 C 추가가 커밋 전에 남아 있다.
+        store.removeAll(List.of("B"));
+        add(store, "C", 1, 1);
+        strategy.discardTableStore(store);
+        assertThat(ids(store)).containsExactlyInAnyOrder("A", "B");
+
+        // 다음 reload 는 자기 변경만 커밋한다.
+        add(store, "D", 1, 0);
+        strategy.flushTableStore(store);
+        assertThat(ids(store)).containsExactlyInAnyOrder("A", "B", "D");
+    }
+
+    @Test
+    void emptyIndexIsSearchable() {
+        LuceneEmbeddingStore store = new LuceneEmbeddingStore(dir);
+        assertThat(store.loaded()).isFalse();
+        assertThat(store.size()).isZero();
+    }
+
+    private static void add(LuceneEmbeddingStore store, String id, float x, float y) {
+        store.addAll(List.of(id), List.of(new Embedding(new float[] {x, y, 1})), List.of(TextSegment.from(id)));
+    }
+
+    private static List<String> ids(LuceneEmbeddingStore store) {
+        return store.searchAll(List.of(new Embedding(new float[] {1, 1, 1})), 10, 0).get(0).stream()
+                .map(EmbeddingMatch::embeddingId)
+                .toList();
+    }
+}
@@ -0,0 +1,46 @@
+package com.sqlgen.mcp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * 임베딩 예산을 넘는 질의도 키워드 순서와 무관하게 같은 계획을 만들어, 같은 결과 캐시 키에 같은 결과가 들어가는지 확인한다.
+ */
+class QueryPlannerTest {
+
+    private final KoreanQueryTranslator translator = new KoreanQueryTranslator("");
+    private final SearchResultCache resultCache = new SearchResultCache(true, 10, 10);
+
+    @Test
+    void overBudgetPlanDoesNotDependOnKeywordOrder() {
+        QueryPlanner planner = new QueryPlanner(translator, true, 2);
+        String query = "zeta, Alpha, mid";
+        String permuted = "mid, zeta, alpha, MID";
+
+        QueryPlanner.Plan plan = planner.plan(query, TableTextIndex.empty());
+
+        assertThat(resultCache.key(permuted, 15, 1, 1)).isEqualTo(resultCache.key(query, 15, 1, 1));
+        assertThat(plan.vectorTexts()).containsExactly("alpha", "mid");
+        assertThat(planner.plan(permuted, TableTextIndex.empty())).isEqualTo(plan);
+    }
+
+    @Test
+    void sameTermsInDifferentOrderKeepTheSameRepresentative() {
+        QueryPlanner planner = new QueryPlanner(translator, true, 8);
+
+        QueryPlanner.Plan plan = planner.plan("order customer, customer order", TableTextIndex.empty());
+
+        assertThat(plan.textKeywords()).containsExactly("customer order");
+        assertThat(planner.plan("customer order, order customer", TableTextIndex.empty())).isEqualTo(plan);
+    }
+
+    @Test
+    void zeroBudgetEmbedsEveryKeyword() {
+        QueryPlanner planner = new QueryPlanner(translator, true, 0);
+
+        QueryPlanner.Plan plan = planner.plan("c, b, a, d", TableTextIndex.empty());
+
+        assertThat(plan.vectorTexts()).containsExactly("a", "b", "c", "d");
+    }
+}
@@ -0,0 +1,157 @@
+package com.sqlgen.mcp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.StandardEnvironment;
+
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.embedding.EmbeddingModel;
+
+/**
+ * Ollama / vLLM 전략이 만든 임베딩 모델을 스텁 서버에 붙여 요청 경로, 모델명, 배치, 기동 시/실행 중 로컬 대체를 확인한다.
+ */
+class RemoteEmbeddingVectorStoreModeStrategyTest {
+
+    private EmbeddingServerStub server;
+    private final Map<String, Object> properties = new HashMap<>();
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = new EmbeddingServerStub(8);
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.close();
+    }
+
+    @Test
+    void ollamaUsesDefaultModelNameForRequestsAndModelId() {
+        properties.put("ai.vector-store.providers.ollama.base-url", server.baseUrl());
+        properties.put("ai.vector-store.providers.ollama.batch-size", 10);
+
+        EmbeddingModel model = new OllamaVectorStoreModeStrategy().createEmbeddingModel(environment());
+        List<Embedding> embeddings = model.embedAll(segments(25)).content();
+
+        assertThat(model.modelName()).isEqualTo("ollama:nomic-embed-text");
+        assertThat(model.dimension()).isEqualTo(8);
+        assertThat(embeddings).hasSize(25);
+        assertThat(embeddings.get(24).vector()[0]).isEqualTo(24f);
+        assertThat(server.embedRequests()).hasSize(3);
+        assertThat(server.requests()).allSatisfy(r -> {
+            assertThat(r.path()).isEqualTo("/api/embed");
+            assertThat(r.model()).isEqualTo("nomic-embed-text");
+        });
+    }
+
+    @Test
+    void vllmSendsOpenAiEmbeddingRequests() {
+        properties.put("ai.vector-store.providers.vllm.base-url", server.baseUrl() + "/v1");
+        properties.put("ai.vector-store.providers.vllm.model-name", "bge-m3");
+        properties.put("ai.vector-store.providers.vllm.batch-size", 4);
+        properties.put("ai.vector-store.providers.vllm.max-concurrency", 2);
+        server.delayMillis = 50;
+
+        EmbeddingModel model = new VllmVectorStoreModeStrategy().createEmbeddingModel(environment());
+        server.resetCounters();
+        List<Embedding> embeddings = model.embedAll(segments(20)).content();
+
+        assertThat(model.modelName()).isEqualTo("vllm:bge-m3");
+        assertThat(embeddings).hasSize(20);
+        assertThat(embeddings.get(13).vector()[0]).isEqualTo(13f);
+        assertThat(server.embedRequests()).hasSize(5);
+        assertThat(server.maxInFlight()).isEqualTo(2);
+        assertThat(server.requests()).allSatisfy(r -> {
+            assertThat(r.path()).isEqualTo("/v1/embeddings");
+            assertThat(r.model()).isEqualTo("bge-m3");
+        });
+    }
+
+    @Test
+    void vllmRequiresModelName() {
+        properties.put("ai.vector-store.providers.vllm.base-url", server.baseUrl() + "/v1");
+
+        assertThatThrownBy(() -> new VllmVectorStoreModeStrategy().createEmbeddingModel(environment()))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("model-name");
+    }
+
+    @Test
+    void unreachableServerFallsBackToLocalModelAtStartup() {
+        String baseUrl = server.baseUrl();
+        server.close();
+        properties.put("ai.vector-store.providers.ollama.base-url", baseUrl);
+
+        EmbeddingModel model = new OllamaVectorStoreModeStrategy().createEmbeddingModel(environment());
+
+        assertThat(model.modelName()).isEqualTo("local-fallback:all-minilm-l6-v2");
+        assertThat(model.embedAll(segments(2)).content())
+                .allSatisfy(e -> assertThat(e.dimension()).isEqualTo(ResilientEmbeddingModel.LOCAL_DIMENSION));
+    }
+
+    @Test
+    void unreachableServerWithoutFallbackFailsRequests() {
+        String baseUrl = server.baseUrl();
+        server.close();
+        properties.put("ai.vector-store.providers.ollama.base-url", baseUrl);
+        properties.put("ai.vector-store.providers.ollama.fallback-to-local", false);
+
+        EmbeddingModel model = new OllamaVectorStoreModeStrategy().createEmbeddingModel(environment());
+
+        assertThat(model.modelName()).isEqualTo("ollama:nomic-embed-text");
+        assertThatThrownBy(() -> model.embedAll(segments(2))).isInstanceOf(RuntimeException.class);
+    }
+
+    @Test
+    void runtimeFailureFallsBackForAllMiniLmAndRecoversAfterCircuitCloses() throws Exception {
+        server.close();
+        server = new EmbeddingServerStub(ResilientEmbeddingModel.LOCAL_DIMENSION);
+        properties.put("ai.vector-store.providers.ollama.base-url", server.baseUrl());
+        properties.put("ai.vector-store.providers.ollama.model-name", "all-minilm");
+        properties.put("ai.vector-store.providers.ollama.circuit-breaker.failure-threshold", 1);
+        properties.put("ai.vector-store.providers.ollama.circuit-breaker.open-seconds", 1);
+
+        ResilientEmbeddingModel model = (ResilientEmbeddingModel) new OllamaVectorStoreModeStrategy()
+                .createEmbeddingModel(environment());
+        server.failing = true;
+        server.resetCounters();
+
+        // 원격 실패 → 로컬 all-MiniLM 벡터로 대체하고 서킷을 연다 (첫 대체 호출은 ONNX 모델 로딩을 포함한다).
+        Embedding local = model.embedAll(segments(1)).content().get(0);
+        assertThat(local.dimension()).isEqualTo(ResilientEmbeddingModel.LOCAL_DIMENSION);
+        assertThat(local.vector()[0]).isNotEqualTo(0f);
+        assertThat(model.circuitOpen()).isTrue();
+        assertThat(server.embedRequests()).hasSize(1);
+
+        Thread.sleep(1_100);
+        server.failing = false;
+        Embedding remote = model.embedAll(segments(1)).content().get(0);
+        assertThat(remote.vector()[0]).isEqualTo(0f);
+        assertThat(model.circuitOpen()).isFalse();
+        assertThat(server.embedRequests()).hasSize(2);
+    }
+
+    private StandardEnvironment environment() {
+        StandardEnvironment env = new StandardEnvironment();
+        env.getPropertySources().addFirst(new MapPropertySource("test", properties));
+        return env;
+    }
+
+    private static List<TextSegment> segments(int n) {
+        List<TextSegment> segments = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) segments.add(TextSegment.from("t" + i));
+        return segments;
+    }
+}
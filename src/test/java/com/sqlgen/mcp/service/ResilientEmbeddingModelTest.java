@@ -0,0 +1,204 @@
+package com.sqlgen.mcp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.embedding.EmbeddingModel;
+import dev.langchain4j.model.ollama.OllamaEmbeddingModel;
+import dev.langchain4j.model.output.Response;
+
+class ResilientEmbeddingModelTest {
+
+    private EmbeddingServerStub server;
+    private final AtomicInteger fallbackCalls = new AtomicInteger();
+
+    @AfterEach
+    void stopServer() {
+        if (server != null) server.close();
+    }
+
+    @Test
+    void embedAllSplitsIntoBatchesAndKeepsOrder() throws IOException {
+        server = new EmbeddingServerStub(8);
+        ResilientEmbeddingModel model = model("ollama:nomic-embed-text", 16, 4, 3, 30_000, false);
+
+        List<Embedding> embeddings = model.embedAll(segments(100)).content();
+
+        assertThat(server.embedRequests()).hasSize(7);
+        assertThat(server.embedRequests()).allSatisfy(r -> assertThat(r.inputs().size()).isLessThanOrEqualTo(16));
+        assertThat(embeddings).hasSize(100);
+        for (int i = 0; i < 100; i++) {
+            assertThat(embeddings.get(i).vector()[0]).isEqualTo(i);
+        }
+        assertThat(model.dimension()).isEqualTo(8);
+    }
+
+    @Test
+    void concurrentRequestsAreCappedAtMaxConcurrency() throws IOException {
+        server = new EmbeddingServerStub(8);
+        ResilientEmbeddingModel model = model("ollama:nomic-embed-text", 4, 2, 3, 30_000, false);
+        server.resetCounters();
+        server.delayMillis = 50;
+
+        model.embedAll(segments(40));
+
+        assertThat(server.embedRequests()).hasSize(10);
+        assertThat(server.maxInFlight()).isEqualTo(2);
+    }
+
+    @Test
+    void circuitOpensAfterConsecutiveFailures() throws IOException {
+        server = new EmbeddingServerStub(8);
+        ResilientEmbeddingModel model = model("ollama:nomic-embed-text", 16, 4, 2, 30_000, false);
+        server.failing = true;
+
+        assertThatThrownBy(() -> model.embedAll(segments(1))).isInstanceOf(RuntimeException.class);
+        assertThatThrownBy(() -> model.embedAll(segments(1))).isInstanceOf(RuntimeException.class);
+        assertThat(model.circuitOpen()).isTrue();
+        int sent = server.embedRequests().size();
+
+        assertThatThrownBy(() -> model.embedAll(segments(1))).hasMessageContaining("circuit is open");
+        assertThat(server.embedRequests()).hasSize(sent);
+    }
+
+    @Test
+    void halfOpenLetsOnlyOneProbeThroughAndClosesOnSuccess() throws Exception {
+        server = new EmbeddingServerStub(8);
+        ResilientEmbeddingModel model = model("ollama:nomic-embed-text", 16, 8, 1, 200, false);
+        server.failing = true;
+        assertThatThrownBy(() -> model.embedAll(segments(1))).isInstanceOf(RuntimeException.class);
+        assertThat(model.circuitOpen()).isTrue();
+
+        Thread.sleep(300);
+        server.failing = false;
+        server.delayMillis = 300;
+        server.resetCounters();
+        List<Callable<Boolean>> calls = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            calls.add(() -> {
+                try {
+                    model.embedAll(segments(1));
+                    return true;
+                } catch (IllegalStateException e) {
+                    return false;
+                }
+            });
+        }
+        List<Boolean> succeeded = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(calls.size())) {
+            for (Future<Boolean> result : executor.invokeAll(calls)) {
+                succeeded.add(result.get());
+            }
+        }
+
+        assertThat(server.embedRequests()).hasSize(1);
+        assertThat(succeeded).containsOnlyOnce(true);
+        assertThat(model.circuitOpen()).isFalse();
+
+        server.delayMillis = 0;
+        model.embedAll(segments(3));
+        assertThat(server.embedRequests()).hasSize(2);
+    }
+
+    @Test
+    void failedHalfOpenProbeReopensCircuit() throws Exception {
+        server = new EmbeddingServerStub(8);
+        ResilientEmbeddingModel model = model("ollama:nomic-embed-text", 16, 4, 1, 200, false);
+        server.failing = true;
+        assertThatThrownBy(() -> model.embedAll(segments(1))).isInstanceOf(RuntimeException.class);
+
+        Thread.sleep(300);
+        server.resetCounters();
+        assertThatThrownBy(() -> model.embedAll(segments(1))).isNotInstanceOf(IllegalStateException.class);
+        assertThat(server.embedRequests()).hasSize(1);
+
+        assertThatThrownBy(() -> model.embedAll(segments(1))).hasMessageContaining("circuit is open");
+        assertThat(server.embedRequests()).hasSize(1);
+    }
+
+    @Test
+    void runtimeFailureFallsBackOnlyForCompatibleModel() throws IOException {
+        server = new EmbeddingServerStub(ResilientEmbeddingModel.LOCAL_DIMENSION);
+        ResilientEmbeddingModel compatible = model("ollama:all-minilm", 16, 4, 3, 30_000, true);
+        ResilientEmbeddingModel other = model("ollama:nomic-embed-text", 16, 4, 3, 30_000, true);
+        server.failing = true;
+
+        List<Embedding> embeddings = compatible.embedAll(segments(3)).content();
+        assertThat(embeddings).hasSize(3);
+        assertThat(embeddings.get(0).vector()[0]).isEqualTo(-1f);
+        assertThat(fallbackCalls.get()).isEqualTo(1);
+
+        assertThatThrownBy(() -> other.embedAll(segments(3))).isInstanceOf(RuntimeException.class);
+        assertThat(fallbackCalls.get()).isEqualTo(1);
+    }
+
+    @Test
+    void unreachableAtStartupUsesLocalModelForTheProcess() throws IOException {
+        server = new EmbeddingServerStub(8);
+        String baseUrl = server.baseUrl();
+        server.close();
+        server = null;
+        ResilientEmbeddingModel model = new ResilientEmbeddingModel("ollama:nomic-embed-text",
+                remote(baseUrl, "nomic-embed-text"), this::fallbackModel, 16, 4, 3, 30_000);
+
+        assertThat(model.modelName()).isEqualTo("local-fallback:all-minilm-l6-v2");
+        assertThat(model.dimension()).isEqualTo(ResilientEmbeddingModel.LOCAL_DIMENSION);
+        assertThat(model.embedAll(segments(2)).content()).hasSize(2);
+        assertThat(fallbackCalls.get()).isEqualTo(1);
+    }
+
+    private ResilientEmbeddingModel model(String name, int batchSize, int maxConcurrency,
+                                          int failureThreshold, long openMillis, boolean fallback) {
+        String modelName = name.substring(name.indexOf(':') + 1);
+        return new ResilientEmbeddingModel(name, remote(server.baseUrl(), modelName),
+                fallback ? this::fallbackModel : null, batchSize, maxConcurrency, failureThreshold, openMillis);
+    }
+
+    private static EmbeddingModel remote(String baseUrl, String modelName) {
+        return OllamaEmbeddingModel.builder()
+                .baseUrl(baseUrl)
+                .modelName(modelName)
+                .timeout(Duration.ofSeconds(5))
+                .maxRetries(0)
+                .build();
+    }
+
+    /** 로컬 대체 모델 대역: 모든 성분이 -1 인 384차원 벡터 */
+    private EmbeddingModel fallbackModel() {
+        return new EmbeddingModel() {
+            @Override
+            public Response<List<Embedding>> embedAll(List<TextSegment> segments) {
+                fallbackCalls.incrementAndGet();
+                List<Embedding> out = new ArrayList<>(segments.size());
+                for (int i = 0; i < segments.size(); i++) {
+                    float[] vector = new float[ResilientEmbeddingModel.LOCAL_DIMENSION];
+                    Arrays.fill(vector, -1f);
+                    out.add(new Embedding(vector));
+                }
+                return Response.from(out);
+            }
+        };
+    }
+
+    private static List<TextSegment> segments(int n) {
+        List<TextSegment> segments = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) segments.add(TextSegment.from("t" + i));
+        return segments;
+    }
+}
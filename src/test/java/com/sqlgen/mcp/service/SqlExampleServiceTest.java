@@ -0,0 +1,156 @@
+package com.sqlgen.mcp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.StandardEnvironment;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sqlgen.mcp.model.SqlExample;
+
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.embedding.EmbeddingModel;
+import dev.langchain4j.model.output.Response;
+
+/**
+ * chroma 예시 컬렉션을 스텁 서버에 두고, 재기동해도 컬렉션을 비우지 않고 매니페스트로 바뀐 예시만 교체하는지 확인한다.
+ */
+class SqlExampleServiceTest {
+
+    private static final String COLLECTION = "sql_gen_examples";
+
+    @TempDir
+    Path dir;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private ChromaServerStub chroma;
+    private StandardEnvironment env;
+    private SqlExampleStore exampleStore;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        chroma = new ChromaServerStub();
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("ai.vector-store.provider", "chroma");
+        properties.put("ai.vector-store.chroma.url", chroma.baseUrl());
+        properties.put("ai.vector-store.chroma.tenant", ChromaServerStub.TENANT);
+        properties.put("ai.vector-store.chroma.database", ChromaServerStub.DATABASE);
+        properties.put("ai.vector-store.snapshot.enabled", false);
+        properties.put("db.schema-output-dir", dir.toString());
+        env = new StandardEnvironment();
+        env.getPropertySources().addFirst(new MapPropertySource("test", properties));
+        exampleStore = new SqlExampleStore(objectMapper, dir.resolve("sql-examples.json").toString());
+    }
+
+    @AfterEach
+    void stopServer() {
+        chroma.close();
+    }
+
+    @Test
+    void restartKeepsCollectionAndReplacesOnlyChangedExamples() {
+        SqlExample a = save("설비 상태 조회", "SELECT * FROM EQP_STATUS");
+        SqlExample b = save("로트 이력", "SELECT * FROM LOT_HIST");
+        SqlExample c = save("작업 지시", "SELECT * FROM WORK_ORDER");
+        start();
+        assertThat(chroma.ids(COLLECTION)).containsExactlyInAnyOrder(a.getId(), b.getId(), c.getId());
+
+        // 재기동: 바뀐 예시 없음 → 쓰기 없음
+        chroma.resetRequests();
+        start();
+        assertThat(chroma.writes()).isEmpty();
+
+        // 재기동: b 변경, c 삭제 → b 만 교체하고 c 만 지운다. 컬렉션 삭제는 없다.
+        b.setSql("SELECT LOT_ID FROM LOT_HIST");
+        exampleStore.save(b);
+        exampleStore.delete(c.getId());
+        chroma.resetRequests();
+        start();
+
+        assertThat(chroma.writes()).allSatisfy(r -> assertThat(r.method()).isEqualTo("POST"));
+        assertThat(chroma.writes().stream().filter(r -> r.action().equals("add")).flatMap(r -> r.ids().stream()))
+                .containsExactly(b.getId());
+        assertThat(chroma.ids(COLLECTION)).containsExactlyInAnyOrder(a.getId(), b.getId());
+        assertThat(chroma.document(COLLECTION, b.getId())).contains("SELECT LOT_ID FROM LOT_HIST");
+    }
+
+    @Test
+    void withoutManifestLegacyRowsAreRemovedByIdInsteadOfClearingCollection() {
+        SqlExample a = save("설비 상태 조회", "SELECT * FROM EQP_STATUS");
+        SqlExample b = save("로트 이력", "SELECT * FROM LOT_HIST");
+        // 이전 버전이 임의 id 로 넣은 행과, 같은 예시 id 로 들어 있지만 본문이 오래된 행
+        chroma.put(COLLECTION, "0b8c-legacy-1", new float[] {1, 0, 0, 0}, "[SQLEXAMPLE_ID:" + a.getId() + "]\nold");
+        chroma.put(COLLECTION, "0b8c-legacy-2", new float[] {0, 1, 0, 0}, "[SQLEXAMPLE_ID:gone]\nold");
+        chroma.put(COLLECTION, a.getId(), new float[] {0, 0, 1, 0}, "[SQLEXAMPLE_ID:" + a.getId() + "]\nstale");
+
+        start();
+
+        assertThat(chroma.writes()).noneMatch(r -> r.method().equals("DELETE"));
+        assertThat(chroma.ids(COLLECTION)).containsExactlyInAnyOrder(a.getId(), b.getId());
+        assertThat(chroma.document(COLLECTION, a.getId())).contains("SELECT * FROM EQP_STATUS");
+    }
+
+    @Test
+    void modelChangeReplacesEveryExample() {
+        SqlExample a = save("설비 상태 조회", "SELECT * FROM EQP_STATUS");
+        start("model-a");
+        chroma.resetRequests();
+
+        start("model-b");
+
+        assertThat(chroma.writes().stream().filter(r -> r.action().equals("add")).flatMap(r -> r.ids().stream()))
+                .containsExactly(a.getId());
+        assertThat(chroma.writes()).noneMatch(r -> r.method().equals("DELETE"));
+        assertThat(chroma.ids(COLLECTION)).containsExactly(a.getId());
+    }
+
+    private SqlExample save(String title, String sql) {
+        SqlExample example = SqlExample.create(title, "", sql, "", List.of());
+        exampleStore.save(example);
+        return example;
+    }
+
+    private SqlExampleService start() {
+        return start("test-model");
+    }
+
+    /** 새 프로세스처럼 서비스를 새로 만들어 기동한다. */
+    private SqlExampleService start(String modelId) {
+        VectorStoreService vectorStoreService = mock(VectorStoreService.class);
+        when(vectorStoreService.getEnvironment()).thenReturn(env);
+        when(vectorStoreService.getEmbeddingModel()).thenReturn(new TextLengthEmbeddingModel());
+        when(vectorStoreService.embeddingModelId()).thenReturn(modelId);
+        VectorStoreModeResolver resolver = mock(VectorStoreModeResolver.class);
+        when(resolver.resolve(any())).thenReturn(new ChromaVectorStoreModeStrategy());
+        SqlExampleService service = new SqlExampleService(exampleStore, vectorStoreService, resolver, null, objectMapper);
+        service.init();
+        return service;
+    }
+
+    /** 본문 길이로 만든 4차원 벡터 */
+    private static final class TextLengthEmbeddingModel implements EmbeddingModel {
+        @Override
+        public Response<List<Embedding>> embedAll(List<TextSegment> segments) {
+            List<Embedding> out = new ArrayList<>(segments.size());
+            for (TextSegment segment : segments) {
+                out.add(new Embedding(new float[] {segment.text().length(), 1, 1, 1}));
+            }
+            return Response.from(out);
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.sqlgen.mcp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * 한국어 사전을 교체하면 코멘트 토큰 색인과 검색어 분석이 새 사전 어휘를 쓰는지 확인한다.
+ */
+class TableTextIndexTest {
+
+    @Test
+    void withAnalyzerUsesNewDictionaryVocabulary() {
+        TableTextIndex index = new TableTextIndex(
+                new String[] {"TB_SALE", "TB_ITEM"}, new String[] {"tb_sale", "tb_item"},
+                new String[] {"sale_id price", "item_id"}, new String[] {"판매 단가 정보", "품목 정보"},
+                new String[] {"", ""}, HangulAnalyzer.empty(), 0);
+        // 코멘트 단어는 사전과 무관하게 어휘에 들어간다.
+        assertThat(index.analyzer().normalize("판매단가를")).isEqualTo("판매 단가");
+
+        TableTextIndex reloaded = index.withAnalyzer(HangulAnalyzer.of(List.of("단가표", "판매처")));
+
+        assertThat(reloaded.analyzer().normalize("판매처단가표")).isEqualTo("판매처 단가표");
+        assertThat(index.analyzer().normalize("판매처단가표")).isEqualTo("판매처단가표");
+        assertThat(matches(reloaded, "판매단가")).containsOnly(0);
+        assertThat(matches(reloaded, "tb_item")).containsOnly(1);
+    }
+
+    private static List<Integer> matches(TableTextIndex index, String keyword) {
+        List<Integer> ordinals = new ArrayList<>();
+        index.match(keyword, (ordinal, score) -> ordinals.add(ordinal));
+        return ordinals;
+    }
+}
@@ -0,0 +1,146 @@
+package com.sqlgen.mcp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.StandardEnvironment;
+
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.store.embedding.EmbeddingMatch;
+import dev.langchain4j.store.embedding.EmbeddingSearchRequest;
+
+/**
+ * 스텁 chroma 서버로 로컬 복제본의 reconcile / afterWrite 판단을 확인한다.
+ * reportVersion=false 는 version 을 주지 않는 구버전 서버다.
+ */
+class TieredEmbeddingStoreTest {
+
+    private static final String COLLECTION = "sql_gen_tables";
+
+    private ChromaServerStub chroma;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        chroma = new ChromaServerStub();
+    }
+
+    @AfterEach
+    void stopServer() {
+        chroma.close();
+    }
+
+    @Test
+    void sameCountChangeByAnotherInstanceIsReloaded() {
+        chroma.put(COLLECTION, "A", new float[] {1, 0, 0, 0}, "a");
+        chroma.put(COLLECTION, "B", new float[] {0, 1, 0, 0}, "b");
+        TieredEmbeddingStore store = open();
+
+        // 다른 인스턴스: A 를 지우고 C 를 넣는다 (항목 수 그대로)
+        chroma.remove(COLLECTION, "A");
+        chroma.put(COLLECTION, "C", new float[] {0, 0, 1, 0}, "c");
+        store.reconcile();
+
+        assertThat(replica(store)).containsOnly(entry("B", "b"), entry("C", "c"));
+    }
+
+    @Test
+    void sameCountChangeIsReloadedWithoutServerVersion() {
+        chroma.reportVersion = false;
+        chroma.put(COLLECTION, "A", new float[] {1, 0, 0, 0}, "a");
+        chroma.put(COLLECTION, "B", new float[] {0, 1, 0, 0}, "b");
+        TieredEmbeddingStore store = open();
+
+        // 다른 인스턴스: B 본문 교체, A 를 C 로 바꿈. 항목 수는 그대로다.
+        chroma.put(COLLECTION, "B", new float[] {0, 1, 0, 0}, "b2");
+        chroma.remove(COLLECTION, "A");
+        chroma.put(COLLECTION, "C", new float[] {0, 0, 1, 0}, "c");
+        chroma.resetRequests();
+        store.reconcile();
+
+        assertThat(chroma.embeddingReads()).hasSize(1);
+        assertThat(replica(store)).containsOnly(entry("B", "b2"), entry("C", "c"));
+    }
+
+    @Test
+    void unchangedCollectionIsNotReloaded() {
+        for (boolean reportVersion : new boolean[] {true, false}) {
+            chroma.reportVersion = reportVersion;
+            chroma.put(COLLECTION, "A" + reportVersion, new float[] {1, 0, 0, 0}, "a");
+            TieredEmbeddingStore store = open();
+            chroma.resetRequests();
+
+            store.reconcile();
+
+            assertThat(chroma.embeddingReads()).as("reportVersion=%s", reportVersion).isEmpty();
+        }
+    }
+
+    @Test
+    void ownWriteKeepsReplicaAsBaseline() {
+        for (boolean reportVersion : new boolean[] {true, false}) {
+            chroma.reportVersion = reportVersion;
+            String a = "A" + reportVersion;
+            String b = "B" + reportVersion;
+            chroma.put(COLLECTION, a, new float[] {1, 0, 0, 0}, "a");
+            TieredEmbeddingStore store = open();
+
+            store.addAll(List.of(b), List.of(new Embedding(new float[] {0, 1, 0, 0})), List.of(TextSegment.from("b")));
+            store.removeAll(List.of(a));
+            chroma.resetRequests();
+            store.reconcile();
+
+            assertThat(chroma.embeddingReads()).as("reportVersion=%s", reportVersion).isEmpty();
+            assertThat(replica(store)).containsOnly(entry(b, "b"));
+            store.removeAll(List.of(b));
+        }
+    }
+
+    @Test
+    void anotherInstanceWriteBeforeOwnWriteIsReloadedWithoutServerVersion() {
+        chroma.reportVersion = false;
+        chroma.put(COLLECTION, "A", new float[] {1, 0, 0, 0}, "a");
+        TieredEmbeddingStore store = open();
+
+        // 다른 인스턴스가 A 본문을 바꾼 뒤 자기 쓰기: 항목 수는 예상과 같지만 digest 가 다르다.
+        chroma.put(COLLECTION, "A", new float[] {1, 0, 0, 0}, "a2");
+        store.addAll(List.of("B"), List.of(new Embedding(new float[] {0, 1, 0, 0})), List.of(TextSegment.from("b")));
+        chroma.resetRequests();
+        store.reconcile();
+
+        assertThat(chroma.embeddingReads()).hasSize(1);
+        assertThat(replica(store)).containsOnly(entry("A", "a2"), entry("B", "b"));
+    }
+
+    /** 확인 주기를 길게 두어 검색이 백그라운드 확인을 띄우지 않게 한다. 테스트가 reconcile() 을 직접 부른다. */
+    private TieredEmbeddingStore open() {
+        Map<String, Object> properties = new LinkedHashMap<>();
+        properties.put("ai.vector-store.chroma.url", chroma.baseUrl());
+        properties.put("ai.vector-store.chroma.tenant", ChromaServerStub.TENANT);
+        properties.put("ai.vector-store.chroma.database", ChromaServerStub.DATABASE);
+        properties.put("ai.vector-store.chroma.local-replica.reconcile-seconds", 3600);
+        StandardEnvironment env = new StandardEnvironment();
+        env.getPropertySources().addFirst(new MapPropertySource("test", properties));
+        return (TieredEmbeddingStore) new ChromaVectorStoreModeStrategy().createTableStore(env);
+    }
+
+    /** 복제본 검색 결과의 id → 본문 */
+    private static Map<String, String> replica(TieredEmbeddingStore store) {
+        List<EmbeddingMatch<TextSegment>> matches = store.search(EmbeddingSearchRequest.builder()
+                .queryEmbedding(new Embedding(new float[] {1, 1, 1, 1}))
+                .maxResults(100)
+                .build()).matches();
+        Map<String, String> out = new LinkedHashMap<>();
+        matches.forEach(m -> out.put(m.embeddingId(), m.embedded() == null ? null : m.embedded().text()));
+        return out;
+    }
+}